@@ -0,0 +1,27 @@
+package benchmarks;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Fixed corpus of routes used by the end-to-end benchmarks, so results stay comparable between runs.
+ */
+public enum BenchmarkRoute {
+    VARROCK_STRAIGHT(new WorldPoint(3171, 3383, 0), new WorldPoint(3171, 3404, 0)),
+    VARROCK_FENCE_GATE(new WorldPoint(3147, 3338, 0), new WorldPoint(3175, 3323, 0)),
+    VARROCK_STEPPING_STONES(new WorldPoint(3161, 3364, 0), new WorldPoint(3143, 3364, 0)),
+    GRAND_EXCHANGE_TO_LUMBRIDGE(new WorldPoint(3164, 3486, 0), new WorldPoint(3222, 3218, 0)),
+    LUMBRIDGE_TO_FALADOR(new WorldPoint(3222, 3218, 0), new WorldPoint(2964, 3378, 0)),
+    LUMBRIDGE_CASTLE_UPSTAIRS_TO_VARROCK(new WorldPoint(3206, 3215, 1), new WorldPoint(3159, 3364, 0)),
+    PATERDOMUS_TO_UNDERGROUND(new WorldPoint(3395, 3485, 0), new WorldPoint(3478, 9839, 0));
+
+    @Getter
+    private final WorldPoint start;
+    @Getter
+    private final WorldPoint target;
+
+    BenchmarkRoute(final WorldPoint start, final WorldPoint target) {
+        this.start = start;
+        this.target = target;
+    }
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.worldmap.CollisionMap;
+import shortestpath.worldmap.FlagMap;
+import shortestpath.worldmap.SplitFlagMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionMapBenchmark {
+    private static final int POINT_COUNT = 4096;
+    // Area around Varrock and Lumbridge, the regions of which are kept loaded once used
+    private static final int AREA_X = 3072;
+    private static final int AREA_Y = 3200;
+    private static final int AREA_SIZE = 256;
+
+    private Map<SplitFlagMap.Position, byte[]> compressedRegions;
+    private CollisionMap collisionMap;
+    private CollisionMap coldCollisionMap;
+    private CollisionMap mappedCollisionMap;
+    private int[] pointsX;
+    private int[] pointsY;
+    private OrdinalDirection[] directions;
+    // Regions of the cold map which aren't decompressed yet are the first coldRegionCount
+    private SplitFlagMap.Position[] coldRegions;
+    private int coldRegionCount;
+    private Random missRandom;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        compressedRegions = CollisionMap.readCompressedRegions(Paths.get("src/main/resources/collision-map.zip"));
+        collisionMap = new CollisionMap(64, compressedRegions);
+
+        final Path mappedPath = Files.createTempFile("collision-map", ".bin");
+        mappedPath.toFile().deleteOnExit();
+        CollisionMap.toMappedFile(mappedPath, compressedRegions);
+        mappedCollisionMap = CollisionMap.fromMappedFile(mappedPath);
+
+        final Random random = new Random(0);
+        pointsX = new int[POINT_COUNT];
+        pointsY = new int[POINT_COUNT];
+        directions = new OrdinalDirection[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            pointsX[i] = AREA_X + random.nextInt(AREA_SIZE);
+            pointsY[i] = AREA_Y + random.nextInt(AREA_SIZE);
+            directions[i] = OrdinalDirection.values()[random.nextInt(OrdinalDirection.values().length)];
+            collisionMap.checkDirection(pointsX[i], pointsY[i], 0, directions[i]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupColdMap() {
+        // No region of a new map is decompressed yet
+        coldCollisionMap = new CollisionMap(64, compressedRegions);
+        coldRegions = compressedRegions.keySet().toArray(new SplitFlagMap.Position[0]);
+        coldRegionCount = coldRegions.length;
+        missRandom = new Random(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int checkDirection() {
+        int walkable = 0;
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            if (collisionMap.checkDirection(pointsX[i], pointsY[i], 0, directions[i])) {
+                ++walkable;
+            }
+        }
+        return walkable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int checkDirectionMapped() {
+        int walkable = 0;
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            if (mappedCollisionMap.checkDirection(pointsX[i], pointsY[i], 0, directions[i])) {
+                ++walkable;
+            }
+        }
+        return walkable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int getFlagCacheHit() {
+        int set = 0;
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            if (collisionMap.get(pointsX[i], pointsY[i], 0, i & 1)) {
+                ++set;
+            }
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int getFlagMapped() {
+        int set = 0;
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            if (mappedCollisionMap.get(pointsX[i], pointsY[i], 0, i & 1)) {
+                ++set;
+            }
+        }
+        return set;
+    }
+
+    @Benchmark
+    public boolean getFlagCacheMiss() {
+        if (coldRegionCount == 0) {
+            // Every region was decompressed, rarely enough that the new map hardly adds to the average
+            coldCollisionMap = new CollisionMap(64, compressedRegions);
+            coldRegionCount = coldRegions.length;
+        }
+
+        // A random tile of a random region which isn't decompressed yet, swapped out of the cold regions
+        final int index = missRandom.nextInt(coldRegionCount);
+        final SplitFlagMap.Position region = coldRegions[index];
+        coldRegions[index] = coldRegions[--coldRegionCount];
+        coldRegions[coldRegionCount] = region;
+        final int x = region.x * 64 + missRandom.nextInt(64);
+        final int y = region.y * 64 + missRandom.nextInt(64);
+        return coldCollisionMap.get(x, y, missRandom.nextInt(FlagMap.PLANE_COUNT), 0);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shortestpath.pathfinder.DistanceHeuristic;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.NodeGraph;
+import shortestpath.pathfinder.SearchAlgorithm;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NodeGraphBenchmark {
+    private static final int EVALUATIONS = 10_000;
+    private static final WorldPoint START = new WorldPoint(3222, 3218, 0);
+    private static final WorldPoint TARGET = new WorldPoint(2964, 3378, 0);
+
+    @Param({"BREADTH_FIRST", "A_STAR"})
+    public SearchAlgorithm searchAlgorithm;
+
+    private NodeGraph graph;
+
+    /**
+     * A new graph for every invocation, as evaluating consumes it. An invocation takes EVALUATIONS evaluations,
+     * long enough for the overhead of an invocation level setup not to matter.
+     */
+    @Setup(Level.Invocation)
+    public void setupGraph(final WorldMapState state) {
+        graph = (searchAlgorithm == SearchAlgorithm.A_STAR ?
+                new NodeGraph(state.worldMapProvider.getWorldMap(), new DistanceHeuristic(TARGET, state.worldMapProvider.getWorldMap().getTransports())) :
+                new NodeGraph(state.worldMapProvider.getWorldMap()));
+        graph.addBoundaryNode(Node.createInitialNode(START));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVALUATIONS)
+    public int evaluateBoundaryNode() {
+        for (int i = 0; i < EVALUATIONS && !graph.getBoundary().isEmpty(); ++i) {
+            graph.evaluateBoundaryNode();
+        }
+        return graph.getBoundary().size();
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.SearchAlgorithm;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.pathfindertask.ComplexPathfinderTask;
+import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end pathfinding over the routes of BenchmarkRoute. Simple tasks run on the benchmark thread, complex
+ * tasks run their searches on a PathfinderExecutor as the plugin does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PathfinderTaskBenchmark {
+    @Param
+    public BenchmarkRoute route;
+
+    // CONTRACTION_HIERARCHY would only repeat A*, tasks of this benchmark don't query a hierarchy
+    @Param({"BREADTH_FIRST", "A_STAR", "BIDIRECTIONAL", "JUMP_POINT"})
+    public SearchAlgorithm searchAlgorithm;
+
+    private WorldPoint start;
+    private WorldPoint target;
+    private PathfinderConfig config;
+    private PathfinderExecutor pathfinderExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        start = route.getStart();
+        target = route.getTarget();
+        config = new PathfinderConfig();
+        config.agilityLevel = 99;
+        config.searchAlgorithm = searchAlgorithm;
+        pathfinderExecutor = new PathfinderExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pathfinderExecutor.shutdown();
+    }
+
+    @Benchmark
+    public Path simpleTask(final WorldMapState state) {
+        final SimplePathfinderTask task = new SimplePathfinderTask(state.worldMapProvider.getWorldMap(), start, target, config);
+        task.run();
+        return task.getPath();
+    }
+
+    @Benchmark
+    public Path complexTask(final WorldMapState state) throws InterruptedException, ExecutionException {
+        final ComplexPathfinderTask task = new ComplexPathfinderTask(state.worldMapProvider.getWorldMap(),
+                state.sectionMapper, config, start, target, pathfinderExecutor);
+        return task.getCompletion().get();
+    }
+}
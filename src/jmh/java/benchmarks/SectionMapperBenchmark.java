@@ -0,0 +1,46 @@
+package benchmarks;
+
+import net.runelite.api.coords.WorldPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SectionMapperBenchmark {
+    private static final int POINT_COUNT = 4096;
+
+    private WorldPoint[] points;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Points spread over the overworld, most of them inside a section
+        final Random random = new Random(0);
+        points = new WorldPoint[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; ++i) {
+            points[i] = new WorldPoint(2944 + random.nextInt(512), 3136 + random.nextInt(512), 0);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINT_COUNT)
+    public int getSection(final WorldMapState state) {
+        int inSection = 0;
+        for (final WorldPoint point : points) {
+            if (state.sectionMapper.getSection(point) != null) {
+                ++inSection;
+            }
+        }
+        return inSection;
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.TransportTable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+    private byte[] compiledTransports;
+
+    @Setup
+    public void setup() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            TransportTable.byOrigin(Transport.fromFile(Paths.get("src/main/resources/transports.txt"))).write(out);
+        }
+        compiledTransports = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<Transport> fromFile() {
+        return Transport.fromFile(Paths.get("src/main/resources/transports.txt"));
+    }
+
+    @Benchmark
+    public TransportTable readCompiled() throws IOException {
+        return TransportTable.read(new DataInputStream(new ByteArrayInputStream(compiledTransports)));
+    }
+}
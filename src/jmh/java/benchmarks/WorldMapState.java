@@ -0,0 +1,23 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionMapper;
+
+/**
+ * World map and section map loaded once per benchmark run, shared by all threads of the benchmark.
+ */
+@State(Scope.Benchmark)
+public class WorldMapState {
+    public WorldMapProvider worldMapProvider;
+    public SectionMapper sectionMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        worldMapProvider = new WorldMapProvider();
+        sectionMapper = SectionMapper.fromFile(worldMapProvider);
+    }
+}
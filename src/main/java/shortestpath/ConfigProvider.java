@@ -24,6 +24,7 @@ public class ConfigProvider {
         config.agilityLevel = clientInfoProvider.getBoostedSkillLevel(Skill.AGILITY);
         config.rangedLevel = clientInfoProvider.getBoostedSkillLevel(Skill.RANGED);
         config.strengthLevel = clientInfoProvider.getBoostedSkillLevel(Skill.STRENGTH);
+        config.searchAlgorithm = pluginConfig.searchAlgorithm();
         return config;
     }
 
@@ -70,4 +71,16 @@ public class ConfigProvider {
     public int ticksWithoutProgressBeforeCancelingTask() {
         return pluginConfig.abortTicks();
     }
+
+    public int pathfinderThreadCount() {
+        return pluginConfig.pathfinderThreads();
+    }
+
+    public boolean preloadCollisionMap() {
+        return pluginConfig.preloadCollisionMap();
+    }
+
+    public int preloadRadius() {
+        return pluginConfig.preloadRadius();
+    }
 }
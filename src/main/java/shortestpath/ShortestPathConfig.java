@@ -8,6 +8,8 @@ import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
 import net.runelite.client.config.Range;
 import shortestpath.overlays.TileCounter;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.SearchAlgorithm;
 
 @ConfigGroup("shortestPath")
 public interface ShortestPathConfig extends Config {
@@ -107,11 +109,63 @@ public interface ShortestPathConfig extends Config {
         return 5;
     }
 
+    @Range(
+            min = 1,
+            max = 8
+    )
+    @ConfigItem(
+            keyName = "pathfinderThreads",
+            name = "Pathfinder threads",
+            description = "Maximum amount of threads used to calculate paths at the same time (takes effect when the plugin is restarted)",
+            position = 8,
+            section = sectionSettings
+    )
+    default int pathfinderThreads() {
+        return PathfinderExecutor.DEFAULT_THREAD_COUNT;
+    }
+
+    @ConfigItem(
+            keyName = "preloadCollisionMap",
+            name = "Preload collision map",
+            description = "Whether the collision map should be loaded ahead of time, rather than as paths reach each area (uses more memory)",
+            position = 9,
+            section = sectionSettings
+    )
+    default boolean preloadCollisionMap() {
+        return false;
+    }
+
+    @Range(
+            min = 0,
+            max = 50
+    )
+    @ConfigItem(
+            keyName = "preloadRadius",
+            name = "Preload radius",
+            description = "Regions of 64x64 tiles around the player to preload when logging in or arriving in another area (0 for the whole map when the plugin starts)",
+            position = 10,
+            section = sectionSettings
+    )
+    default int preloadRadius() {
+        return 0;
+    }
+
+    @ConfigItem(
+            keyName = "searchAlgorithm",
+            name = "Search algorithm",
+            description = "Algorithm used to search for paths (contraction hierarchy needs the generated contraction-hierarchy.gz, which is loaded on the first search and uses more memory, and falls back to A*)",
+            position = 11,
+            section = sectionSettings
+    )
+    default SearchAlgorithm searchAlgorithm() {
+        return SearchAlgorithm.A_STAR;
+    }
+
     @ConfigItem(
         keyName = "showTileCounter",
         name = "Show tile counter",
         description = "Whether to display the number of tiles travelled, number of tiles remaining or disable counting",
-        position = 8,
+        position = 12,
         section = sectionSettings
     )
     default TileCounter showTileCounter() {
@@ -121,7 +175,7 @@ public interface ShortestPathConfig extends Config {
     @ConfigSection(
         name = "Display",
         description = "Options for displaying the path on the world map, minimap and scene tiles",
-        position = 9
+        position = 13
     )
     String sectionDisplay = "sectionDisplay";
 
@@ -129,7 +183,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawMap",
         name = "Draw path on world map",
         description = "Whether the path should be drawn on the world map",
-        position = 10,
+        position = 14,
         section = sectionDisplay
     )
     default boolean drawMap() {
@@ -140,7 +194,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawMinimap",
         name = "Draw path on minimap",
         description = "Whether the path should be drawn on the minimap",
-        position = 11,
+        position = 15,
         section = sectionDisplay
     )
     default boolean drawMinimap() {
@@ -151,7 +205,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawTiles",
         name = "Draw path on tiles",
         description = "Whether the path should be drawn on the game tiles",
-        position = 12,
+        position = 16,
         section = sectionDisplay
     )
     default boolean drawTiles() {
@@ -162,7 +216,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawTransports",
         name = "Draw transports",
         description = "Whether transports should be drawn",
-        position = 13,
+        position = 17,
         section = sectionDisplay
     )
     default boolean drawTransports() {
@@ -173,7 +227,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "drawCollisionMap",
         name = "Draw collision map",
         description = "Whether the collision map should be drawn",
-        position = 14,
+        position = 18,
         section = sectionDisplay
     )
     default boolean drawCollisionMap() {
@@ -183,7 +237,7 @@ public interface ShortestPathConfig extends Config {
     @ConfigSection(
         name = "Colours",
         description = "Colours for the path map, minimap and scene tiles",
-        position = 15
+        position = 19
     )
     String sectionColours = "sectionColours";
 
@@ -192,7 +246,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourPath",
         name = "Path",
         description = "Colour of the path tiles on the world map, minimap and in the game scene",
-        position = 16,
+        position = 20,
         section = sectionColours
     )
     default Color colourPath() {
@@ -204,7 +258,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourPathCalculating",
         name = "Calculating",
         description = "Colour of the path tiles while the pathfinding calculation is in progress",
-        position = 17,
+        position = 21,
         section = sectionColours
     )
     default Color colourPathCalculating() {
@@ -216,7 +270,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourTransports",
         name = "Transports",
         description = "Colour of the transport tiles",
-        position = 18,
+        position = 22,
         section = sectionColours
     )
     default Color colourTransports() {
@@ -228,7 +282,7 @@ public interface ShortestPathConfig extends Config {
         keyName = "colourCollisionMap",
         name = "Collision map",
         description = "Colour of the collision map tiles",
-        position = 19,
+        position = 23,
         section = sectionColours
     )
     default Color colourCollisionMap() {
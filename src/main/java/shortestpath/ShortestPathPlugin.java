@@ -2,12 +2,15 @@ package shortestpath;
 
 import com.google.inject.Inject;
 import com.google.inject.Provides;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
+import net.runelite.api.GameState;
 import net.runelite.api.KeyCode;
 import net.runelite.api.MenuAction;
 import net.runelite.api.MenuEntry;
 import net.runelite.api.Point;
 import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
 import net.runelite.api.events.MenuEntryAdded;
 import net.runelite.api.events.MenuOpened;
@@ -30,12 +33,14 @@ import shortestpath.pathfinder.PathfinderRequestHandler;
 import shortestpath.overlays.PathMapOverlay;
 import shortestpath.overlays.PathMinimapOverlay;
 import shortestpath.overlays.PathTileOverlay;
+import shortestpath.pathfinder.PathfinderExecutor;
 import shortestpath.pathfinder.PathfinderTaskHandler;
 import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.worldmap.WorldMapProvider;
 import shortestpath.worldmap.sections.SectionMapper;
 
+import javax.annotation.Nullable;
 import java.awt.Shape;
 import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
@@ -43,7 +48,9 @@ import java.awt.image.BufferedImage;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+@Slf4j
 @PluginDescriptor(
         name = "Shortest Path",
         description = "Draws the shortest path to a chosen destination on the map (right click a spot on the world map to use)",
@@ -83,6 +90,9 @@ public class ShortestPathPlugin extends Plugin {
     public WorldMapPoint marker;
     private WorldPoint transportStart;
     private MenuEntry lastClick;
+    // Set when logged in with a preload radius, which includes after loading screens, so the area the player
+    // arrives in is preloaded. The player's location is only known by the next game tick.
+    private boolean shouldPreloadAroundPlayer = false;
 
     private PathTileOverlay pathOverlay;
     private PathMinimapOverlay pathMinimapOverlay;
@@ -92,6 +102,7 @@ public class ShortestPathPlugin extends Plugin {
     private ConfigProvider configProvider;
     private WorldMapProvider worldMapProvider;
     private SectionMapper sectionMapper;
+    private PathfinderExecutor pathfinderExecutor;
     private PathfinderTaskHandler pathfinderTaskHandler;
     private PathfinderRequestHandler pathfinderRequestHandler;
 
@@ -101,11 +112,15 @@ public class ShortestPathPlugin extends Plugin {
         this.clientInfoProvider = new ClientInfoProvider(client, spriteManager);
         this.configProvider = new ConfigProvider(config, clientInfoProvider);
         this.worldMapProvider = new WorldMapProvider();
+        if (configProvider.preloadCollisionMap() && configProvider.preloadRadius() == 0) {
+            preloadCollisionMap(null, 0);
+        }
 
         this.sectionMapper = SectionMapper.fromFile(worldMapProvider);
 
         // Pathfinder
-        this.pathfinderTaskHandler = new PathfinderTaskHandler(configProvider, worldMapProvider, sectionMapper);
+        this.pathfinderExecutor = new PathfinderExecutor(configProvider.pathfinderThreadCount());
+        this.pathfinderTaskHandler = new PathfinderTaskHandler(configProvider, worldMapProvider, sectionMapper, pathfinderExecutor);
         this.pathfinderRequestHandler = new PathfinderRequestHandler(clientInfoProvider, worldMapProvider, pathfinderTaskHandler);
 
         // Overlays
@@ -123,6 +138,25 @@ public class ShortestPathPlugin extends Plugin {
         overlayManager.remove(pathOverlay);
         overlayManager.remove(pathMinimapOverlay);
         overlayManager.remove(pathMapOverlay);
+
+        pathfinderExecutor.shutdown();
+    }
+
+    // The whole map when center is null, otherwise the regions at most regionRadius regions away from it
+    private void preloadCollisionMap(@Nullable final WorldPoint center, final int regionRadius) {
+        worldMapProvider.preloadRegions(center, regionRadius, ForkJoinPool.commonPool(), (loadedRegions, totalRegions) -> {
+            if (loadedRegions % Math.max(1, totalRegions / 10) == 0) {
+                log.debug("Preloaded {}/{} collision map regions", loadedRegions, totalRegions);
+            }
+        }).whenComplete((milliseconds, throwable) -> {
+            if (throwable != null) {
+                log.warn("Preloading the collision map failed", throwable);
+            }
+            else {
+                log.debug("Preloaded the collision map{} in {} ms",
+                        (center == null ? "" : " around " + center), milliseconds);
+            }
+        });
     }
 
     public boolean isNearPath(WorldPoint location) {
@@ -143,10 +177,22 @@ public class ShortestPathPlugin extends Plugin {
         lastMenuOpenedPoint = client.getMouseCanvasPosition();
     }
 
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event) {
+        if (event.getGameState() == GameState.LOGGED_IN && configProvider.preloadCollisionMap() && configProvider.preloadRadius() > 0) {
+            shouldPreloadAroundPlayer = true;
+        }
+    }
+
     @Subscribe
     public void onGameTick(GameTick tick) {
         pathfinderTaskHandler.evaluateTasks();
 
+        if (shouldPreloadAroundPlayer) {
+            shouldPreloadAroundPlayer = false;
+            preloadCollisionMap(clientInfoProvider.getPlayerLocation(), configProvider.preloadRadius());
+        }
+
         if (!pathfinderRequestHandler.hasActivePath()) {
             return;
         }
@@ -156,6 +202,15 @@ public class ShortestPathPlugin extends Plugin {
             setTarget(null);
             return;
         }
+
+        if (pathfinderRequestHandler.isActivePathDone() && !isNearPath(currentLocation)) {
+            if (config.cancelInstead()) {
+                setTarget(null);
+            }
+            else {
+                pathfinderRequestHandler.replanFrom(currentLocation);
+            }
+        }
     }
 
     @Subscribe
@@ -0,0 +1,208 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.Walk;
+import shortestpath.utils.WorldPointSet;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Breadth-first search from the start and from the target at the same time, one level of the smallest frontier at
+ * a time. As every movement costs the same, the shortest path is found once the level in which both searches first
+ * meet has been expanded, after visiting roughly the square root of the tiles a one-sided search would visit.
+ *
+ * Nodes of the backward search hold the movement leading from their point towards the target, and their previous
+ * Node is the one closer to the target.
+ */
+public class BidirectionalSearch {
+    private final WorldMap worldMap;
+    private final WorldPoint target;
+    private final Predicate<WorldPoint> neighborPredicate;
+    private final Predicate<Transport> transportPredicate;
+
+    private final WorldPointSet forwardVisited = new WorldPointSet();
+    // Forward nodes are only needed to join the searches, so they stop being kept once the target side is exhausted
+    private final NodeMap forwardNodes = new NodeMap();
+    private final NodeMap backwardNodes = new NodeMap();
+    private List<Node> forwardFrontier = new ArrayList<>();
+    private List<Node> backwardFrontier = new ArrayList<>();
+
+    // Forward Node closest to the target, used as the path while the searches haven't met
+    @Getter
+    private Node closestNode;
+    private int closestDistance;
+    // Node at the target of the shortest path, once the searches have met
+    @Getter
+    private Node pathNode;
+
+    private Node bestForwardMeeting;
+    private Node bestBackwardMeeting;
+
+    public BidirectionalSearch(final WorldMap worldMap, final WorldPoint start, final WorldPoint target,
+                               final Predicate<WorldPoint> neighborPredicate, final Predicate<Transport> transportPredicate) {
+        this.worldMap = worldMap;
+        this.target = target;
+        this.neighborPredicate = neighborPredicate;
+        this.transportPredicate = transportPredicate;
+
+        final Node startNode = Node.createInitialNode(start);
+        forwardVisited.add(start);
+        forwardNodes.put(WorldPointUtil.packWorldPoint(start), startNode);
+        forwardFrontier.add(startNode);
+        closestNode = startNode;
+        closestDistance = start.distanceTo(target);
+
+        final Node targetNode = Node.createInitialNode(target);
+        backwardNodes.put(WorldPointUtil.packWorldPoint(target), targetNode);
+        backwardFrontier.add(targetNode);
+
+        if (start.equals(target)) {
+            pathNode = startNode;
+        }
+    }
+
+    /**
+     * Whether the shortest path has been found, or the target can't be reached from the start
+     */
+    public boolean isDone() {
+        return pathNode != null || forwardFrontier.isEmpty();
+    }
+
+    public void expandLevel() {
+        // Once the target side is exhausted without meeting, only the forward search continues so the closest
+        // reachable point is still found
+        final boolean expandForward = backwardFrontier.isEmpty() || forwardFrontier.size() <= backwardFrontier.size();
+        final List<Node> nextFrontier = new ArrayList<>();
+        if (expandForward) {
+            for (final Node node : forwardFrontier) {
+                expandForward(node, nextFrontier);
+            }
+            forwardFrontier = nextFrontier;
+        }
+        else {
+            for (final Node node : backwardFrontier) {
+                expandBackward(node, nextFrontier);
+            }
+            backwardFrontier = nextFrontier;
+        }
+
+        if (bestForwardMeeting != null) {
+            pathNode = join(bestForwardMeeting, bestBackwardMeeting);
+        }
+    }
+
+    private void expandForward(final Node node, final List<Node> nextFrontier) {
+        final WorldPoint point = node.getMovement().getDestination();
+        final int x = point.getX();
+        final int y = point.getY();
+        final int plane = point.getPlane();
+
+        for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+            final int neighborX = x + NodeGraph.directionX[i];
+            final int neighborY = y + NodeGraph.directionY[i];
+            if (forwardVisited.contains(neighborX, neighborY, plane) || !worldMap.checkDirection(x, y, plane, NodeGraph.directionPriority[i])) {
+                continue;
+            }
+
+            final WorldPoint neighbor = new WorldPoint(neighborX, neighborY, plane);
+            if (neighborPredicate.test(neighbor)) {
+                addForwardNode(WorldPointUtil.packWorldPoint(neighborX, neighborY, plane), new Node(new Walk(point, neighbor), node), nextFrontier);
+            }
+        }
+
+        final List<Transport> transports = worldMap.getTransports(WorldPointUtil.packWorldPoint(x, y, plane));
+        for (int i = 0; i < transports.size(); ++i) {
+            final Transport transport = transports.get(i);
+            final int packedDestination = WorldPointUtil.packWorldPoint(transport.getDestination());
+            if (!forwardVisited.contains(packedDestination) && transportPredicate.test(transport)) {
+                addForwardNode(packedDestination, new Node(transport, node), nextFrontier);
+            }
+        }
+    }
+
+    private void expandBackward(final Node node, final List<Node> nextFrontier) {
+        final WorldPoint point = node.getMovement().getOrigin();
+        final int x = point.getX();
+        final int y = point.getY();
+        final int plane = point.getPlane();
+
+        // The forward search tests the destination of each walk
+        if (neighborPredicate.test(point)) {
+            for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+                final int previousX = x - NodeGraph.directionX[i];
+                final int previousY = y - NodeGraph.directionY[i];
+                if (!WorldPointUtil.isPackable(previousX, previousY, plane)) {
+                    continue;
+                }
+                final int packedPrevious = WorldPointUtil.packWorldPoint(previousX, previousY, plane);
+                if (backwardNodes.get(packedPrevious) != null || !worldMap.checkDirection(previousX, previousY, plane, NodeGraph.directionPriority[i])) {
+                    continue;
+                }
+
+                addBackwardNode(packedPrevious, new Node(new Walk(new WorldPoint(previousX, previousY, plane), point), node), nextFrontier);
+            }
+        }
+
+        final List<Transport> transports = worldMap.getTransportsTo(WorldPointUtil.packWorldPoint(x, y, plane));
+        for (int i = 0; i < transports.size(); ++i) {
+            final Transport transport = transports.get(i);
+            final int packedOrigin = WorldPointUtil.packWorldPoint(transport.getOrigin());
+            if (backwardNodes.get(packedOrigin) == null && transportPredicate.test(transport)) {
+                addBackwardNode(packedOrigin, new Node(transport, node), nextFrontier);
+            }
+        }
+    }
+
+    private void addForwardNode(final int packedPoint, final Node node, final List<Node> nextFrontier) {
+        forwardVisited.add(packedPoint);
+        nextFrontier.add(node);
+
+        final int distance = node.getMovement().getDestination().distanceTo(target);
+        if (distance < closestDistance) {
+            closestNode = node;
+            closestDistance = distance;
+        }
+
+        if (!backwardFrontier.isEmpty()) {
+            forwardNodes.put(packedPoint, node);
+            final Node backwardNode = backwardNodes.get(packedPoint);
+            if (backwardNode != null) {
+                updateMeeting(node, backwardNode);
+            }
+        }
+    }
+
+    private void addBackwardNode(final int packedPoint, final Node node, final List<Node> nextFrontier) {
+        backwardNodes.put(packedPoint, node);
+        nextFrontier.add(node);
+
+        final Node forwardNode = forwardNodes.get(packedPoint);
+        if (forwardNode != null) {
+            updateMeeting(forwardNode, node);
+        }
+    }
+
+    private void updateMeeting(final Node forwardNode, final Node backwardNode) {
+        if (bestForwardMeeting == null ||
+                forwardNode.getCost() + backwardNode.getCost() < bestForwardMeeting.getCost() + bestBackwardMeeting.getCost()) {
+            bestForwardMeeting = forwardNode;
+            bestBackwardMeeting = backwardNode;
+        }
+    }
+
+    private static Node join(final Node forwardNode, final Node backwardNode) {
+        Node node = forwardNode;
+        Node backwardIterator = backwardNode;
+        while (backwardIterator.getPrevious() != null) {
+            node = new Node(backwardIterator.getMovement(), node);
+            backwardIterator = backwardIterator.getPrevious();
+        }
+        return node;
+    }
+}
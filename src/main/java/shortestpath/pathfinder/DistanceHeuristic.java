@@ -0,0 +1,31 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+
+public class DistanceHeuristic implements Heuristic {
+    private final WorldPoint target;
+    private final int transportArrivalCost;
+
+    public DistanceHeuristic(final WorldPoint target, final Iterable<Transport> transports) {
+        this.target = target;
+
+        // A transport can cover any distance in a single movement, so the distance to the target can only be
+        // trusted up to the cheapest way of arriving at the target from the destination of a transport.
+        int cheapestArrival = Integer.MAX_VALUE;
+        for (final Transport transport : transports) {
+            final int distance = transport.getDestination().distanceTo(target);
+            if (distance != Integer.MAX_VALUE) {
+                cheapestArrival = Math.min(cheapestArrival, distance + 1);
+            }
+        }
+        this.transportArrivalCost = cheapestArrival;
+    }
+
+    @Override
+    public int estimate(final WorldPoint point) {
+        // WorldPoint.distanceTo is the Chebyshev distance, which matches walking since diagonal steps cost the
+        // same as straight ones. Points on another plane can only reach the target through a transport.
+        return Math.min(point.distanceTo(target), transportArrivalCost);
+    }
+}
@@ -0,0 +1,12 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Estimate of the amount of movements left from a point to the target of a search, used to order the
+ * boundary of an A* search. Must never overestimate, otherwise the resulting path is not guaranteed to be
+ * the shortest.
+ */
+public interface Heuristic {
+    int estimate(final WorldPoint point);
+}
@@ -0,0 +1,11 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+
+/**
+ * Creates the Heuristic of an A* search towards a target, which may only use the given transports.
+ */
+public interface HeuristicProvider {
+    Heuristic createHeuristic(final WorldPoint target, final Iterable<Transport> transports);
+}
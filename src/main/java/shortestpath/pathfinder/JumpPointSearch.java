@@ -0,0 +1,224 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.Walk;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A* search over jump points (Harabor and Grastien), which scans straight and diagonal lines of walkable tiles
+ * instead of queueing every tile along them.
+ *
+ * Only canonical paths are followed: diagonal steps in one direction, then straight steps in one of its
+ * components. As diagonal steps cost the same as straight ones, every tile of open terrain is reached as quickly
+ * that way. A scan stops at a jump point, a tile with a forced neighbor that can't be reached at most as quickly
+ * from the previous tile by a canonical path. Walls in the collision map block the movement between two tiles
+ * rather than whole tiles, so forced neighbors are found by checking those paths with checkDirection instead of
+ * looking for blocked tiles. Transport origins and the target also end scans, so no transport is skipped.
+ *
+ * Every scanned tile is still added to the path as a Walk, so a jump of k tiles adds k Nodes and Node costs stay
+ * the amount of movements.
+ */
+public class JumpPointSearch {
+    private final WorldMap worldMap;
+    private final WorldPoint target;
+    private final int packedTarget;
+    private final Predicate<WorldPoint> neighborPredicate;
+    private final Predicate<Transport> transportPredicate;
+    private final NodeHeap boundary;
+
+    // Jump point closest to the target, used as the path when the target can't be reached
+    @Getter
+    private Node closestNode;
+    private int closestDistance;
+    // Node at the target, once it has been reached
+    @Getter
+    private Node pathNode;
+
+    public JumpPointSearch(final WorldMap worldMap, final WorldPoint start, final WorldPoint target, final Heuristic heuristic,
+                           final Predicate<WorldPoint> neighborPredicate, final Predicate<Transport> transportPredicate) {
+        this.worldMap = worldMap;
+        this.target = target;
+        this.packedTarget = WorldPointUtil.packWorldPoint(target);
+        this.neighborPredicate = neighborPredicate;
+        this.transportPredicate = transportPredicate;
+        this.boundary = new NodeHeap(heuristic);
+
+        final Node startNode = Node.createInitialNode(start);
+        boundary.offer(startNode);
+        closestNode = startNode;
+        closestDistance = start.distanceTo(target);
+    }
+
+    /**
+     * Whether the target has been reached, or can't be reached from the start
+     */
+    public boolean isDone() {
+        return pathNode != null || boundary.isEmpty();
+    }
+
+    public void expandNode() {
+        final Node node = boundary.poll();
+        final WorldPoint point = node.getMovement().getDestination();
+        if (point.equals(target)) {
+            pathNode = node;
+            return;
+        }
+
+        final int distance = point.distanceTo(target);
+        if (distance < closestDistance) {
+            closestNode = node;
+            closestDistance = distance;
+        }
+
+        final int x = point.getX();
+        final int y = point.getY();
+        final int plane = point.getPlane();
+        if (node.getPrevious() == null || !(node.getMovement() instanceof Walk)) {
+            // Nothing is known about how the start or a transport destination was reached
+            for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+                addJumpPoint(node, x, y, plane, NodeGraph.directionX[i], NodeGraph.directionY[i]);
+            }
+        }
+        else {
+            final int previousX = node.getMovement().getOrigin().getX();
+            final int previousY = node.getMovement().getOrigin().getY();
+            final int dx = x - previousX;
+            final int dy = y - previousY;
+            for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+                final int stepX = NodeGraph.directionX[i];
+                final int stepY = NodeGraph.directionY[i];
+                if (isCanonical(dx, dy, stepX, stepY) || isForced(previousX, previousY, x, y, plane, i)) {
+                    addJumpPoint(node, x, y, plane, stepX, stepY);
+                }
+            }
+        }
+
+        final List<Transport> transports = worldMap.getTransports(WorldPointUtil.packWorldPoint(x, y, plane));
+        for (int i = 0; i < transports.size(); ++i) {
+            final Transport transport = transports.get(i);
+            if (transportPredicate.test(transport) &&
+                    boundary.isCheaperThanOffered(WorldPointUtil.packWorldPoint(transport.getDestination()), node.getCost() + 1)) {
+                boundary.offer(new Node(transport, node));
+            }
+        }
+    }
+
+    private void addJumpPoint(final Node node, final int x, final int y, final int plane, final int dx, final int dy) {
+        final int distance = jump(x, y, plane, dx, dy);
+        if (distance == 0 || !boundary.isCheaperThanOffered(
+                WorldPointUtil.packWorldPoint(x + dx * distance, y + dy * distance, plane), node.getCost() + distance)) {
+            return;
+        }
+
+        Node jumpNode = node;
+        WorldPoint point = node.getMovement().getDestination();
+        for (int i = 1; i <= distance; ++i) {
+            final WorldPoint next = new WorldPoint(x + dx * i, y + dy * i, plane);
+            jumpNode = new Node(new Walk(point, next), jumpNode);
+            point = next;
+        }
+        boundary.offer(jumpNode);
+    }
+
+    /**
+     * Amount of tiles from the tile to the next jump point in the direction, or 0 when the scan runs into a wall
+     * first.
+     */
+    private int jump(int x, int y, final int plane, final int dx, final int dy) {
+        final int direction = directionIndex(dx, dy);
+        int distance = 0;
+        while (true) {
+            if (!worldMap.checkDirection(x, y, plane, NodeGraph.directionPriority[direction]) ||
+                    !neighborPredicate.test(new WorldPoint(x + dx, y + dy, plane))) {
+                return 0;
+            }
+
+            final int previousX = x;
+            final int previousY = y;
+            x += dx;
+            y += dy;
+            ++distance;
+
+            final int packedPoint = WorldPointUtil.packWorldPoint(x, y, plane);
+            if (packedPoint == packedTarget || !worldMap.getTransports(packedPoint).isEmpty() ||
+                    hasForcedNeighbor(previousX, previousY, x, y, plane)) {
+                return distance;
+            }
+            // A diagonal scan stops where one of its straight scans finds a jump point
+            if (dx != 0 && dy != 0 && (jump(x, y, plane, dx, 0) > 0 || jump(x, y, plane, 0, dy) > 0)) {
+                return distance;
+            }
+        }
+    }
+
+    private boolean hasForcedNeighbor(final int previousX, final int previousY, final int x, final int y, final int plane) {
+        for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+            if (!isCanonical(x - previousX, y - previousY, NodeGraph.directionX[i], NodeGraph.directionY[i]) &&
+                    isForced(previousX, previousY, x, y, plane, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the neighbor of the tile in the direction can be walked to from the tile, but can't be reached in
+     * at most two steps from the previous tile by a canonical path not through the tile.
+     */
+    private boolean isForced(final int previousX, final int previousY, final int x, final int y, final int plane, final int direction) {
+        final int neighborX = x + NodeGraph.directionX[direction];
+        final int neighborY = y + NodeGraph.directionY[direction];
+        if (!worldMap.checkDirection(x, y, plane, NodeGraph.directionPriority[direction]) ||
+                (neighborX == previousX && neighborY == previousY) ||
+                !neighborPredicate.test(new WorldPoint(neighborX, neighborY, plane))) {
+            return false;
+        }
+
+        final int toNeighborX = neighborX - previousX;
+        final int toNeighborY = neighborY - previousY;
+        if (Math.abs(toNeighborX) <= 1 && Math.abs(toNeighborY) <= 1 &&
+                worldMap.checkDirection(previousX, previousY, plane, NodeGraph.directionPriority[directionIndex(toNeighborX, toNeighborY)])) {
+            return false;
+        }
+
+        for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+            final int middleX = previousX + NodeGraph.directionX[i];
+            final int middleY = previousY + NodeGraph.directionY[i];
+            final int stepX = neighborX - middleX;
+            final int stepY = neighborY - middleY;
+            if ((middleX == x && middleY == y) || Math.abs(stepX) > 1 || Math.abs(stepY) > 1 ||
+                    !isCanonical(NodeGraph.directionX[i], NodeGraph.directionY[i], stepX, stepY)) {
+                continue;
+            }
+            if (worldMap.checkDirection(previousX, previousY, plane, NodeGraph.directionPriority[i]) &&
+                    worldMap.checkDirection(middleX, middleY, plane, NodeGraph.directionPriority[directionIndex(stepX, stepY)]) &&
+                    neighborPredicate.test(new WorldPoint(middleX, middleY, plane))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether a step may follow a step in the direction on a canonical path
+    private static boolean isCanonical(final int dx, final int dy, final int stepX, final int stepY) {
+        if (stepX == dx && stepY == dy) {
+            return true;
+        }
+        return dx != 0 && dy != 0 && ((stepX == dx && stepY == 0) || (stepX == 0 && stepY == dy));
+    }
+
+    private static int directionIndex(final int dx, final int dy) {
+        for (int i = 0; i < NodeGraph.directionPriority.length; ++i) {
+            if (NodeGraph.directionX[i] == dx && NodeGraph.directionY[i] == dy) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a direction: " + dx + ", " + dy);
+    }
+}
@@ -0,0 +1,373 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.utils.Util;
+import shortestpath.utils.WorldPointSet;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Distances from a few landmark tiles spread over the map to every tile reachable from them, for the ALT (A*,
+ * landmarks and triangle inequality) heuristic: the distance from a point to the target is at least
+ * d(landmark, target) - d(landmark, point), and unlike the distance on the map that accounts for transports.
+ *
+ * To stay about the size of the collision map the distances are kept per cell of CELL_SIZE x CELL_SIZE tiles,
+ * as the lowest and the highest distance of the tiles in it. The lowest distance is a lower bound of the distance
+ * to any tile of the cell. The highest distance is only an upper bound when every tile of the cell is reachable
+ * from the landmark, so it is UNKNOWN for cells which are only partly reachable.
+ *
+ * The distances are only valid for the collision map and transports they were computed with, and can't be used
+ * once transports have been added.
+ */
+public class LandmarkDistances implements HeuristicProvider {
+    public static final int UNKNOWN = 0xFFFF;
+    private static final int REGION_SIZE = 64;
+    private static final int CELL_SIZE = 8;
+    private static final int CELLS_PER_AXIS = REGION_SIZE / CELL_SIZE;
+    private static final int CELLS_PER_REGION = CELLS_PER_AXIS * CELLS_PER_AXIS;
+    private static final int REGIONS_PER_AXIS = (WorldPointUtil.MAX_COORDINATE + 1) / REGION_SIZE;
+    private static final int NO_BLOCK = -1;
+    private static final ZipEntry DISTANCES_ZIP_ENTRY = new ZipEntry("landmark-distances.bin");
+    private static final int DISTANCES_FILE_MAGIC = 0x4C4D524B; // "LMRK"
+    private static final int DISTANCES_FILE_VERSION = 1;
+
+    @Getter
+    private final List<WorldPoint> landmarks;
+    private final int minRegionX;
+    private final int minRegionY;
+    private final int regionCountX;
+    private final int regionCountY;
+    // Per region and plane the block of its cells, NO_BLOCK when no tile of it is reachable from any landmark
+    private final int[] blocks;
+    // Per block, cell and landmark the lowest and highest distance from the landmark to the tiles of the cell
+    private final char[] distances;
+
+    private LandmarkDistances(final List<WorldPoint> landmarks, final int minRegionX, final int minRegionY,
+                              final int regionCountX, final int regionCountY, final int[] blocks, final char[] distances) {
+        this.landmarks = Collections.unmodifiableList(landmarks);
+        this.minRegionX = minRegionX;
+        this.minRegionY = minRegionY;
+        this.regionCountX = regionCountX;
+        this.regionCountY = regionCountY;
+        this.blocks = blocks;
+        this.distances = distances;
+    }
+
+    @Override
+    public Heuristic createHeuristic(final WorldPoint target, final Iterable<Transport> transports) {
+        return new LandmarkHeuristic(this, target, transports);
+    }
+
+    /**
+     * Offset of the distances of the cell of a tile, for getLowestDistance and getHighestDistance, or -1 when
+     * the tile isn't reachable from any landmark.
+     */
+    public int getCellOffset(final int x, final int y, final int plane) {
+        final int regionX = x / REGION_SIZE - minRegionX;
+        final int regionY = y / REGION_SIZE - minRegionY;
+        if (x < 0 || y < 0 || plane < 0 || plane >= WorldPointUtil.PLANE_COUNT ||
+                regionX < 0 || regionY < 0 || regionX >= regionCountX || regionY >= regionCountY) {
+            return -1;
+        }
+
+        final int block = blocks[(regionX * regionCountY + regionY) * WorldPointUtil.PLANE_COUNT + plane];
+        if (block == NO_BLOCK) {
+            return -1;
+        }
+        return (block * CELLS_PER_REGION + cellIndex(x, y)) * landmarks.size() * 2;
+    }
+
+    public int getLowestDistance(final int cellOffset, final int landmark) {
+        return distances[cellOffset + landmark * 2];
+    }
+
+    public int getHighestDistance(final int cellOffset, final int landmark) {
+        return distances[cellOffset + landmark * 2 + 1];
+    }
+
+    /**
+     * Chooses landmarks by farthest-point selection among the tiles reachable from the seed, each being the tile
+     * furthest away from the seed and the landmarks chosen before it, and computes their distances with a
+     * breadth-first search over every transport.
+     */
+    public static LandmarkDistances compute(final WorldMap worldMap, final WorldPoint seed, final int landmarkCount) {
+        // Per region and plane, the distance of each tile to the seed or the closest landmark, 0 for tiles not
+        // reachable from the seed
+        final Map<Integer, char[]> closestDistances = new TreeMap<>();
+        breadthFirstSearch(worldMap, seed, (x, y, plane, distance) ->
+                closestDistances.computeIfAbsent(blockKey(x, y, plane), k -> new char[REGION_SIZE * REGION_SIZE])
+                        [tileIndex(x, y)] = (char) Math.min(distance, UNKNOWN));
+
+        final List<WorldPoint> landmarks = new ArrayList<>();
+        final Map<Integer, char[]> cellDistances = new TreeMap<>();
+        for (int landmark = 0; landmark < landmarkCount; ++landmark) {
+            final WorldPoint landmarkPoint = furthestTile(closestDistances);
+            landmarks.add(landmarkPoint);
+
+            final int distanceIndex = landmark * 2;
+            final WorldPointSet reached = breadthFirstSearch(worldMap, landmarkPoint, (x, y, plane, distance) -> {
+                final int key = blockKey(x, y, plane);
+                final char clampedDistance = (char) Math.min(distance, UNKNOWN);
+                final char[] closest = closestDistances.get(key);
+                if (closest != null) {
+                    closest[tileIndex(x, y)] = (char) Math.min(closest[tileIndex(x, y)], clampedDistance);
+                }
+
+                final char[] cells = cellDistances.computeIfAbsent(key, k -> createCells(landmarkCount));
+                final int offset = cellIndex(x, y) * landmarkCount * 2 + distanceIndex;
+                cells[offset] = (char) Math.min(cells[offset], clampedDistance);
+                cells[offset + 1] = (char) Math.max(cells[offset + 1], clampedDistance);
+            });
+            markPartlyReachedCells(worldMap, cellDistances, reached, landmarkCount, landmark);
+        }
+
+        return fromCells(landmarks, cellDistances);
+    }
+
+    private interface TileVisitor {
+        void visit(int x, int y, int plane, int distance);
+    }
+
+    private static WorldPointSet breadthFirstSearch(final WorldMap worldMap, final WorldPoint start, final TileVisitor visitor) {
+        final NodeGraph graph = new NodeGraph(worldMap);
+        graph.addBoundaryNode(Node.createInitialNode(start));
+        while (!graph.getBoundary().isEmpty()) {
+            final Node node = graph.getBoundary().peek();
+            final WorldPoint point = node.getMovement().getDestination();
+            visitor.visit(point.getX(), point.getY(), point.getPlane(), node.getCost());
+            graph.evaluateBoundaryNode();
+        }
+        return graph.getVisited();
+    }
+
+    private static WorldPoint furthestTile(final Map<Integer, char[]> closestDistances) {
+        int furthestKey = 0;
+        int furthestTile = 0;
+        int furthestDistance = -1;
+        for (final Map.Entry<Integer, char[]> entry : closestDistances.entrySet()) {
+            final char[] tiles = entry.getValue();
+            for (int i = 0; i < tiles.length; ++i) {
+                if (tiles[i] > furthestDistance) {
+                    furthestKey = entry.getKey();
+                    furthestTile = i;
+                    furthestDistance = tiles[i];
+                }
+            }
+        }
+
+        final int plane = furthestKey % WorldPointUtil.PLANE_COUNT;
+        final int region = furthestKey / WorldPointUtil.PLANE_COUNT;
+        return new WorldPoint(
+                (region / REGIONS_PER_AXIS) * REGION_SIZE + furthestTile % REGION_SIZE,
+                (region % REGIONS_PER_AXIS) * REGION_SIZE + furthestTile / REGION_SIZE,
+                plane);
+    }
+
+    private static char[] createCells(final int landmarkCount) {
+        final char[] cells = new char[CELLS_PER_REGION * landmarkCount * 2];
+        for (int i = 0; i < cells.length; i += 2) {
+            cells[i] = UNKNOWN;
+        }
+        return cells;
+    }
+
+    // The highest distance of a cell is only an upper bound if every tile of it a search can be at was reached
+    private static void markPartlyReachedCells(final WorldMap worldMap, final Map<Integer, char[]> cellDistances,
+                                               final WorldPointSet reached, final int landmarkCount, final int landmark) {
+        for (final Map.Entry<Integer, char[]> entry : cellDistances.entrySet()) {
+            final int plane = entry.getKey() % WorldPointUtil.PLANE_COUNT;
+            final int region = entry.getKey() / WorldPointUtil.PLANE_COUNT;
+            final int regionX = (region / REGIONS_PER_AXIS) * REGION_SIZE;
+            final int regionY = (region % REGIONS_PER_AXIS) * REGION_SIZE;
+            final char[] cells = entry.getValue();
+            for (int cell = 0; cell < CELLS_PER_REGION; ++cell) {
+                final int offset = (cell * landmarkCount + landmark) * 2;
+                if (cells[offset] != UNKNOWN && !isCellReached(worldMap, reached,
+                        regionX + (cell % CELLS_PER_AXIS) * CELL_SIZE, regionY + (cell / CELLS_PER_AXIS) * CELL_SIZE, plane)) {
+                    cells[offset + 1] = UNKNOWN;
+                }
+            }
+        }
+
+        // Transports may arrive at tiles without any walkable direction
+        for (final Transport transport : worldMap.getTransports()) {
+            final WorldPoint destination = transport.getDestination();
+            if (!reached.contains(destination)) {
+                final char[] cells = cellDistances.get(blockKey(destination.getX(), destination.getY(), destination.getPlane()));
+                if (cells != null) {
+                    cells[(cellIndex(destination.getX(), destination.getY()) * landmarkCount + landmark) * 2 + 1] = UNKNOWN;
+                }
+            }
+        }
+    }
+
+    private static boolean isCellReached(final WorldMap worldMap, final WorldPointSet reached,
+                                         final int minX, final int minY, final int plane) {
+        for (int y = minY; y < minY + CELL_SIZE; ++y) {
+            for (int x = minX; x < minX + CELL_SIZE; ++x) {
+                if (!worldMap.isBlocked(x, y, plane) && !reached.contains(x, y, plane)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static LandmarkDistances fromCells(final List<WorldPoint> landmarks, final Map<Integer, char[]> cellDistances) {
+        int minRegionX = Integer.MAX_VALUE;
+        int minRegionY = Integer.MAX_VALUE;
+        int maxRegionX = Integer.MIN_VALUE;
+        int maxRegionY = Integer.MIN_VALUE;
+        for (final int key : cellDistances.keySet()) {
+            final int region = key / WorldPointUtil.PLANE_COUNT;
+            minRegionX = Math.min(minRegionX, region / REGIONS_PER_AXIS);
+            minRegionY = Math.min(minRegionY, region % REGIONS_PER_AXIS);
+            maxRegionX = Math.max(maxRegionX, region / REGIONS_PER_AXIS);
+            maxRegionY = Math.max(maxRegionY, region % REGIONS_PER_AXIS);
+        }
+        if (cellDistances.isEmpty()) {
+            minRegionX = minRegionY = 0;
+            maxRegionX = maxRegionY = -1;
+        }
+
+        final int regionCountX = maxRegionX - minRegionX + 1;
+        final int regionCountY = maxRegionY - minRegionY + 1;
+        final int[] blocks = new int[regionCountX * regionCountY * WorldPointUtil.PLANE_COUNT];
+        Arrays.fill(blocks, NO_BLOCK);
+        final int blockSize = CELLS_PER_REGION * landmarks.size() * 2;
+        final char[] distances = new char[cellDistances.size() * blockSize];
+
+        int block = 0;
+        for (final Map.Entry<Integer, char[]> entry : cellDistances.entrySet()) {
+            final int plane = entry.getKey() % WorldPointUtil.PLANE_COUNT;
+            final int region = entry.getKey() / WorldPointUtil.PLANE_COUNT;
+            final int regionX = region / REGIONS_PER_AXIS - minRegionX;
+            final int regionY = region % REGIONS_PER_AXIS - minRegionY;
+            blocks[(regionX * regionCountY + regionY) * WorldPointUtil.PLANE_COUNT + plane] = block;
+
+            // Cells a landmark didn't reach were never marked partly reached
+            final char[] cells = entry.getValue();
+            for (int i = 0; i < cells.length; i += 2) {
+                if (cells[i] == UNKNOWN) {
+                    cells[i + 1] = UNKNOWN;
+                }
+            }
+            System.arraycopy(cells, 0, distances, block * blockSize, blockSize);
+            ++block;
+        }
+
+        return new LandmarkDistances(new ArrayList<>(landmarks), minRegionX, minRegionY, regionCountX, regionCountY, blocks, distances);
+    }
+
+    private static int blockKey(final int x, final int y, final int plane) {
+        return ((x / REGION_SIZE) * REGIONS_PER_AXIS + y / REGION_SIZE) * WorldPointUtil.PLANE_COUNT + plane;
+    }
+
+    private static int tileIndex(final int x, final int y) {
+        return (y % REGION_SIZE) * REGION_SIZE + x % REGION_SIZE;
+    }
+
+    private static int cellIndex(final int x, final int y) {
+        return ((y % REGION_SIZE) / CELL_SIZE) * CELLS_PER_AXIS + (x % REGION_SIZE) / CELL_SIZE;
+    }
+
+    public void toFile(final Path path) {
+        try (final ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(path))) {
+            outputStream.putNextEntry(DISTANCES_ZIP_ENTRY);
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+            write(output);
+            output.flush();
+            outputStream.closeEntry();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static LandmarkDistances fromFile(final Path filepath) {
+        try (final ZipInputStream inputStream = new ZipInputStream(LandmarkDistances.class.getResourceAsStream(Util.pathToResourcePath(filepath)))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = inputStream.getNextEntry()) != null) {
+                if (DISTANCES_ZIP_ENTRY.getName().equals(zipEntry.getName())) {
+                    return read(new DataInputStream(new BufferedInputStream(inputStream)));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        throw new RuntimeException(String.format("%s not found in %s.", DISTANCES_ZIP_ENTRY.getName(), filepath.getFileName()));
+    }
+
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(DISTANCES_FILE_MAGIC);
+        output.writeInt(DISTANCES_FILE_VERSION);
+        output.writeInt(CELL_SIZE);
+        output.writeInt(landmarks.size());
+        for (final WorldPoint landmark : landmarks) {
+            output.writeInt(WorldPointUtil.packWorldPoint(landmark));
+        }
+        output.writeInt(minRegionX);
+        output.writeInt(minRegionY);
+        output.writeInt(regionCountX);
+        output.writeInt(regionCountY);
+        for (final int block : blocks) {
+            output.writeInt(block);
+        }
+        output.writeInt(distances.length);
+        for (final char distance : distances) {
+            output.writeChar(distance);
+        }
+    }
+
+    public static LandmarkDistances read(final DataInput input) throws IOException {
+        final int magic = input.readInt();
+        final int version = input.readInt();
+        if (magic != DISTANCES_FILE_MAGIC || version != DISTANCES_FILE_VERSION) {
+            throw new IOException(String.format("Unsupported landmark distances, magic %08x version %d", magic, version));
+        }
+        final int cellSize = input.readInt();
+        if (cellSize != CELL_SIZE) {
+            throw new IOException("Unsupported landmark distances cell size: " + cellSize);
+        }
+
+        final int landmarkCount = input.readInt();
+        final List<WorldPoint> landmarks = new ArrayList<>(landmarkCount);
+        for (int i = 0; i < landmarkCount; ++i) {
+            landmarks.add(WorldPointUtil.unpackWorldPoint(input.readInt()));
+        }
+        final int minRegionX = input.readInt();
+        final int minRegionY = input.readInt();
+        final int regionCountX = input.readInt();
+        final int regionCountY = input.readInt();
+        final int[] blocks = new int[regionCountX * regionCountY * WorldPointUtil.PLANE_COUNT];
+        for (int i = 0; i < blocks.length; ++i) {
+            blocks[i] = input.readInt();
+        }
+        final char[] distances = new char[input.readInt()];
+        for (int i = 0; i < distances.length; ++i) {
+            distances[i] = input.readChar();
+        }
+        return new LandmarkDistances(landmarks, minRegionX, minRegionY, regionCountX, regionCountY, blocks, distances);
+    }
+}
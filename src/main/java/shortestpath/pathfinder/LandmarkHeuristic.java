@@ -0,0 +1,58 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+
+import java.util.Arrays;
+
+/**
+ * ALT (A*, landmarks and triangle inequality) heuristic, see LandmarkDistances. Never lower than the
+ * DistanceHeuristic, and unlike it also accounts for transports far away from the target.
+ */
+public class LandmarkHeuristic implements Heuristic {
+    private final LandmarkDistances landmarkDistances;
+    private final DistanceHeuristic distanceHeuristic;
+    // Landmarks from which the target is reachable, with their lowest distance to the cell of the target
+    private final int[] landmarks;
+    private final int[] targetDistances;
+
+    public LandmarkHeuristic(final LandmarkDistances landmarkDistances, final WorldPoint target,
+                             final Iterable<Transport> transports) {
+        this.landmarkDistances = landmarkDistances;
+        this.distanceHeuristic = new DistanceHeuristic(target, transports);
+
+        final int landmarkCount = landmarkDistances.getLandmarks().size();
+        final int[] landmarks = new int[landmarkCount];
+        final int[] targetDistances = new int[landmarkCount];
+        int usableLandmarks = 0;
+        final int targetCell = landmarkDistances.getCellOffset(target.getX(), target.getY(), target.getPlane());
+        for (int landmark = 0; targetCell >= 0 && landmark < landmarkCount; ++landmark) {
+            final int distance = landmarkDistances.getLowestDistance(targetCell, landmark);
+            if (distance != LandmarkDistances.UNKNOWN) {
+                landmarks[usableLandmarks] = landmark;
+                targetDistances[usableLandmarks] = distance;
+                ++usableLandmarks;
+            }
+        }
+        this.landmarks = Arrays.copyOf(landmarks, usableLandmarks);
+        this.targetDistances = Arrays.copyOf(targetDistances, usableLandmarks);
+    }
+
+    @Override
+    public int estimate(final WorldPoint point) {
+        int estimate = distanceHeuristic.estimate(point);
+        final int cell = landmarkDistances.getCellOffset(point.getX(), point.getY(), point.getPlane());
+        if (cell < 0) {
+            return estimate;
+        }
+
+        // d(point, target) >= d(landmark, target) - d(landmark, point)
+        for (int i = 0; i < landmarks.length; ++i) {
+            final int pointDistance = landmarkDistances.getHighestDistance(cell, landmarks[i]);
+            if (pointDistance != LandmarkDistances.UNKNOWN) {
+                estimate = Math.max(estimate, targetDistances[i] - pointDistance);
+            }
+        }
+        return estimate;
+    }
+}
@@ -6,18 +6,24 @@ import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.Path;
 import shortestpath.pathfinder.path.Walk;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Node {
     @Getter
     private final Movement movement;
     @Getter
     private final Node previous;
+    /** Amount of movements taken to get from the initial node to this node */
+    @Getter
+    private final int cost;
+
+    // Position of this node in the NodeHeap it is queued in, -1 if not queued
+    int heapIndex = -1;
 
     public Node(final Movement movement, final Node previous) {
         this.movement = movement;
         this.previous = previous;
+        this.cost = (previous == null ? 0 : previous.cost + 1);
     }
 
     public static Node createInitialNode(final WorldPoint point) {
@@ -25,14 +31,14 @@ public class Node {
     }
 
     public Path getPath() {
-        List<Movement> movements = new LinkedList<>();
+        final Movement[] movements = new Movement[cost + 1];
 
         Node nodeIterator = this;
         while (nodeIterator != null) {
-            movements.add(0, nodeIterator.getMovement());
+            movements[nodeIterator.cost] = nodeIterator.getMovement();
             nodeIterator = nodeIterator.previous;
         }
 
-        return new Path(movements);
+        return new Path(Arrays.asList(movements));
     }
 }
@@ -6,17 +6,17 @@ import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.pathfinder.path.Walk;
 import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.WorldPointSet;
+import shortestpath.utils.WorldPointUtil;
 import shortestpath.worldmap.WorldMap;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.Set;
+import java.util.Queue;
 import java.util.function.Predicate;
 
 public class NodeGraph {
-    private static final List<OrdinalDirection> directionPriority = Arrays.asList(
+    static final OrdinalDirection[] directionPriority = {
             OrdinalDirection.NORTH,
             OrdinalDirection.EAST,
             OrdinalDirection.SOUTH,
@@ -24,55 +24,106 @@ public class NodeGraph {
             OrdinalDirection.NORTH_EAST,
             OrdinalDirection.SOUTH_EAST,
             OrdinalDirection.SOUTH_WEST,
-            OrdinalDirection.NORTH_WEST);
+            OrdinalDirection.NORTH_WEST};
+    // Offsets of directionPriority, so expanding a node doesn't allocate a Point per direction
+    static final int[] directionX = new int[directionPriority.length];
+    static final int[] directionY = new int[directionPriority.length];
+
+    static {
+        for (int i = 0; i < directionPriority.length; ++i) {
+            directionX[i] = directionPriority[i].toPoint().getX();
+            directionY[i] = directionPriority[i].toPoint().getY();
+        }
+    }
 
     private final WorldMap worldMap;
+    private final NodeHeap nodeHeap;
     @Getter
-    private List<Node> boundary = new LinkedList<>();
+    private final Queue<Node> boundary;
     @Getter
-    private Set<WorldPoint> visited = new HashSet<>();
+    private final WorldPointSet visited = new WorldPointSet();
 
     public NodeGraph(final WorldMap worldMap) {
         this.worldMap = worldMap;
+        this.nodeHeap = null;
+        this.boundary = new ArrayDeque<>();
+    }
+
+    public NodeGraph(final WorldMap worldMap, final Heuristic heuristic) {
+        this.worldMap = worldMap;
+        this.nodeHeap = new NodeHeap(heuristic);
+        this.boundary = nodeHeap;
     }
 
     public void addBoundaryNode(final Node node) {
+        visited.add(node.getMovement().getDestination());
         boundary.add(node);
     }
 
-    public void evaluateBoundaryNode(final int index) {
-        evaluateBoundaryNode(index, x -> true);
+    public void evaluateBoundaryNode() {
+        evaluateBoundaryNode(x -> true);
     }
 
-    public void evaluateBoundaryNode(final int index, final Predicate<WorldPoint> predicate) {
-        evaluateBoundaryNode(index, x -> true, x -> true);
+    public void evaluateBoundaryNode(final Predicate<WorldPoint> predicate) {
+        evaluateBoundaryNode(predicate, x -> true);
     }
 
-    public void evaluateBoundaryNode(final int index, final Predicate<WorldPoint> neighborPredicate, final Predicate<Transport> transportPredicate) {
-        final Node node = boundary.remove(index);
+    public void evaluateBoundaryNode(final Predicate<WorldPoint> neighborPredicate, final Predicate<Transport> transportPredicate) {
+        final Node node = boundary.remove();
         addNeighbors(node, neighborPredicate, transportPredicate);
     }
 
     private void addNeighbor(final Node node, final Movement neighborMovement) {
-        if (!visited.add(neighborMovement.getDestination())) {
-            return;
+        final WorldPoint destination = neighborMovement.getDestination();
+        if (visited.add(destination)) {
+            boundary.add(new Node(neighborMovement, node));
+        }
+        else if (nodeHeap != null && nodeHeap.isCheaperThanOffered(WorldPointUtil.packWorldPoint(destination), node.getCost() + 1)) {
+            // Boundary is not evaluated in order of cost when searching with a heuristic, so a cheaper way to
+            // a point may be found after it was queued, or even evaluated when the heuristic isn't consistent.
+            nodeHeap.offer(new Node(neighborMovement, node));
         }
-        boundary.add(new Node(neighborMovement, node));
     }
 
     private void addNeighbors(final Node node, final Predicate<WorldPoint> neighborPredicate, final Predicate<Transport> transportPredicate) {
         final WorldPoint currentPoint = node.getMovement().getDestination();
-        for (OrdinalDirection direction : directionPriority) {
-            if (worldMap.checkDirection(currentPoint, direction)) {
-                final WorldPoint neighbor = new WorldPoint(currentPoint.getX() + direction.toPoint().getX(), currentPoint.getY() + direction.toPoint().getY(), currentPoint.getPlane());
-                final Walk walkMovement = new Walk(currentPoint, neighbor);
-                if (neighborPredicate.test(neighbor)) {
-                    addNeighbor(node, walkMovement);
-                }
+        final int x = currentPoint.getX();
+        final int y = currentPoint.getY();
+        final int plane = currentPoint.getPlane();
+        final int neighborCost = node.getCost() + 1;
+
+        for (int i = 0; i < directionPriority.length; ++i) {
+            final int neighborX = x + directionX[i];
+            final int neighborY = y + directionY[i];
+
+            // Only allocate the neighbor once it's known it will be queued
+            final boolean isVisited = visited.contains(neighborX, neighborY, plane);
+            if (isVisited && (nodeHeap == null ||
+                    !nodeHeap.isCheaperThanOffered(WorldPointUtil.packWorldPoint(neighborX, neighborY, plane), neighborCost))) {
+                continue;
+            }
+            if (!worldMap.checkDirection(x, y, plane, directionPriority[i])) {
+                continue;
+            }
+
+            final WorldPoint neighbor = new WorldPoint(neighborX, neighborY, plane);
+            if (!neighborPredicate.test(neighbor)) {
+                continue;
+            }
+
+            final Node neighborNode = new Node(new Walk(currentPoint, neighbor), node);
+            if (isVisited) {
+                nodeHeap.offer(neighborNode);
+            }
+            else {
+                visited.add(neighborX, neighborY, plane);
+                boundary.add(neighborNode);
             }
         }
 
-        for (Transport transport : worldMap.getTransports(currentPoint)) {
+        final List<Transport> transports = worldMap.getTransports(WorldPointUtil.packWorldPoint(x, y, plane));
+        for (int i = 0; i < transports.size(); ++i) {
+            final Transport transport = transports.get(i);
             if (transportPredicate.test(transport)) {
                 addNeighbor(node, transport);
             }
@@ -0,0 +1,153 @@
+package shortestpath.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.utils.WorldPointUtil;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Binary min-heap of Nodes ordered by cost + heuristic estimate, used as the boundary of an A* search.
+ * Nodes are indexed by their destination, so offering a cheaper Node for an already queued point replaces
+ * the queued one (decrease-key) instead of queueing the point twice. Offering a cheaper Node for a point that
+ * was already polled queues it again, which only happens with a heuristic that isn't consistent.
+ */
+public class NodeHeap extends AbstractQueue<Node> {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Heuristic heuristic;
+    private Node[] nodes = new Node[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Latest Node offered for each point, a Node that has been polled or replaced has a heapIndex of -1
+    private final NodeMap offeredNodes = new NodeMap();
+
+    public NodeHeap(final Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Whether offering a Node of the given cost for the point would be accepted, i.e. no Node for the point was
+     * offered yet or only with a higher cost.
+     */
+    public boolean isCheaperThanOffered(final int packedPoint, final int cost) {
+        final Node offeredNode = offeredNodes.get(packedPoint);
+        return offeredNode == null || offeredNode.getCost() > cost;
+    }
+
+    @Override
+    public boolean offer(final Node node) {
+        final WorldPoint point = node.getMovement().getDestination();
+        final int packedPoint = WorldPointUtil.packWorldPoint(point);
+        final Node offeredNode = offeredNodes.get(packedPoint);
+        if (offeredNode != null && node.getCost() >= offeredNode.getCost()) {
+            return false;
+        }
+
+        final Node queuedNode = (offeredNode != null && offeredNode.heapIndex >= 0 ? offeredNode : null);
+        if (queuedNode != null) {
+            // Estimate only depends on the point, so the priority drops by exactly the cost difference
+            final int index = queuedNode.heapIndex;
+            queuedNode.heapIndex = -1;
+            offeredNodes.put(packedPoint, node);
+            priorities[index] -= queuedNode.getCost() - node.getCost();
+            place(node, priorities[index], index);
+            siftUp(index);
+            return true;
+        }
+
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            priorities = Arrays.copyOf(priorities, size * 2);
+        }
+
+        final long priority = (long) node.getCost() + heuristic.estimate(point);
+        offeredNodes.put(packedPoint, node);
+        place(node, (int) Math.min(priority, Integer.MAX_VALUE), size++);
+        siftUp(size - 1);
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        final Node result = nodes[0];
+        result.heapIndex = -1;
+
+        --size;
+        if (size > 0) {
+            place(nodes[size], priorities[size], 0);
+            siftDown(0);
+        }
+        nodes[size] = null;
+        return result;
+    }
+
+    @Override
+    public Node peek() {
+        return (size == 0 ? null : nodes[0]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(nodes).subList(0, size)).iterator();
+    }
+
+    private void siftUp(int index) {
+        final Node node = nodes[index];
+        final int priority = priorities[index];
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!isBefore(node, priority, nodes[parent], priorities[parent])) {
+                break;
+            }
+            place(nodes[parent], priorities[parent], index);
+            index = parent;
+        }
+        place(node, priority, index);
+    }
+
+    private void siftDown(int index) {
+        final Node node = nodes[index];
+        final int priority = priorities[index];
+        final int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            final int right = child + 1;
+            if (right < size && isBefore(nodes[right], priorities[right], nodes[child], priorities[child])) {
+                child = right;
+            }
+            if (!isBefore(nodes[child], priorities[child], node, priority)) {
+                break;
+            }
+            place(nodes[child], priorities[child], index);
+            index = child;
+        }
+        place(node, priority, index);
+    }
+
+    private void place(final Node node, final int priority, final int index) {
+        nodes[index] = node;
+        priorities[index] = priority;
+        node.heapIndex = index;
+    }
+
+    private static boolean isBefore(final Node node, final int priority, final Node other, final int otherPriority) {
+        if (priority != otherPriority) {
+            return priority < otherPriority;
+        }
+        // On equal priority prefer the node furthest along, as its estimate is the smallest
+        return node.getCost() > other.getCost();
+    }
+}
@@ -0,0 +1,70 @@
+package shortestpath.pathfinder;
+
+/**
+ * Open-addressing map of packed WorldPoint (see WorldPointUtil) to Node. Entries can be replaced but never removed.
+ */
+public class NodeMap {
+    private static final int INITIAL_CAPACITY_BITS = 9;
+
+    private int[] keys = new int[1 << INITIAL_CAPACITY_BITS];
+    private Node[] nodes = new Node[1 << INITIAL_CAPACITY_BITS];
+    // Fibonacci hashing uses the top bits of the product, as many as the table has index bits
+    private int slotShift = Integer.SIZE - INITIAL_CAPACITY_BITS;
+    private int size = 0;
+
+    public Node get(final int packedPoint) {
+        int slot = slotOf(packedPoint);
+        while (nodes[slot] != null) {
+            if (keys[slot] == packedPoint) {
+                return nodes[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return null;
+    }
+
+    public void put(final int packedPoint, final Node node) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+
+        int slot = slotOf(packedPoint);
+        while (nodes[slot] != null) {
+            if (keys[slot] == packedPoint) {
+                nodes[slot] = node;
+                return;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = packedPoint;
+        nodes[slot] = node;
+        ++size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        final int[] oldKeys = keys;
+        final Node[] oldNodes = nodes;
+        keys = new int[oldKeys.length * 2];
+        nodes = new Node[oldNodes.length * 2];
+        --slotShift;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldNodes[i] == null) {
+                continue;
+            }
+            int slot = slotOf(oldKeys[i]);
+            while (nodes[slot] != null) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            keys[slot] = oldKeys[i];
+            nodes[slot] = oldNodes[i];
+        }
+    }
+
+    private int slotOf(final int packedPoint) {
+        return (packedPoint * 0x9E3779B9) >>> slotShift;
+    }
+}
@@ -0,0 +1,91 @@
+package shortestpath.pathfinder;
+
+import lombok.Value;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of completed Paths, keyed by start, target and the reachability fingerprint of the
+ * config they were found with (see PathfinderConfig.getReachabilityFingerprint). Paths are only valid for the
+ * transports they were found with, and as transports are only ever added, the cache is cleared when their count
+ * changes.
+ */
+public class PathCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    @Value
+    private static class Key {
+        int packedStart;
+        int packedTarget;
+        int configFingerprint;
+    }
+
+    private final WorldMap worldMap;
+    private final Map<Key, Path> paths;
+    private int transportCount;
+    private long hits = 0;
+    private long misses = 0;
+
+    public PathCache(final WorldMap worldMap) {
+        this(worldMap, DEFAULT_CAPACITY);
+    }
+
+    public PathCache(final WorldMap worldMap, final int capacity) {
+        this.worldMap = worldMap;
+        this.transportCount = worldMap.getTransports().size();
+        this.paths = new LinkedHashMap<Key, Path>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Path> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Nullable
+    public synchronized Path get(final WorldPoint start, final WorldPoint target, final PathfinderConfig config) {
+        clearIfTransportsChanged();
+        final Path path = paths.get(createKey(start, target, config));
+        if (path == null) {
+            ++misses;
+        }
+        else {
+            ++hits;
+        }
+        return path;
+    }
+
+    public synchronized void put(final WorldPoint start, final WorldPoint target, final PathfinderConfig config, final Path path) {
+        clearIfTransportsChanged();
+        paths.put(createKey(start, target, config), path);
+    }
+
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void clearIfTransportsChanged() {
+        final int currentTransportCount = worldMap.getTransports().size();
+        if (currentTransportCount != transportCount) {
+            paths.clear();
+            transportCount = currentTransportCount;
+        }
+    }
+
+    private static Key createKey(final WorldPoint start, final WorldPoint target, final PathfinderConfig config) {
+        return new Key(WorldPointUtil.packWorldPoint(start), WorldPointUtil.packWorldPoint(target), config.getReachabilityFingerprint());
+    }
+}
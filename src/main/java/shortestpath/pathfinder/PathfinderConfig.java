@@ -12,6 +12,7 @@ public class PathfinderConfig {
     public int agilityLevel = 1;
     public int rangedLevel = 1;
     public int strengthLevel = 1;
+    public SearchAlgorithm searchAlgorithm = SearchAlgorithm.A_STAR;
 
     public boolean canPlayerUseTransport(final Transport transport) {
         final int transportAgilityLevel = transport.getAgilityLevelRequired();
@@ -37,6 +38,28 @@ public class PathfinderConfig {
         return agilityLevel >= transportAgilityLevel;
     }
 
+    /**
+     * Whether the other config allows using the same points and transports, so search results of one are valid
+     * for the other.
+     */
+    public boolean hasSameReachability(final PathfinderConfig other) {
+        return getReachabilityFingerprint() == other.getReachabilityFingerprint();
+    }
+
+    /**
+     * The fields that change which points and transports can be used, packed so configs have the same fingerprint
+     * only when they have the same reachability. Levels can't go past 255, even when boosted.
+     */
+    public int getReachabilityFingerprint() {
+        return (avoidWilderness ? 1 : 0) |
+                (useTransports ? 1 << 1 : 0) |
+                (useAgilityShortcuts ? 1 << 2 : 0) |
+                (useGrappleShortcuts ? 1 << 3 : 0) |
+                (Math.min(agilityLevel, 0xFF) << 4) |
+                (Math.min(rangedLevel, 0xFF) << 12) |
+                (Math.min(strengthLevel, 0xFF) << 20);
+    }
+
     public Predicate<Transport> getCanPlayerUseTransportPredicate() {
         return this::canPlayerUseTransport;
     }
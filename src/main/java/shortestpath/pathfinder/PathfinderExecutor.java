@@ -0,0 +1,117 @@
+package shortestpath.pathfinder;
+
+import lombok.extern.slf4j.Slf4j;
+import shortestpath.pathfinder.pathfindertask.PathfinderTask;
+import shortestpath.worldmap.sections.SectionPathfinderTask;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs all pathfinding searches on a bounded pool of daemon threads, so that the number of searches computing at
+ * once doesn't depend on how many tasks (and route tasks within those) were started. Searches for the request the
+ * player is waiting on are submitted with Priority.HIGH and are started before any queued NORMAL searches.
+ */
+@Slf4j
+public class PathfinderExecutor {
+    public enum Priority {
+        HIGH,
+        NORMAL
+    }
+
+    public static final int DEFAULT_THREAD_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final ThreadPoolExecutor searchExecutor;
+    private final AtomicLong submittedTasks = new AtomicLong();
+
+    public PathfinderExecutor() {
+        this(DEFAULT_THREAD_COUNT);
+    }
+
+    public PathfinderExecutor(final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Pathfinder thread count must be at least 1, got " + threadCount);
+        }
+
+        // Searches submitted after shutdown never run, so they're completed as cancelled like the queued ones
+        this.searchExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), createThreadFactory(), (task, executor) -> ((PrioritizedTask) task).cancelAndRun());
+    }
+
+    public void execute(final Runnable search) {
+        execute(search, Priority.NORMAL);
+    }
+
+    public void execute(final Runnable search, final Priority priority) {
+        searchExecutor.execute(new PrioritizedTask(search, priority, submittedTasks.getAndIncrement()));
+    }
+
+    public int getThreadCount() {
+        return searchExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * Stops the running searches, and completes the queued ones as cancelled so nothing waits on them forever.
+     */
+    public void shutdown() {
+        for (final Runnable task : searchExecutor.shutdownNow()) {
+            ((PrioritizedTask) task).cancelAndRun();
+        }
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return (runnable) -> {
+            final Thread thread = new Thread(runnable, "shortest-path-pathfinder-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
+
+    private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Runnable task;
+        private final Priority priority;
+        private final long sequenceNumber;
+
+        PrioritizedTask(final Runnable task, final Priority priority, final long sequenceNumber) {
+            this.task = task;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                log.error("Pathfinding task failed", e);
+            }
+        }
+
+        /**
+         * Runs the task after cancelling it, which completes it right away without searching.
+         */
+        void cancelAndRun() {
+            if (task instanceof PathfinderTask) {
+                ((PathfinderTask) task).cancelTask();
+            }
+            else if (task instanceof SectionPathfinderTask) {
+                ((SectionPathfinderTask) task).cancelTask();
+            }
+            run();
+        }
+
+        @Override
+        public int compareTo(final PrioritizedTask other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
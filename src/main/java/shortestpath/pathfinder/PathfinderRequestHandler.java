@@ -47,6 +47,32 @@ public class PathfinderRequestHandler {
         updatePath();
     }
 
+    /**
+     * Moves the start of the path to where the player drifted off it. A finished path is reconnected to rather
+     * than searched again. Ignored when the start was explicitly set.
+     */
+    public void replanFrom(final WorldPoint playerLocation) {
+        if (target == null || isStartExplicitlySet) {
+            return;
+        }
+
+        final Path path = getActivePath();
+        if (path == null || !isActivePathDone()) {
+            this.start = playerLocation;
+            updatePath();
+            return;
+        }
+
+        final WorldPoint newStart = findClosestNonBlockedPoint(playerLocation);
+        if (newStart == null) {
+            log.debug("No unblocked point close to start (" + playerLocation + ") found, cancelling path");
+            clearPath();
+            return;
+        }
+        this.start = newStart;
+        activeTask = pathfinderTaskHandler.newRepairTask(path, start, target);
+    }
+
     public void clearPath() {
         this.activeTask = null;
         this.start = null;
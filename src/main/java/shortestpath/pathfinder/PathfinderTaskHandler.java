@@ -6,10 +6,14 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.coords.WorldPoint;
 import shortestpath.ConfigProvider;
 import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.pathfindertask.CachedPathfinderTask;
 import shortestpath.pathfinder.pathfindertask.ComplexPathfinderTask;
+import shortestpath.pathfinder.pathfindertask.HierarchyPathfinderTask;
 import shortestpath.pathfinder.pathfindertask.PathfinderTask;
 import shortestpath.pathfinder.pathfindertask.PathfinderTaskStatus;
+import shortestpath.pathfinder.pathfindertask.RepairPathfinderTask;
 import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
+import shortestpath.pathfinder.pathfindertask.TreePathfinderTask;
 import shortestpath.utils.Util;
 import shortestpath.worldmap.WorldMapProvider;
 import shortestpath.worldmap.sections.SectionMapper;
@@ -40,12 +44,25 @@ public class PathfinderTaskHandler {
     final ConfigProvider configProvider;
     final WorldMapProvider worldMapProvider;
     final SectionMapper sectionMapper;
+    final PathfinderExecutor pathfinderExecutor;
     private final List<PathfinderTaskInfo> pathfinderTasks;
+    // Search tree of the last start that got more than one target, null when the last start changed
+    private SearchTree searchTree = null;
+    private WorldPoint lastStart = null;
+    // Paths of whole requests, and of the searches between transports of routes, which can't use every transport
+    private PathCache pathCache = null;
+    private PathCache segmentPathCache = null;
 
     public PathfinderTaskHandler(final ConfigProvider configProvider, final WorldMapProvider worldMapProvider, final SectionMapper sectionMapper) {
+        this(configProvider, worldMapProvider, sectionMapper, new PathfinderExecutor());
+    }
+
+    public PathfinderTaskHandler(final ConfigProvider configProvider, final WorldMapProvider worldMapProvider, final SectionMapper sectionMapper,
+                                 final PathfinderExecutor pathfinderExecutor) {
         this.configProvider = configProvider;
         this.worldMapProvider = worldMapProvider;
         this.sectionMapper = sectionMapper;
+        this.pathfinderExecutor = pathfinderExecutor;
         this.pathfinderTasks = new ArrayList<>();
     }
 
@@ -82,16 +99,39 @@ public class PathfinderTaskHandler {
 
     @Nullable
     public PathfinderTask newTask(final WorldPoint start, final WorldPoint target) {
-        PathfinderTask task;
-
         final Integer startSection = sectionMapper.getSection(start);
         final Integer targetSection = sectionMapper.getSection(target);
-        if (startSection != null && targetSection != null && !startSection.equals(targetSection)) {
-            task = new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, configProvider.getPathFinderConfig(), start, target);
+
+        // Another target from the same start is likely not the last one, e.g. when comparing destinations
+        final PathfinderConfig config = configProvider.getPathFinderConfig();
+        final Path cachedPath = getPathCache().get(start, target, config);
+        if (cachedPath != null) {
+            log.debug(String.format("Path from %s to %s taken from the path cache",
+                    Util.worldPointToString(start), Util.worldPointToString(target)));
+            return new CachedPathfinderTask(start, target, cachedPath);
+        }
+
+        if (!start.equals(lastStart)) {
+            searchTree = null;
+        }
+        else if (searchTree == null || !searchTree.isValidFor(start, config)) {
+            searchTree = new SearchTree(worldMapProvider.getWorldMap(), start, config);
+        }
+        lastStart = start;
+
+        final PathfinderTask task;
+        if (searchTree != null && searchTree.canAnswer(target)) {
+            task = new TreePathfinderTask(searchTree, target, () -> startTask(start, target, startSection, targetSection));
+            pathfinderExecutor.execute(task, PathfinderExecutor.Priority.HIGH);
         }
         else {
-            task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, configProvider.getPathFinderConfig());
+            task = startTask(start, target, startSection, targetSection);
         }
+        task.getCompletion().whenComplete((path, throwable) -> {
+            if (throwable == null && path != null && task.getStatus() == PathfinderTaskStatus.DONE) {
+                getPathCache().put(start, target, config, path);
+            }
+        });
 
         final PathfinderTaskInfo taskInfo = new PathfinderTaskInfo(task);
         pathfinderTasks.add(taskInfo);
@@ -101,6 +141,62 @@ public class PathfinderTaskHandler {
         return task;
     }
 
+    /**
+     * Task for the path from a start close to an already found path to the target, which reconnects to that path
+     * and only searches again when the start is too far from it.
+     */
+    public PathfinderTask newRepairTask(final Path path, final WorldPoint start, final WorldPoint target) {
+        final PathfinderTask task = new RepairPathfinderTask(worldMapProvider.getWorldMap(), path, start, target, configProvider.getPathFinderConfig(),
+                () -> startTask(start, target, sectionMapper.getSection(start), sectionMapper.getSection(target)));
+        pathfinderExecutor.execute(task, PathfinderExecutor.Priority.HIGH);
+
+        final PathfinderTaskInfo taskInfo = new PathfinderTaskInfo(task);
+        pathfinderTasks.add(taskInfo);
+
+        log.debug(String.format("New repair PathfinderTask started: %s to %s",
+                Util.worldPointToString(start), Util.worldPointToString(target)));
+        return task;
+    }
+
+    private PathfinderTask startTask(final WorldPoint start, final WorldPoint target,
+                                     @Nullable final Integer startSection, @Nullable final Integer targetSection) {
+        final PathfinderConfig config = configProvider.getPathFinderConfig();
+        if (config.searchAlgorithm != SearchAlgorithm.CONTRACTION_HIERARCHY) {
+            return newSearchTask(start, target, startSection, targetSection);
+        }
+
+        final PathfinderTask task = new HierarchyPathfinderTask(worldMapProvider.getWorldMap(), worldMapProvider::getContractionHierarchy, start, target,
+                config, () -> newSearchTask(start, target, startSection, targetSection));
+        pathfinderExecutor.execute(task, PathfinderExecutor.Priority.HIGH);
+        return task;
+    }
+
+    private PathfinderTask newSearchTask(final WorldPoint start, final WorldPoint target,
+                                         @Nullable final Integer startSection, @Nullable final Integer targetSection) {
+        if (startSection != null && targetSection != null && !startSection.equals(targetSection)) {
+            return new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, configProvider.getPathFinderConfig(), start, target,
+                    pathfinderExecutor, getSegmentPathCache());
+        }
+
+        final PathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, configProvider.getPathFinderConfig());
+        pathfinderExecutor.execute(task, PathfinderExecutor.Priority.HIGH);
+        return task;
+    }
+
+    private synchronized PathCache getPathCache() {
+        if (pathCache == null) {
+            pathCache = new PathCache(worldMapProvider.getWorldMap());
+        }
+        return pathCache;
+    }
+
+    private synchronized PathCache getSegmentPathCache() {
+        if (segmentPathCache == null) {
+            segmentPathCache = new PathCache(worldMapProvider.getWorldMap());
+        }
+        return segmentPathCache;
+    }
+
     public void add(final SimplePathfinderTask task) {
         final PathfinderTaskInfo taskInfo = new PathfinderTaskInfo(task);
         pathfinderTasks.add(taskInfo);
@@ -0,0 +1,12 @@
+package shortestpath.pathfinder;
+
+public enum SearchAlgorithm {
+    BREADTH_FIRST,
+    A_STAR,
+    // Breadth-first from both the start and the target, meeting in the middle
+    BIDIRECTIONAL,
+    // A* over jump points, skipping the symmetric paths through open terrain
+    JUMP_POINT,
+    // Query of the precomputed contraction hierarchy when there is one, A* otherwise and for what it can't answer
+    CONTRACTION_HIERARCHY
+}
@@ -0,0 +1,95 @@
+package shortestpath.pathfinder;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import javax.annotation.Nullable;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Breadth-first search tree from a start, kept so later targets from the same start are answered from the points
+ * already reached, and the search is resumed from its boundary for points not reached yet. Nodes are only kept
+ * up to MAX_NODES, after which the tree stops growing.
+ *
+ * The tree is only valid for configs with the same reachability and the transports it was built with. As
+ * transports are only ever added, their count tells whether they changed.
+ */
+public class SearchTree {
+    private static final int MAX_NODES = 250_000;
+
+    @Getter
+    private final WorldPoint start;
+    private final WorldMap worldMap;
+    private final PathfinderConfig config;
+    private final int transportCount;
+    private final boolean avoidsWilderness;
+    private final Predicate<WorldPoint> neighborPredicate;
+    private final Predicate<Transport> transportPredicate;
+
+    private final NodeGraph graph;
+    // Nodes of the evaluated points, which are all at their lowest cost as the search is breadth-first
+    private final NodeMap nodes = new NodeMap();
+
+    public SearchTree(final WorldMap worldMap, final WorldPoint start, final PathfinderConfig config) {
+        this.start = start;
+        this.worldMap = worldMap;
+        this.config = config;
+        this.transportCount = worldMap.getTransports().size();
+
+        // Unlike a single search the tree can't know of the target, so targets in the wilderness aren't answered
+        // when it's avoided
+        this.avoidsWilderness = config.avoidWilderness && !SimplePathfinderTask.isInWilderness(start);
+        this.neighborPredicate = (point) -> !avoidsWilderness || !SimplePathfinderTask.isInWilderness(point);
+        this.transportPredicate = config.getCanPlayerUseTransportPredicate();
+
+        this.graph = new NodeGraph(worldMap);
+        graph.addBoundaryNode(Node.createInitialNode(start));
+    }
+
+    /**
+     * Whether paths from the start with the config can be taken from this tree.
+     */
+    public boolean isValidFor(final WorldPoint start, final PathfinderConfig config) {
+        return this.start.equals(start) &&
+                this.config.hasSameReachability(config) &&
+                worldMap.getTransports().size() == transportCount;
+    }
+
+    public boolean canAnswer(final WorldPoint target) {
+        return !avoidsWilderness || !SimplePathfinderTask.isInWilderness(target);
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Node at the target with the shortest path to it, continuing the search until it's reached. Null when the
+     * target can't be reached, the tree is full or the search is cancelled first.
+     */
+    @Nullable
+    public synchronized Node findNode(final WorldPoint target, final BooleanSupplier isCancelled) {
+        final int packedTarget = WorldPointUtil.packWorldPoint(target);
+        final Node reachedNode = nodes.get(packedTarget);
+        if (reachedNode != null) {
+            return reachedNode;
+        }
+
+        while (!graph.getBoundary().isEmpty() && nodes.size() < MAX_NODES && !isCancelled.getAsBoolean()) {
+            final Node node = graph.getBoundary().peek();
+            final int packedPoint = WorldPointUtil.packWorldPoint(node.getMovement().getDestination());
+            nodes.put(packedPoint, node);
+            graph.evaluateBoundaryNode(neighborPredicate, transportPredicate);
+
+            if (packedPoint == packedTarget) {
+                return node;
+            }
+        }
+        return null;
+    }
+}
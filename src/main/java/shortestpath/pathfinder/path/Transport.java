@@ -11,9 +11,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -96,26 +94,28 @@ public class Transport implements Movement {
         return new Transport(origin, destination, agilityLevel, rangedLevel, strengthLevel);
     }
 
-    public static Map<WorldPoint, List<Transport>> fromFile(final Path filepath) {
-        HashMap<WorldPoint, List<Transport>> transports = new HashMap<>();
+    public static List<Transport> fromFile(final Path filepath) {
         try {
             final InputStream inputStream = Transport.class.getResourceAsStream(Util.pathToResourcePath(filepath));
-            final String fileContent = new String(Util.readAllBytes(inputStream), StandardCharsets.UTF_8);
-            Scanner scanner = new Scanner(fileContent);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-
-                if (line.startsWith("#") || line.isEmpty()) {
-                    continue;
-                }
-
-                final Transport transport = Transport.fromString(line);
-                final WorldPoint origin = transport.getOrigin();
-                transports.computeIfAbsent(origin, k -> new ArrayList<>()).add(transport);
-            }
+            return parse(new String(Util.readAllBytes(inputStream), StandardCharsets.UTF_8));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    // Transports of a file in the transports.txt format, skipping comments and empty lines
+    public static List<Transport> parse(final String fileContent) {
+        List<Transport> transports = new ArrayList<>();
+        Scanner scanner = new Scanner(fileContent);
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine();
+
+            if (line.startsWith("#") || line.isEmpty()) {
+                continue;
+            }
+
+            transports.add(Transport.fromString(line));
+        }
         return transports;
     }
 }
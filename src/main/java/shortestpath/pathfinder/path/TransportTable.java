@@ -0,0 +1,108 @@
+package shortestpath.pathfinder.path;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.utils.WorldPointUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transports sorted by packed (see WorldPointUtil) origin or destination, looked up with a binary search.
+ *
+ * The compiled file, built from transports.txt by TransportTableCompiler, holds the transports sorted by origin:
+ *   int magic, int version, int transportCount, then per transport:
+ *   int packedOrigin, int packedDestination, byte agilityLevel, byte rangedLevel, byte strengthLevel
+ */
+public class TransportTable {
+    private static final int FILE_MAGIC = 0x54524E53; // "TRNS"
+    private static final int FILE_VERSION = 1;
+
+    private final int[] keys;
+    private final Transport[] transports;
+    private final List<Transport> transportList;
+
+    private TransportTable(final Collection<Transport> transports, final Function<Transport, WorldPoint> key) {
+        this.transports = transports.toArray(new Transport[0]);
+        Arrays.sort(this.transports, Comparator.comparingInt(transport -> WorldPointUtil.packWorldPoint(key.apply(transport))));
+        this.keys = new int[this.transports.length];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = WorldPointUtil.packWorldPoint(key.apply(this.transports[i]));
+        }
+        this.transportList = Collections.unmodifiableList(Arrays.asList(this.transports));
+    }
+
+    public static TransportTable byOrigin(final Collection<Transport> transports) {
+        return new TransportTable(transports, Transport::getOrigin);
+    }
+
+    public static TransportTable byDestination(final Collection<Transport> transports) {
+        return new TransportTable(transports, Transport::getDestination);
+    }
+
+    public List<Transport> getTransports() {
+        return transportList;
+    }
+
+    /**
+     * Transports of which the origin (or destination, when sorted by destination) is the packed point
+     */
+    public List<Transport> get(final int packedPoint) {
+        int first = Arrays.binarySearch(keys, packedPoint);
+        if (first < 0) {
+            return Collections.emptyList();
+        }
+
+        while (first > 0 && keys[first - 1] == packedPoint) {
+            --first;
+        }
+        int last = first + 1;
+        while (last < keys.length && keys[last] == packedPoint) {
+            ++last;
+        }
+        return transportList.subList(first, last);
+    }
+
+    public void write(final DataOutput output) throws IOException {
+        final TransportTable byOrigin = TransportTable.byOrigin(transportList);
+        output.writeInt(FILE_MAGIC);
+        output.writeInt(FILE_VERSION);
+        output.writeInt(byOrigin.transports.length);
+        for (final Transport transport : byOrigin.transports) {
+            output.writeInt(WorldPointUtil.packWorldPoint(transport.getOrigin()));
+            output.writeInt(WorldPointUtil.packWorldPoint(transport.getDestination()));
+            output.writeByte(transport.getAgilityLevelRequired());
+            output.writeByte(transport.getRangedLevelRequired());
+            output.writeByte(transport.getStrengthLevelRequired());
+        }
+    }
+
+    public static TransportTable read(final DataInput input) throws IOException {
+        if (input.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a compiled transport table");
+        }
+        final int version = input.readInt();
+        if (version != FILE_VERSION) {
+            throw new IOException("Unsupported compiled transport table version: " + version);
+        }
+
+        final int transportCount = input.readInt();
+        final List<Transport> transports = new ArrayList<>(transportCount);
+        for (int i = 0; i < transportCount; ++i) {
+            final WorldPoint origin = WorldPointUtil.unpackWorldPoint(input.readInt());
+            final WorldPoint destination = WorldPointUtil.unpackWorldPoint(input.readInt());
+            final int agilityLevel = input.readUnsignedByte();
+            final int rangedLevel = input.readUnsignedByte();
+            final int strengthLevel = input.readUnsignedByte();
+            transports.add(new Transport(origin, destination, agilityLevel, rangedLevel, strengthLevel));
+        }
+        return TransportTable.byOrigin(transports);
+    }
+}
@@ -0,0 +1,41 @@
+package shortestpath.pathfinder.path;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compiles transports.txt into the binary TransportTable loaded by WorldMapProvider, run by the compileTransports
+ * build task. transports.txt remains the file to edit.
+ *
+ * Usage: TransportTableCompiler <transports.txt> <transports.bin>
+ */
+public class TransportTableCompiler {
+    public static void main(final String[] args) {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: TransportTableCompiler <transports.txt> <transports.bin>");
+        }
+        compile(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    public static void compile(final Path transportsPath, final Path outputPath) {
+        try {
+            final String fileContent = new String(Files.readAllBytes(transportsPath), StandardCharsets.UTF_8);
+            final TransportTable transports = TransportTable.byOrigin(Transport.parse(fileContent));
+
+            if (outputPath.getParent() != null) {
+                Files.createDirectories(outputPath.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(outputPath)))) {
+                transports.write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
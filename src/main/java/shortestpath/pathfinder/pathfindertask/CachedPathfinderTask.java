@@ -0,0 +1,41 @@
+package shortestpath.pathfinder.pathfindertask;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Path;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Task that is done from the start, with a path taken from a PathCache.
+ */
+public class CachedPathfinderTask implements PathfinderTask {
+    @Getter
+    private final WorldPoint start;
+    @Getter
+    private final WorldPoint target;
+    @Getter
+    private final Path path;
+    @Getter
+    private final CompletableFuture<Path> completion;
+
+    public CachedPathfinderTask(final WorldPoint start, final WorldPoint target, final Path path) {
+        this.start = start;
+        this.target = target;
+        this.path = path;
+        this.completion = CompletableFuture.completedFuture(path);
+    }
+
+    @Override
+    public PathfinderTaskStatus getStatus() {
+        return PathfinderTaskStatus.DONE;
+    }
+
+    @Override
+    public void cancelTask() {
+    }
+
+    @Override
+    public void run() {
+    }
+}
@@ -4,148 +4,207 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.coords.WorldPoint;
 import shortestpath.pathfinder.PathfinderConfig;
-import shortestpath.pathfinder.PathfinderTaskCache;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.PathCache;
 import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.path.Transport;
 import shortestpath.worldmap.WorldMap;
 import shortestpath.worldmap.sections.SectionMapper;
 import shortestpath.worldmap.sections.SectionPathfinderTask;
 import shortestpath.worldmap.sections.SectionRoute;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.function.BooleanSupplier;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class ComplexPathfinderTask implements PathfinderTask {
+    private static final int MAX_CONCURRENT_TASKS = 5;
+
     @Getter
     private final WorldPoint start;
     @Getter
     private final WorldPoint target;
     @Getter
-    private PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    private volatile PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    @Getter
+    private final CompletableFuture<Path> completion = new CompletableFuture<>();
 
     private final SectionPathfinderTask sectionPathfinderTask;
     private final WorldMap worldMap;
     private final SectionMapper sectionMapper;
     private final PathfinderConfig pathfinderConfig;
-    private final PathfinderTaskCache pathfinderTaskCache;
+    private final PathCache pathCache;
+    private final PathfinderExecutor pathfinderExecutor;
 
+    // Length of the path of the active task once it's done, routes whose length bound isn't shorter are pruned (see
+    // PathfinderRouteTask.getLengthBound)
     private int bestRouteLength = Integer.MAX_VALUE;
     private boolean updatingTasks = false;
     private int sectionRouteEvaluatedIndex = 0;
-    private boolean shouldCancelTask = false;
-    private PathfinderRouteTask activeTask = null;
+    private volatile boolean shouldCancelTask = false;
+    private volatile PathfinderRouteTask activeTask = null;
+
+    // Routes not yet being calculated, shortest first, and the route tasks currently calculating
+    private final Deque<SectionRoute> routes = new ArrayDeque<>();
+    // Whether the section search is done, until then more routes may be added
+    private boolean sectionRoutesFound = false;
+    private final List<PathfinderRouteTask> tasks = new ArrayList<>();
+    private int totalRoutes = 0;
+    private int routesExplored = 0;
+    private int routesPruned = 0;
+    // Transports the route searches may use, which bound the length of their paths
+    private List<Transport> usableTransports = null;
+    private boolean startingTasks = false;
+
+    public ComplexPathfinderTask(final WorldMap worldMap,
+                                 final SectionMapper sectionMapper,
+                                 final PathfinderConfig pathfinderConfig,
+                                 final WorldPoint start,
+                                 final WorldPoint target,
+                                 final PathfinderExecutor pathfinderExecutor) {
+        this(worldMap, sectionMapper, pathfinderConfig, start, target, pathfinderExecutor, new PathCache(worldMap));
+    }
 
+    /**
+     * Route searches take the paths between their transports from the path cache and add the ones they find to it,
+     * so the cache should only be shared between ComplexPathfinderTasks.
+     */
     public ComplexPathfinderTask(final WorldMap worldMap,
                                  final SectionMapper sectionMapper,
                                  final PathfinderConfig pathfinderConfig,
                                  final WorldPoint start,
-                                 final WorldPoint target) {
+                                 final WorldPoint target,
+                                 final PathfinderExecutor pathfinderExecutor,
+                                 final PathCache pathCache) {
         this.worldMap = worldMap;
         this.sectionMapper = sectionMapper;
         this.pathfinderConfig = pathfinderConfig;
         this.start = start;
         this.target = target;
-
-        this.pathfinderTaskCache = new PathfinderTaskCache();
-        this.sectionPathfinderTask = new SectionPathfinderTask(worldMap, sectionMapper, start, target, pathfinderConfig.getCanPlayerUseTransportPredicate());
-        new Thread(this).start();
+        this.pathfinderExecutor = pathfinderExecutor;
+
+        this.pathCache = pathCache;
+        this.sectionPathfinderTask = new SectionPathfinderTask(worldMap, sectionMapper, start, target,
+                pathfinderConfig.getCanPlayerUseTransportPredicate(), SectionPathfinderTask.DEFAULT_MAX_ROUTES, this::onSectionRouteFound);
+        sectionPathfinderTask.getCompletion().whenComplete((sectionRoutes, throwable) -> {
+            if (throwable != null) {
+                log.error("Finding section routes failed", throwable);
+            }
+            onSectionRoutesFound();
+        });
+        pathfinderExecutor.execute(sectionPathfinderTask, PathfinderExecutor.Priority.HIGH);
     }
 
     @Nullable
     public Path getPath() {
-        if (activeTask == null) {
+        final PathfinderRouteTask task = activeTask;
+        if (task == null) {
             return null;
         }
-        return activeTask.getPath();
+        return task.getPath();
     }
 
     public void cancelTask() {
         sectionPathfinderTask.cancelTask();
-        shouldCancelTask = true;
+        final List<PathfinderRouteTask> tasksToCancel;
+        synchronized (this) {
+            shouldCancelTask = true;
+            tasksToCancel = new ArrayList<>(tasks);
+        }
+        // Each cancelled task completes, which finishes this task once none are left
+        tasksToCancel.forEach(PathfinderRouteTask::cancelTask);
     }
 
     public void run() {
-        waitForSectionPathfinderTaskCompletion();
+        // Nothing to run, the task progresses as the searches it started complete
+    }
 
-        List<SectionRoute> routes = new ArrayList<>(sectionPathfinderTask.getRoutes());
-        final int totalRoutes = routes.size();
-        routes.sort(Comparator.comparingInt(SectionRoute::length));
-        List<PathfinderRouteTask> tasks = new ArrayList<>();
+    private synchronized void onSectionRouteFound(final SectionRoute route) {
+        // Routes are found shortest first
+        routes.addLast(route);
+        ++totalRoutes;
+        startTasks();
+    }
 
-        final BooleanSupplier isStillCalculating = () -> {
-            if (!routes.isEmpty() || !tasks.isEmpty()) {
-                return true;
-            }
-            if (activeTask != null && activeTask.getStatus() == PathfinderTaskStatus.CALCULATING) {
-                return true;
-            }
-            return false;
-        };
-
-        int routesExplored = 0;
-        final int MAX_CONCURRENT_TASKS = 5;
-        while (isStillCalculating.getAsBoolean() && !shouldCancelTask) {
-            final List<SectionRoute> routesToRemove = new LinkedList<>();
-            final List<PathfinderRouteTask> tasksToRemove = new LinkedList<>();
-
-            // Make new tasks if room
-            for (final SectionRoute route : routes) {
-                if (tasks.size() >= MAX_CONCURRENT_TASKS) {
-                    break;
-                }
-                final PathfinderRouteTask routeTask = new PathfinderRouteTask(route, worldMap, sectionMapper, pathfinderConfig, pathfinderTaskCache);
-                routesToRemove.add(route);
-                tasks.add(routeTask);
-                ++routesExplored;
-            }
+    private synchronized void onSectionRoutesFound() {
+        sectionRoutesFound = true;
+        startTasks();
+    }
 
-            // Evaluate tasks
-            for (final PathfinderRouteTask routeTask : tasks) {
-                final PathfinderTaskStatus taskStatus = routeTask.getStatus();
-                switch (taskStatus) {
-                    case DONE:
-                    case CANCELLED:
-                        tasksToRemove.add(routeTask);
-                        shouldTaskReplaceActiveTask(routeTask);
-                        break;
-                    case CALCULATING:
-                        final boolean activeTaskDone = activeTask != null && activeTask.getStatus() == PathfinderTaskStatus.DONE;
-                        final boolean bothTasksHavePath = (activeTaskDone && activeTask.getPath() != null && routeTask.getPath() != null);
-                        // If path being calculated is already worse than current active path, no reason to calculate it
-                        if (bothTasksHavePath && routeTask.getPath().getMovements().size() > activeTask.getPath().getMovements().size()) {
-                            routeTask.cancelTask();
-                        }
-                        else {
-                            shouldTaskReplaceActiveTask(routeTask);
-                        }
-                        break;
-                    default:
-                        throw new RuntimeException("Unexpected task status gotten: " + taskStatus);
-                }
-            }
+    private synchronized void onRouteTaskCompleted(final PathfinderRouteTask routeTask) {
+        if (!tasks.remove(routeTask)) {
+            return;
+        }
+        shouldTaskReplaceActiveTask(routeTask);
 
-            // Since elements cannot be removed from list while iterating said list, instead collect each element to
-            // remove and remove them here.
-            for (final SectionRoute route : routesToRemove) {
-                routes.remove(route);
-            }
-            for (final PathfinderRouteTask task : tasksToRemove) {
-                tasks.remove(task);
+        if (activeTask.getStatus() == PathfinderTaskStatus.DONE && activeTask.getPath() != null) {
+            bestRouteLength = activeTask.getPath().getMovements().size();
+            for (final PathfinderRouteTask task : new ArrayList<>(tasks)) {
+                pruneRouteTask(task);
             }
 
-            if (status == PathfinderTaskStatus.CALCULATING && activeTask != null
-                    && activeTask.getStatus() == PathfinderTaskStatus.DONE && !routes.isEmpty()) {
+            if (status == PathfinderTaskStatus.CALCULATING && (!routes.isEmpty() || !sectionRoutesFound)) {
                 status = PathfinderTaskStatus.LOOKING_FOR_BETTER_PATH;
             }
+        }
+        startTasks();
+    }
+
+    private synchronized void onRouteTaskProgress(final PathfinderRouteTask routeTask) {
+        pruneRouteTask(routeTask);
+    }
 
-            if (shouldCancelTask) {
-                tasks.forEach(PathfinderRouteTask::cancelTask);
+    private void pruneRouteTask(final PathfinderRouteTask routeTask) {
+        // Its path can't be shorter than the best path, so there's no reason to calculate it
+        if (tasks.contains(routeTask) && routeTask.getLengthBound() >= bestRouteLength) {
+            ++routesPruned;
+            routeTask.cancelTask();
+        }
+    }
+
+    private synchronized void startTasks() {
+        // Tasks whose searches are all cached complete immediately, calling back into this method
+        if (startingTasks) {
+            return;
+        }
+        startingTasks = true;
+        while (!shouldCancelTask && tasks.size() < MAX_CONCURRENT_TASKS && !routes.isEmpty()) {
+            // Until a path is found the player is waiting on these routes, afterwards they only look for a better path
+            final PathfinderExecutor.Priority priority = (status == PathfinderTaskStatus.CALCULATING ?
+                    PathfinderExecutor.Priority.HIGH : PathfinderExecutor.Priority.NORMAL);
+            if (usableTransports == null) {
+                usableTransports = PathfinderRouteTask.getUsableTransports(worldMap, sectionMapper, pathfinderConfig);
             }
+            final SectionRoute route = routes.removeFirst();
+            if (PathfinderRouteTask.getLengthBound(route, usableTransports) >= bestRouteLength) {
+                ++routesPruned;
+                continue;
+            }
+            final PathfinderRouteTask routeTask = new PathfinderRouteTask(route, worldMap, sectionMapper, pathfinderConfig,
+                    pathfinderExecutor, priority, pathCache, usableTransports);
+            tasks.add(routeTask);
+            ++routesExplored;
+
+            // Make the first task active right away, so its path can be shown while it is being calculated
+            shouldTaskReplaceActiveTask(routeTask);
+            routeTask.getSectionCompletions().forEach(sectionCompletion ->
+                    sectionCompletion.whenComplete((path, throwable) -> onRouteTaskProgress(routeTask)));
+            routeTask.getCompletion().whenComplete((path, throwable) -> onRouteTaskCompleted(routeTask));
+        }
+        startingTasks = false;
+
+        if (tasks.isEmpty() && ((routes.isEmpty() && sectionRoutesFound) || shouldCancelTask)) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (completion.isDone()) {
+            return;
         }
 
         if (shouldCancelTask) {
@@ -157,21 +216,13 @@ public class ComplexPathfinderTask implements PathfinderTask {
 
         final String taskStatusInfo = (shouldCancelTask ? "cancelled" : "finished calculating");
         if (activeTask != null && activeTask.getPath() != null) {
-            log.debug(String.format("PathfinderTask done (%s). Routes total: %d, routes explored: %d. Path length: %d",
-                    taskStatusInfo, totalRoutes, routesExplored, activeTask.getPath().getMovements().size()));
+            log.debug(String.format("PathfinderTask done (%s). Routes total: %d, routes explored: %d, routes pruned: %d. Path length: %d",
+                    taskStatusInfo, totalRoutes, routesExplored, routesPruned, activeTask.getPath().getMovements().size()));
         }
         else {
             log.debug(String.format("PathfinderTask done (%s). No route found!", taskStatusInfo));
         }
-    }
-
-    private void waitForSectionPathfinderTaskCompletion() {
-        do {
-            try {
-                TimeUnit.MILLISECONDS.sleep(10);
-            } catch (Exception ignore) {
-            }
-        } while (sectionPathfinderTask.getStatus() == PathfinderTaskStatus.CALCULATING);
+        completion.complete(getPath());
     }
 
     private void shouldTaskReplaceActiveTask(final PathfinderRouteTask task) {
@@ -0,0 +1,105 @@
+package shortestpath.pathfinder.pathfindertask;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import shortestpath.pathfinder.path.Path;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Task which first tries a shortcut to the path, such as a precomputed structure or a previous path. When the
+ * shortcut finds no path, the task started by the fallback supplier searches instead and this task follows it:
+ * its path, status, cancellation and completion are those of the fallback task from then on.
+ */
+@Slf4j
+public abstract class FallbackPathfinderTask implements PathfinderTask {
+    @Getter
+    private final CompletableFuture<Path> completion = new CompletableFuture<>();
+
+    private final Supplier<PathfinderTask> fallbackTaskSupplier;
+
+    private volatile PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    private volatile Path path = null;
+    private volatile PathfinderTask fallbackTask = null;
+    private volatile boolean shouldCancelTask = false;
+
+    protected FallbackPathfinderTask(final Supplier<PathfinderTask> fallbackTaskSupplier) {
+        this.fallbackTaskSupplier = fallbackTaskSupplier;
+    }
+
+    /**
+     * Path found without the fallback task, or null to fall back. Should return early once isCancelRequested().
+     */
+    @Nullable
+    protected abstract Path findPath();
+
+    // Why findPath found no path, for the log
+    protected abstract String getFallbackReason();
+
+    protected boolean isCancelRequested() {
+        return shouldCancelTask;
+    }
+
+    @Nullable
+    @Override
+    public Path getPath() {
+        final PathfinderTask task = fallbackTask;
+        return (task == null ? path : task.getPath());
+    }
+
+    @Override
+    public PathfinderTaskStatus getStatus() {
+        final PathfinderTask task = fallbackTask;
+        return (task == null ? status : task.getStatus());
+    }
+
+    @Override
+    public synchronized void cancelTask() {
+        shouldCancelTask = true;
+        if (fallbackTask != null) {
+            fallbackTask.cancelTask();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            runTask();
+        } catch (final Throwable e) {
+            status = PathfinderTaskStatus.CANCELLED;
+            completion.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void runTask() {
+        path = (shouldCancelTask ? null : findPath());
+        if (path != null || shouldCancelTask) {
+            status = (shouldCancelTask ? PathfinderTaskStatus.CANCELLED : PathfinderTaskStatus.DONE);
+            completion.complete(path);
+            return;
+        }
+
+        log.debug(getFallbackReason() + ", falling back to a search");
+        final PathfinderTask task;
+        synchronized (this) {
+            if (shouldCancelTask) {
+                status = PathfinderTaskStatus.CANCELLED;
+                completion.complete(null);
+                return;
+            }
+            task = fallbackTaskSupplier.get();
+            fallbackTask = task;
+        }
+        task.getCompletion().whenComplete((fallbackPath, throwable) -> {
+            if (throwable != null) {
+                completion.completeExceptionally(throwable);
+            }
+            else {
+                completion.complete(fallbackPath);
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package shortestpath.pathfinder.pathfindertask;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.path.Movement;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.Walk;
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.Util;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.hierarchy.ContractionHierarchy;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Finds the path with a query of the contraction hierarchy, which is built with every transport so its path is
+ * only the shortest for the player when it avoids what the config rules out. When it doesn't, there is no path in
+ * the hierarchy or no hierarchy at all, the task started by the fallback supplier searches instead and this task
+ * follows it. The hierarchy is supplied when the task runs, so loading it doesn't block the thread starting it.
+ */
+public class HierarchyPathfinderTask extends FallbackPathfinderTask {
+    private static final OrdinalDirection[] DIRECTIONS = OrdinalDirection.values();
+
+    @Getter
+    private final WorldPoint start;
+    @Getter
+    private final WorldPoint target;
+
+    private final WorldMap worldMap;
+    private final Supplier<ContractionHierarchy> contractionHierarchySupplier;
+    private final PathfinderConfig config;
+    private final boolean isStartOrTargetInWilderness;
+
+    public HierarchyPathfinderTask(final WorldMap worldMap, final Supplier<ContractionHierarchy> contractionHierarchySupplier,
+                                   final WorldPoint start, final WorldPoint target, final PathfinderConfig config,
+                                   final Supplier<PathfinderTask> fallbackTaskSupplier) {
+        super(fallbackTaskSupplier);
+        this.worldMap = worldMap;
+        this.contractionHierarchySupplier = contractionHierarchySupplier;
+        this.start = start;
+        this.target = target;
+        this.config = config;
+        this.isStartOrTargetInWilderness = SimplePathfinderTask.isInWilderness(start) || SimplePathfinderTask.isInWilderness(target);
+    }
+
+    @Nullable
+    @Override
+    protected Path findPath() {
+        final ContractionHierarchy contractionHierarchy = contractionHierarchySupplier.get();
+        if (contractionHierarchy == null) {
+            return null;
+        }
+        final int[] points = contractionHierarchy.findPath(WorldPointUtil.packWorldPoint(start), WorldPointUtil.packWorldPoint(target));
+        return (points == null ? null : toPlayerPath(points));
+    }
+
+    @Override
+    protected String getFallbackReason() {
+        return "No usable contraction hierarchy path from " + Util.worldPointToString(start) + " to "
+                + Util.worldPointToString(target);
+    }
+
+    /**
+     * Path along the points, or null when a step between them can only be made with a transport the player can't
+     * use or it enters the wilderness when it should be avoided.
+     */
+    @Nullable
+    private Path toPlayerPath(final int[] points) {
+        final List<Movement> movements = new ArrayList<>(points.length);
+        movements.add(new Walk(start, start));
+        for (int i = 1; i < points.length; ++i) {
+            final Movement movement = findMovement(points[i - 1], points[i]);
+            if (movement == null) {
+                return null;
+            }
+            if (config.avoidWilderness && !isStartOrTargetInWilderness && SimplePathfinderTask.isInWilderness(movement.getDestination())) {
+                return null;
+            }
+            movements.add(movement);
+        }
+        return new Path(movements);
+    }
+
+    @Nullable
+    private Movement findMovement(final int packedOrigin, final int packedDestination) {
+        final int x = WorldPointUtil.unpackWorldX(packedOrigin);
+        final int y = WorldPointUtil.unpackWorldY(packedOrigin);
+        final int plane = WorldPointUtil.unpackWorldPlane(packedOrigin);
+        for (final OrdinalDirection direction : DIRECTIONS) {
+            final int packedNeighbor = WorldPointUtil.packWorldPoint(x + direction.toPoint().getX(), y + direction.toPoint().getY(), plane);
+            if (packedNeighbor == packedDestination && worldMap.checkDirection(x, y, plane, direction)) {
+                return new Walk(WorldPointUtil.unpackWorldPoint(packedOrigin), WorldPointUtil.unpackWorldPoint(packedDestination));
+            }
+        }
+
+        for (final Transport transport : worldMap.getTransports(packedOrigin)) {
+            if (WorldPointUtil.packWorldPoint(transport.getDestination()) == packedDestination && config.canPlayerUseTransport(transport)) {
+                return transport;
+            }
+        }
+        return null;
+    }
+}
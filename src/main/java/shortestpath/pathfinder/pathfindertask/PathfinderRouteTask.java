@@ -2,8 +2,10 @@ package shortestpath.pathfinder.pathfindertask;
 
 import lombok.Getter;
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.DistanceHeuristic;
 import shortestpath.pathfinder.PathfinderConfig;
-import shortestpath.pathfinder.PathfinderTaskCache;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.PathCache;
 import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.Path;
 import shortestpath.pathfinder.path.Transport;
@@ -11,52 +13,70 @@ import shortestpath.worldmap.WorldMap;
 import shortestpath.worldmap.sections.MovementSections;
 import shortestpath.worldmap.sections.SectionMapper;
 import shortestpath.worldmap.sections.SectionRoute;
+import shortestpath.worldmap.sections.TransportDistances;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class PathfinderRouteTask implements PathfinderTask {
     @Getter
     private final SectionRoute route;
     private final WorldMap worldMap;
     private final SectionMapper sectionMapper;
-    private final PathfinderTaskCache pathfinderTaskCache;
+    private final PathCache pathCache;
+    private final PathfinderExecutor pathfinderExecutor;
+    private final PathfinderExecutor.Priority priority;
 
-    private final List<SimplePathfinderTask> sectionTasks;
+    private final List<PathfinderTask> sectionTasks;
     private final PathfinderConfig pathfinderConfig;
-    private PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    // Lower bound of the length of each leg's path, see getLegBound
+    private final int[] legBounds;
+    private volatile PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
     private Path finalPath = null;
+    @Getter
+    private final CompletableFuture<Path> completion = new CompletableFuture<>();
+
+    public PathfinderRouteTask(final SectionRoute route, final WorldMap worldMap, final SectionMapper sectionMapper, final PathfinderConfig pathfinderConfig,
+                               final PathfinderExecutor pathfinderExecutor, final PathfinderExecutor.Priority priority) {
+        this(route, worldMap, sectionMapper, pathfinderConfig, pathfinderExecutor, priority, null);
+    }
 
-    public PathfinderRouteTask(final SectionRoute route, final WorldMap worldMap, final SectionMapper sectionMapper, final PathfinderConfig pathfinderConfig) {
-        this(route, worldMap, sectionMapper, pathfinderConfig, null);
+    public PathfinderRouteTask(final SectionRoute route, final WorldMap worldMap, final SectionMapper sectionMapper, final PathfinderConfig pathfinderConfig,
+                               final PathfinderExecutor pathfinderExecutor, final PathfinderExecutor.Priority priority, @Nullable final PathCache pathCache) {
+        this(route, worldMap, sectionMapper, pathfinderConfig, pathfinderExecutor, priority, pathCache, null);
     }
 
-    public PathfinderRouteTask(final SectionRoute route, final WorldMap worldMap, final SectionMapper sectionMapper, final PathfinderConfig pathfinderConfig, final PathfinderTaskCache pathfinderTaskCache) {
+    /**
+     * The usable transports are the ones of getUsableTransports, given when they're shared between route tasks.
+     */
+    public PathfinderRouteTask(final SectionRoute route, final WorldMap worldMap, final SectionMapper sectionMapper, final PathfinderConfig pathfinderConfig,
+                               final PathfinderExecutor pathfinderExecutor, final PathfinderExecutor.Priority priority, @Nullable final PathCache pathCache,
+                               @Nullable final List<Transport> usableTransports) {
         this.sectionTasks = new ArrayList<>();
         this.route = route;
         this.worldMap = worldMap;
         this.sectionMapper = sectionMapper;
         this.pathfinderConfig = pathfinderConfig;
-        this.pathfinderTaskCache = pathfinderTaskCache;
+        this.pathCache = pathCache;
+        this.pathfinderExecutor = pathfinderExecutor;
+        this.priority = priority;
 
-        if (route.getTransports().isEmpty()) {
-            sectionTasks.add(createTask(route.getOrigin(), route.getDestination()));
-        } else {
-            final Transport firstTransport = route.getTransports().get(0);
-            final Transport lastTransport = route.getTransports().get(route.getTransports().size() - 1);
-            sectionTasks.add(createTask(route.getOrigin(), firstTransport.getOrigin()));
-
-            for (int i = 0; i < route.getTransports().size() - 1; ++i) {
-                final Transport currentTransport = route.getTransports().get(i);
-                final Transport nextTransport = route.getTransports().get(i + 1);
-                sectionTasks.add(createTask(currentTransport.getDestination(), nextTransport.getOrigin()));
-            }
+        final List<WorldPoint> legPoints = getLegPoints(route);
+        final List<Transport> legTransports = (usableTransports != null ? usableTransports :
+                getUsableTransports(worldMap, sectionMapper, pathfinderConfig));
+        this.legBounds = new int[legPoints.size() / 2];
+        for (int i = 0; i < legPoints.size(); i += 2) {
+            legBounds[i / 2] = getLegBound(legPoints.get(i), legPoints.get(i + 1), legTransports);
+            sectionTasks.add(createTask(legPoints.get(i), legPoints.get(i + 1), legTransports));
+        }
 
-            sectionTasks.add(createTask(lastTransport.getDestination(), route.getDestination()));
+        for (final PathfinderTask task : sectionTasks) {
+            task.getCompletion().whenComplete((path, throwable) -> onSectionTaskCompleted(task, throwable));
         }
     }
 
@@ -68,14 +88,15 @@ public class PathfinderRouteTask implements PathfinderTask {
         return route.getDestination();
     }
 
-    public PathfinderTaskStatus getStatus() {
+    public synchronized PathfinderTaskStatus getStatus() {
         if (status == PathfinderTaskStatus.DONE || status == PathfinderTaskStatus.CANCELLED) {
             return status;
         }
 
         if (sectionTasks.stream().anyMatch(task -> task.getStatus() == PathfinderTaskStatus.CANCELLED)) {
-            cancelTask();
-            return PathfinderTaskStatus.CANCELLED;
+            // Completion is left to the callback of the cancelled task, so it isn't completed while holding the lock
+            sectionTasks.forEach(PathfinderTask::cancelTask);
+            return (status = PathfinderTaskStatus.CANCELLED);
         }
 
         final boolean allTasksDone = sectionTasks.stream().allMatch(task -> task.getStatus() == PathfinderTaskStatus.DONE);
@@ -83,7 +104,7 @@ public class PathfinderRouteTask implements PathfinderTask {
     }
 
     @Nullable
-    public Path getPath() {
+    public synchronized Path getPath() {
         if (finalPath != null) {
             return finalPath;
         }
@@ -93,8 +114,8 @@ public class PathfinderRouteTask implements PathfinderTask {
         } else if (sectionTasks.size() == 1) {
             return sectionTasks.get(0).getPath();
         } else {
-            final List<Movement> movements = new LinkedList<>();
-            final List<SimplePathfinderTask> routeTasks = sectionTasks;
+            final List<Movement> movements = new ArrayList<>();
+            final List<PathfinderTask> routeTasks = sectionTasks;
             final List<Transport> routeTransports = route.getTransports();
             for (int i = 0; i < routeTasks.size(); ++i) {
                 final Path routeTaskPath = routeTasks.get(i).getPath();
@@ -109,40 +130,152 @@ public class PathfinderRouteTask implements PathfinderTask {
 
             final Path path = new Path(movements);
             if (status == PathfinderTaskStatus.DONE || status == PathfinderTaskStatus.CANCELLED) {
-                if (pathfinderTaskCache != null) {
-                    for (final SimplePathfinderTask task : sectionTasks) {
-                        if (task.getStatus() == PathfinderTaskStatus.DONE) {
-                            pathfinderTaskCache.addTask(task);
-                        }
-                    }
-                }
                 finalPath = path;
             }
             return path;
         }
     }
 
+    /**
+     * Lower bound of the length of the route's path, with the paths of the legs that are done and the bound of
+     * getLegBound for the others. It only grows as legs complete.
+     */
+    public synchronized int getLengthBound() {
+        int bound = route.getTransports().size();
+        for (int i = 0; i < sectionTasks.size(); ++i) {
+            final PathfinderTask task = sectionTasks.get(i);
+            final Path path = (task.getStatus() == PathfinderTaskStatus.DONE ? task.getPath() : null);
+            bound += (path != null ? path.getMovements().size() : legBounds[i]);
+        }
+        return bound;
+    }
+
+    /**
+     * Lower bound of the length of the path of a route before any of its legs is searched, see getLegBound.
+     */
+    public static int getLengthBound(final SectionRoute route, final List<Transport> usableTransports) {
+        final List<WorldPoint> legPoints = getLegPoints(route);
+        int bound = route.getTransports().size();
+        for (int i = 0; i < legPoints.size(); i += 2) {
+            bound += getLegBound(legPoints.get(i), legPoints.get(i + 1), usableTransports);
+        }
+        return bound;
+    }
+
+    /**
+     * Transports the searches of the legs of a route may use, the ones the player can use within a section and
+     * agility shortcuts.
+     */
+    public static List<Transport> getUsableTransports(final WorldMap worldMap, final SectionMapper sectionMapper,
+                                                      final PathfinderConfig pathfinderConfig) {
+        final Predicate<Transport> transportPredicate = pathfinderConfig.getCanPlayerUseTransportPredicate()
+                .and(getTransportPredicate(sectionMapper));
+        return worldMap.getTransports().stream()
+                .filter(transportPredicate)
+                .collect(Collectors.toList());
+    }
+
+    private static int getLegBound(final WorldPoint start, final WorldPoint target, final List<Transport> usableTransports) {
+        // A transport takes a single movement however far it goes, so like A* the leg is bounded by the straight line
+        // or arriving from the closest transport destination, plus the initial movement of its path
+        final int estimate = new DistanceHeuristic(target, usableTransports).estimate(start);
+        return 1 + (estimate == Integer.MAX_VALUE ? 0 : estimate);
+    }
+
+    // Start and target of each leg, the walks before, between and after the transports
+    private static List<WorldPoint> getLegPoints(final SectionRoute route) {
+        final List<WorldPoint> legPoints = new ArrayList<>();
+        legPoints.add(route.getOrigin());
+        for (final Transport transport : route.getTransports()) {
+            legPoints.add(transport.getOrigin());
+            legPoints.add(transport.getDestination());
+        }
+        legPoints.add(route.getDestination());
+        return legPoints;
+    }
+
+    /**
+     * Completions of the searches between the transports of the route, so progress can be followed before the route
+     * completes.
+     */
+    public List<CompletableFuture<Path>> getSectionCompletions() {
+        final List<CompletableFuture<Path>> completions = new ArrayList<>();
+        sectionTasks.forEach(task -> completions.add(task.getCompletion()));
+        return completions;
+    }
+
     public void cancelTask() {
-        sectionTasks.forEach(SimplePathfinderTask::cancelTask);
-        status = PathfinderTaskStatus.CANCELLED;
+        sectionTasks.forEach(PathfinderTask::cancelTask);
+        synchronized (this) {
+            status = PathfinderTaskStatus.CANCELLED;
+        }
+        completion.complete(getPath());
+    }
+
+    private void onSectionTaskCompleted(final PathfinderTask task, @Nullable final Throwable throwable) {
+        // A failed search is cancelled, which cancels the route so the other routes are still tried
+        final Path path = task.getPath();
+        if (throwable == null && pathCache != null && path != null && task.getStatus() == PathfinderTaskStatus.DONE) {
+            pathCache.put(task.getStart(), task.getTarget(), pathfinderConfig, path);
+        }
+        if (getStatus() != PathfinderTaskStatus.CALCULATING) {
+            completion.complete(getPath());
+        }
     }
 
     public void run() {
     }
 
-    private SimplePathfinderTask createTask(final WorldPoint start, final WorldPoint target) {
-        if (pathfinderTaskCache != null) {
-            final SimplePathfinderTask cachedTask = (SimplePathfinderTask) pathfinderTaskCache.getCachedTask(start, target);
-            if (cachedTask != null) {
-                return cachedTask;
-            }
+    private PathfinderTask createTask(final WorldPoint start, final WorldPoint target, final List<Transport> legTransports) {
+        final Path cachedPath = (pathCache == null ? null : pathCache.get(start, target, pathfinderConfig));
+        if (cachedPath != null) {
+            return new CachedPathfinderTask(start, target, cachedPath);
+        }
+        final Path knownPath = getKnownPath(start, target, legTransports);
+        if (knownPath != null) {
+            return new CachedPathfinderTask(start, target, knownPath);
         }
 
-        final SimplePathfinderTask newTask = new SimplePathfinderTask(worldMap, start, target, pathfinderConfig, getTransportPredicate());
+        final SimplePathfinderTask newTask = new SimplePathfinderTask(worldMap, start, target, pathfinderConfig, getTransportPredicate(sectionMapper));
+        pathfinderExecutor.execute(newTask, priority);
         return newTask;
     }
 
-    private Predicate<Transport> getTransportPredicate() {
+    /**
+     * Path of the leg from TransportDistances when it's the shortest the leg's search could find. Its path is the
+     * shortest one taking the transports every player can use, and the leg can only do better by taking another
+     * transport of the section, which it can't reach before the path's end when the distance to its origin is at least
+     * as long. The path must also keep out of the wilderness when the search would.
+     */
+    @Nullable
+    private Path getKnownPath(final WorldPoint start, final WorldPoint target, final List<Transport> legTransports) {
+        final TransportDistances transportDistances = worldMap.getTransportDistances();
+        final Path path = (transportDistances == null ? null : transportDistances.getPath(worldMap, start, target));
+        if (path == null) {
+            return null;
+        }
+
+        final int length = path.getMovements().size() - 1;
+        final Integer section = sectionMapper.getSection(start);
+        for (final Transport transport : legTransports) {
+            if (TransportDistances.isTakenByPaths(transport, sectionMapper) ||
+                    !Objects.equals(section, sectionMapper.getSection(transport).getOriginSection())) {
+                continue;
+            }
+            final int distance = transportDistances.getDistance(start, transport.getOrigin());
+            if (distance == TransportDistances.UNKNOWN || (distance != TransportDistances.UNREACHABLE && distance + 1 < length)) {
+                return null;
+            }
+        }
+
+        if (pathfinderConfig.avoidWilderness && !SimplePathfinderTask.isInWilderness(start) && !SimplePathfinderTask.isInWilderness(target) &&
+                path.getMovements().stream().anyMatch(movement -> SimplePathfinderTask.isInWilderness(movement.getDestination()))) {
+            return null;
+        }
+        return path;
+    }
+
+    private static Predicate<Transport> getTransportPredicate(final SectionMapper sectionMapper) {
         return (transport) -> {
             final MovementSections transportSections = sectionMapper.getSection(transport);
             if (Objects.equals(transportSections.getOriginSection(), transportSections.getDestinationSection())) {
@@ -3,10 +3,18 @@ package shortestpath.pathfinder.pathfindertask;
 import net.runelite.api.coords.WorldPoint;
 import shortestpath.pathfinder.path.Path;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PathfinderTask extends Runnable {
     public WorldPoint getStart();
     public WorldPoint getTarget();
     public Path getPath();
     public PathfinderTaskStatus getStatus();
     public void cancelTask();
+
+    /**
+     * Completed with the final path (null if none was found) once the task is done or cancelled.
+     * getStatus() tells which of the two happened.
+     */
+    public CompletableFuture<Path> getCompletion();
 }
@@ -0,0 +1,111 @@
+package shortestpath.pathfinder.pathfindertask;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.NodeGraph;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.path.Movement;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.utils.Util;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reconnects a start that drifted off an existing path to that path, rather than searching to the target again.
+ * Searches breadth-first from the start until a point of the path is reached, then for as many movements again
+ * for a point further along the path that makes the total shorter. The result is the way there followed by the
+ * rest of the path, so the work depends on how far the start is from the path rather than on how long it is.
+ * When no point of the path is reached within MAX_DETOUR movements, the task started by the fallback supplier
+ * searches instead and this task follows it.
+ */
+public class RepairPathfinderTask extends FallbackPathfinderTask {
+    private static final int MAX_DETOUR = 32;
+
+    @Getter
+    private final WorldPoint start;
+    @Getter
+    private final WorldPoint target;
+
+    private final WorldMap worldMap;
+    private final Path previousPath;
+    private final Predicate<WorldPoint> neighborPredicate;
+    private final Predicate<Transport> transportPredicate;
+
+    public RepairPathfinderTask(final WorldMap worldMap, final Path previousPath, final WorldPoint start, final WorldPoint target,
+                                final PathfinderConfig config, final Supplier<PathfinderTask> fallbackTaskSupplier) {
+        super(fallbackTaskSupplier);
+        this.worldMap = worldMap;
+        this.previousPath = previousPath;
+        this.start = start;
+        this.target = target;
+
+        final boolean isStartOrTargetInWilderness = SimplePathfinderTask.isInWilderness(start) || SimplePathfinderTask.isInWilderness(target);
+        this.neighborPredicate = (point) -> !config.avoidWilderness || isStartOrTargetInWilderness || !SimplePathfinderTask.isInWilderness(point);
+        this.transportPredicate = config.getCanPlayerUseTransportPredicate();
+    }
+
+    @Override
+    protected String getFallbackReason() {
+        return Util.worldPointToString(start) + " is more than " + MAX_DETOUR + " movements away from the path to "
+                + Util.worldPointToString(target);
+    }
+
+    @Nullable
+    @Override
+    protected Path findPath() {
+        final List<Movement> previousMovements = previousPath.getMovements();
+        final int lastIndex = previousMovements.size() - 1;
+        // Furthest index along the path of each point on it
+        final Map<Integer, Integer> pathIndices = new HashMap<>();
+        for (int i = 0; i <= lastIndex; ++i) {
+            pathIndices.put(WorldPointUtil.packWorldPoint(previousMovements.get(i).getDestination()), i);
+        }
+
+        final NodeGraph graph = new NodeGraph(worldMap);
+        graph.addBoundaryNode(Node.createInitialNode(start));
+
+        Node bestNode = null;
+        int bestIndex = -1;
+        int bestCost = Integer.MAX_VALUE;
+        int firstContactCost = -1;
+        while (!graph.getBoundary().isEmpty() && !isCancelRequested()) {
+            final Node node = graph.getBoundary().peek();
+            final int cost = node.getCost();
+            if (firstContactCost < 0 ? cost > MAX_DETOUR : (cost >= bestCost || cost > 2 * firstContactCost)) {
+                break;
+            }
+
+            final Integer index = pathIndices.get(WorldPointUtil.packWorldPoint(node.getMovement().getDestination()));
+            if (index != null) {
+                if (firstContactCost < 0) {
+                    firstContactCost = cost;
+                }
+                if (cost + lastIndex - index < bestCost) {
+                    bestNode = node;
+                    bestIndex = index;
+                    bestCost = cost + lastIndex - index;
+                }
+            }
+
+            graph.evaluateBoundaryNode(neighborPredicate, transportPredicate);
+        }
+
+        if (bestNode == null || isCancelRequested()) {
+            return null;
+        }
+
+        final List<Movement> movements = new ArrayList<>(bestNode.getPath().getMovements());
+        movements.addAll(previousMovements.subList(bestIndex + 1, previousMovements.size()));
+        return new Path(movements);
+    }
+}
@@ -1,15 +1,21 @@
 package shortestpath.pathfinder.pathfindertask;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.coords.WorldArea;
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.BidirectionalSearch;
+import shortestpath.pathfinder.Heuristic;
+import shortestpath.pathfinder.JumpPointSearch;
 import shortestpath.pathfinder.Node;
 import shortestpath.pathfinder.NodeGraph;
 import shortestpath.pathfinder.PathfinderConfig;
-import shortestpath.pathfinder.PathfinderTaskHandler;
+import shortestpath.pathfinder.SearchAlgorithm;
 import shortestpath.pathfinder.path.Path;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.worldmap.WorldMap;
@@ -19,7 +25,7 @@ public class SimplePathfinderTask implements PathfinderTask {
     private static final WorldArea WILDERNESS_ABOVE_GROUND = new WorldArea(2944, 3523, 448, 448, 0);
     private static final WorldArea WILDERNESS_UNDERGROUND = new WorldArea(2944, 9918, 320, 442, 0);
 
-    private static boolean isInWilderness(WorldPoint p) {
+    public static boolean isInWilderness(WorldPoint p) {
         return WILDERNESS_ABOVE_GROUND.distanceTo(p) == 0 || WILDERNESS_UNDERGROUND.distanceTo(p) == 0;
     }
 
@@ -28,14 +34,20 @@ public class SimplePathfinderTask implements PathfinderTask {
     @Getter
     private final WorldPoint target;
     @Getter
-    private Path path;
+    private volatile PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
     @Getter
-    private PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    private final CompletableFuture<Path> completion = new CompletableFuture<>();
 
     private final WorldMap worldMap;
     private final Predicate<WorldPoint> neighborPredicate;
     private final Predicate<Transport> transportPredicate;
-    private boolean shouldCancelTask = false;
+    private final SearchAlgorithm searchAlgorithm;
+    private volatile boolean shouldCancelTask = false;
+
+    // Closest node to the target found so far, its Path is only built once it's requested
+    private volatile Node bestNode;
+    private Node pathNode;
+    private Path path;
 
     public SimplePathfinderTask(final WorldMap worldMap, final WorldPoint start, final WorldPoint target,
                                 final PathfinderConfig config) {
@@ -51,8 +63,9 @@ public class SimplePathfinderTask implements PathfinderTask {
         final boolean isStartOrTargetInWilderness = isInWilderness(start) || isInWilderness(target);
         this.neighborPredicate = (point) -> !config.avoidWilderness || isStartOrTargetInWilderness || !isInWilderness(point);
         this.transportPredicate = config.getCanPlayerUseTransportPredicate().and(transportPredicate);
-
-        new Thread(this).start();
+        // Contraction hierarchy queries are HierarchyPathfinderTasks, which fall back to searches like this one
+        this.searchAlgorithm = (config.searchAlgorithm == SearchAlgorithm.CONTRACTION_HIERARCHY ?
+                SearchAlgorithm.A_STAR : config.searchAlgorithm);
     }
 
     public SimplePathfinderTask(final WorldMap worldMap, final WorldPoint start, final WorldPoint target) {
@@ -65,8 +78,17 @@ public class SimplePathfinderTask implements PathfinderTask {
         this.target = target;
         this.neighborPredicate = (point) -> true;
         this.transportPredicate = transportPredicate;
+        this.searchAlgorithm = SearchAlgorithm.BREADTH_FIRST;
+    }
 
-        new Thread(this).start();
+    @Override
+    public synchronized Path getPath() {
+        final Node node = bestNode;
+        if (node != pathNode) {
+            path = (node == null ? null : node.getPath());
+            pathNode = node;
+        }
+        return path;
     }
 
     public void cancelTask() {
@@ -75,33 +97,88 @@ public class SimplePathfinderTask implements PathfinderTask {
 
     @Override
     public void run() {
-        NodeGraph graph = new NodeGraph(worldMap);
+        try {
+            if (searchAlgorithm == SearchAlgorithm.BIDIRECTIONAL) {
+                runBidirectionalSearch();
+            }
+            else if (searchAlgorithm == SearchAlgorithm.JUMP_POINT) {
+                runJumpPointSearch();
+            }
+            else {
+                runGraphSearch();
+            }
+        } catch (final Throwable e) {
+            // Whoever waits on the task learns it failed, rather than waiting forever
+            status = PathfinderTaskStatus.CANCELLED;
+            completion.completeExceptionally(e);
+            throw e;
+        }
+
+        if (shouldCancelTask) {
+            status = PathfinderTaskStatus.CANCELLED;
+        }
+        else {
+            status = PathfinderTaskStatus.DONE;
+        }
+        completion.complete(getPath());
+    }
+
+    private void runGraphSearch() {
+        NodeGraph graph = createNodeGraph();
         graph.addBoundaryNode(Node.createInitialNode(start));
 
         int bestDistance = Integer.MAX_VALUE;
         while (!graph.getBoundary().isEmpty() && !shouldCancelTask) {
-            final int indexToEvaluate = 0;
-            final Node node = graph.getBoundary().get(indexToEvaluate);
+            final Node node = graph.getBoundary().peek();
 
             if (node.getMovement().getDestination().equals(target)) {
-                this.path = node.getPath();
+                this.bestNode = node;
                 break;
             }
 
             final int distance = node.getMovement().getDestination().distanceTo(target);
-            if (this.path == null || distance < bestDistance) {
-                this.path = node.getPath();
+            if (this.bestNode == null || distance < bestDistance) {
+                this.bestNode = node;
                 bestDistance = distance;
             }
 
-            graph.evaluateBoundaryNode(indexToEvaluate, this.neighborPredicate, this.transportPredicate);
+            graph.evaluateBoundaryNode(this.neighborPredicate, this.transportPredicate);
         }
+    }
 
-        if (shouldCancelTask) {
-            status = PathfinderTaskStatus.CANCELLED;
+    private void runBidirectionalSearch() {
+        final BidirectionalSearch search = new BidirectionalSearch(worldMap, start, target, neighborPredicate, transportPredicate);
+        this.bestNode = (search.getPathNode() != null ? search.getPathNode() : search.getClosestNode());
+        while (!search.isDone() && !shouldCancelTask) {
+            search.expandLevel();
+            this.bestNode = (search.getPathNode() != null ? search.getPathNode() : search.getClosestNode());
         }
-        else {
-            status = PathfinderTaskStatus.DONE;
+    }
+
+    private void runJumpPointSearch() {
+        final JumpPointSearch search = new JumpPointSearch(worldMap, start, target, createHeuristic(), neighborPredicate, transportPredicate);
+        this.bestNode = search.getClosestNode();
+        while (!search.isDone() && !shouldCancelTask) {
+            search.expandNode();
+            this.bestNode = (search.getPathNode() != null ? search.getPathNode() : search.getClosestNode());
+        }
+    }
+
+    private NodeGraph createNodeGraph() {
+        switch (searchAlgorithm) {
+            case BREADTH_FIRST:
+                return new NodeGraph(worldMap);
+            case A_STAR:
+                return new NodeGraph(worldMap, createHeuristic());
+            default:
+                throw new RuntimeException("Unexpected search algorithm: " + searchAlgorithm);
         }
     }
+
+    private Heuristic createHeuristic() {
+        final List<Transport> usableTransports = worldMap.getTransports().stream()
+                .filter(transportPredicate)
+                .collect(Collectors.toList());
+        return worldMap.getHeuristicProvider().createHeuristic(target, usableTransports);
+    }
 }
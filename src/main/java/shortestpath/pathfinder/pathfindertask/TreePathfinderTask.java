@@ -0,0 +1,47 @@
+package shortestpath.pathfinder.pathfindertask;
+
+import lombok.Getter;
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.SearchTree;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.utils.Util;
+
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * Takes the path from a SearchTree kept for the start, growing the tree when the target hasn't been reached yet.
+ * When the tree can't reach the target, the task started by the fallback supplier searches instead and this task
+ * follows it, so unreachable targets still get a path to the closest point.
+ */
+public class TreePathfinderTask extends FallbackPathfinderTask {
+    @Getter
+    private final WorldPoint target;
+
+    private final SearchTree searchTree;
+
+    public TreePathfinderTask(final SearchTree searchTree, final WorldPoint target, final Supplier<PathfinderTask> fallbackTaskSupplier) {
+        super(fallbackTaskSupplier);
+        this.searchTree = searchTree;
+        this.target = target;
+    }
+
+    @Override
+    public WorldPoint getStart() {
+        return searchTree.getStart();
+    }
+
+    @Nullable
+    @Override
+    protected Path findPath() {
+        final Node node = searchTree.findNode(target, this::isCancelRequested);
+        return (node == null ? null : node.getPath());
+    }
+
+    @Override
+    protected String getFallbackReason() {
+        return "Search tree from " + Util.worldPointToString(getStart()) + " can't reach "
+                + Util.worldPointToString(target) + " within " + searchTree.size() + " nodes";
+    }
+}
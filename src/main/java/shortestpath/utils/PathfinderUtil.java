@@ -1,6 +1,8 @@
 package shortestpath.utils;
 
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SearchAlgorithm;
 import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.MovementType;
 import shortestpath.pathfinder.path.Path;
@@ -8,13 +10,18 @@ import shortestpath.pathfinder.path.Transport;
 import shortestpath.pathfinder.path.Walk;
 import shortestpath.pathfinder.pathfindertask.PathfinderTask;
 import shortestpath.pathfinder.pathfindertask.PathfinderTaskStatus;
+import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
 import shortestpath.worldmap.WorldMap;
 import shortestpath.worldmap.sections.SectionPathfinderTask;
 
+import javax.annotation.Nullable;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -26,18 +33,7 @@ public class PathfinderUtil {
     }
 
     public static boolean waitForTaskCompletion(final PathfinderTask task, final long timeout) {
-        long startTime = System.nanoTime();
-        while (task.getStatus() != PathfinderTaskStatus.DONE) {
-            if (timeout > 0 && (System.nanoTime() - startTime) >= TimeUnit.SECONDS.toNanos(timeout)) {
-                return false;
-            }
-
-            try {
-                TimeUnit.MILLISECONDS.sleep(10);
-            } catch (Exception ignore) {
-            }
-        }
-        return true;
+        return waitForCompletion(task.getCompletion(), timeout) && task.getStatus() == PathfinderTaskStatus.DONE;
     }
 
     public static boolean waitForTaskCompletion(final SectionPathfinderTask task) {
@@ -45,18 +41,38 @@ public class PathfinderUtil {
     }
 
     public static boolean waitForTaskCompletion(final SectionPathfinderTask task, final long timeout) {
-        long startTime = System.nanoTime();
-        while (task.getStatus() != PathfinderTaskStatus.DONE) {
-            if ((System.nanoTime() - startTime) >= TimeUnit.SECONDS.toNanos(timeout)) {
-                return false;
-            }
+        return waitForCompletion(task.getCompletion(), timeout) && task.getStatus() == PathfinderTaskStatus.DONE;
+    }
 
-            try {
-                TimeUnit.MILLISECONDS.sleep(10);
-            } catch (Exception ignore) {
+    private static boolean waitForCompletion(final Future<?> completion, final long timeout) {
+        try {
+            if (timeout > 0) {
+                completion.get(timeout, TimeUnit.SECONDS);
+            }
+            else {
+                completion.get();
             }
+            return true;
+        } catch (final TimeoutException | ExecutionException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        return true;
+    }
+
+    /**
+     * Path of a SimplePathfinderTask with the search algorithm and otherwise the default config, run on the calling
+     * thread. With SearchAlgorithm.BREADTH_FIRST it's the shortest path other algorithms are compared to.
+     */
+    @Nullable
+    public static Path findPath(final WorldMap worldMap, final WorldPoint start, final WorldPoint target,
+                                final SearchAlgorithm searchAlgorithm) {
+        final PathfinderConfig config = new PathfinderConfig();
+        config.searchAlgorithm = searchAlgorithm;
+        final SimplePathfinderTask task = new SimplePathfinderTask(worldMap, start, target, config);
+        task.run();
+        return (task.getStatus() == PathfinderTaskStatus.DONE ? task.getPath() : null);
     }
 
     public static boolean isPathValid(final WorldMap worldMap, final Path path) {
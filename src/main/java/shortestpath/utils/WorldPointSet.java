@@ -0,0 +1,212 @@
+package shortestpath.utils;
+
+import net.runelite.api.coords.WorldPoint;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of WorldPoints stored as one bit per tile. Like SplitFlagMap the world is split into 64x64 regions,
+ * each region holding a bitmap covering all planes, so lookups never allocate or hash a WorldPoint.
+ */
+public class WorldPointSet extends AbstractSet<WorldPoint> {
+    private static final int REGION_SHIFT = 6;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+    private static final int REGION_MASK = REGION_SIZE - 1;
+    private static final int REGION_WORDS = REGION_SIZE * REGION_SIZE * WorldPointUtil.PLANE_COUNT / Long.SIZE;
+    private static final int EMPTY_SLOT = -1;
+    private static final int INITIAL_SLOTS = 16;
+
+    // Open-addressing table of region key -> region bitmap
+    private int[] regionKeys;
+    private long[][] regions;
+    private int regionCount = 0;
+
+    // Consecutive lookups are nearly always within the same region
+    private int lastRegionKey = EMPTY_SLOT;
+    private long[] lastRegion = null;
+
+    private int size = 0;
+
+    public WorldPointSet() {
+        this.regionKeys = new int[INITIAL_SLOTS];
+        this.regions = new long[INITIAL_SLOTS][];
+        Arrays.fill(regionKeys, EMPTY_SLOT);
+    }
+
+    public boolean add(final int x, final int y, final int plane) {
+        if (!WorldPointUtil.isPackable(x, y, plane)) {
+            throw new IndexOutOfBoundsException(x + " " + y + " " + plane);
+        }
+
+        final long[] region = getRegion(regionKey(x, y), true);
+        final int bit = bitIndex(x, y, plane);
+        final long mask = 1L << bit;
+        if ((region[bit >>> 6] & mask) != 0) {
+            return false;
+        }
+        region[bit >>> 6] |= mask;
+        ++size;
+        return true;
+    }
+
+    public boolean contains(final int x, final int y, final int plane) {
+        if (!WorldPointUtil.isPackable(x, y, plane)) {
+            return false;
+        }
+
+        final long[] region = getRegion(regionKey(x, y), false);
+        if (region == null) {
+            return false;
+        }
+        final int bit = bitIndex(x, y, plane);
+        return (region[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean add(final int packedPoint) {
+        return add(WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint), WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    public boolean contains(final int packedPoint) {
+        return contains(WorldPointUtil.unpackWorldX(packedPoint), WorldPointUtil.unpackWorldY(packedPoint), WorldPointUtil.unpackWorldPlane(packedPoint));
+    }
+
+    @Override
+    public boolean add(final WorldPoint point) {
+        return add(point.getX(), point.getY(), point.getPlane());
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        if (!(object instanceof WorldPoint)) {
+            return false;
+        }
+        final WorldPoint point = (WorldPoint) object;
+        return contains(point.getX(), point.getY(), point.getPlane());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        regionKeys = new int[INITIAL_SLOTS];
+        regions = new long[INITIAL_SLOTS][];
+        Arrays.fill(regionKeys, EMPTY_SLOT);
+        regionCount = 0;
+        lastRegionKey = EMPTY_SLOT;
+        lastRegion = null;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<WorldPoint> iterator() {
+        return new Iterator<WorldPoint>() {
+            private int slot = -1;
+            private int word = REGION_WORDS;
+            private long remainingBits = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (remainingBits == 0) {
+                    if (++word >= REGION_WORDS) {
+                        do {
+                            ++slot;
+                        } while (slot < regionKeys.length && regionKeys[slot] == EMPTY_SLOT);
+                        if (slot >= regionKeys.length) {
+                            return false;
+                        }
+                        word = 0;
+                    }
+                    remainingBits = regions[slot][word];
+                }
+                return true;
+            }
+
+            @Override
+            public WorldPoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int bit = word * Long.SIZE + Long.numberOfTrailingZeros(remainingBits);
+                remainingBits &= remainingBits - 1;
+
+                final int regionKey = regionKeys[slot];
+                final int x = (regionKey >>> 9) * REGION_SIZE + (bit & REGION_MASK);
+                final int y = (regionKey & 0x1FF) * REGION_SIZE + ((bit >>> REGION_SHIFT) & REGION_MASK);
+                final int plane = bit >>> (2 * REGION_SHIFT);
+                return new WorldPoint(x, y, plane);
+            }
+        };
+    }
+
+    private long[] getRegion(final int regionKey, final boolean createIfMissing) {
+        if (regionKey == lastRegionKey) {
+            return lastRegion;
+        }
+
+        int slot = slotOf(regionKey, regionKeys.length);
+        while (regionKeys[slot] != EMPTY_SLOT) {
+            if (regionKeys[slot] == regionKey) {
+                lastRegionKey = regionKey;
+                lastRegion = regions[slot];
+                return lastRegion;
+            }
+            slot = (slot + 1) & (regionKeys.length - 1);
+        }
+
+        if (!createIfMissing) {
+            return null;
+        }
+
+        if ((regionCount + 1) * 2 > regionKeys.length) {
+            growTable();
+            return getRegion(regionKey, true);
+        }
+
+        final long[] region = new long[REGION_WORDS];
+        regionKeys[slot] = regionKey;
+        regions[slot] = region;
+        ++regionCount;
+
+        lastRegionKey = regionKey;
+        lastRegion = region;
+        return region;
+    }
+
+    private void growTable() {
+        final int[] oldKeys = regionKeys;
+        final long[][] oldRegions = regions;
+        regionKeys = new int[oldKeys.length * 2];
+        regions = new long[oldKeys.length * 2][];
+        Arrays.fill(regionKeys, EMPTY_SLOT);
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] == EMPTY_SLOT) {
+                continue;
+            }
+            int slot = slotOf(oldKeys[i], regionKeys.length);
+            while (regionKeys[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & (regionKeys.length - 1);
+            }
+            regionKeys[slot] = oldKeys[i];
+            regions[slot] = oldRegions[i];
+        }
+    }
+
+    private static int slotOf(final int regionKey, final int tableLength) {
+        return (regionKey * 0x9E3779B9 >>> 16) & (tableLength - 1);
+    }
+
+    private static int regionKey(final int x, final int y) {
+        return (x >>> REGION_SHIFT) << 9 | (y >>> REGION_SHIFT);
+    }
+
+    private static int bitIndex(final int x, final int y, final int plane) {
+        return plane << (2 * REGION_SHIFT) | (y & REGION_MASK) << REGION_SHIFT | (x & REGION_MASK);
+    }
+}
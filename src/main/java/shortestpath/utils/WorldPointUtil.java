@@ -0,0 +1,40 @@
+package shortestpath.utils;
+
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Packs WorldPoints into a single int, for when a WorldPoint would otherwise have to be allocated (and hashed)
+ * just to be looked up. Layout is 15 bits x, 15 bits y and 2 bits plane.
+ */
+public class WorldPointUtil {
+    public static final int MAX_COORDINATE = (1 << 15) - 1;
+    public static final int PLANE_COUNT = 4;
+
+    public static int packWorldPoint(final WorldPoint point) {
+        return packWorldPoint(point.getX(), point.getY(), point.getPlane());
+    }
+
+    public static int packWorldPoint(final int x, final int y, final int plane) {
+        return (plane & 0x3) << 30 | (y & MAX_COORDINATE) << 15 | (x & MAX_COORDINATE);
+    }
+
+    public static int unpackWorldX(final int packedPoint) {
+        return packedPoint & MAX_COORDINATE;
+    }
+
+    public static int unpackWorldY(final int packedPoint) {
+        return (packedPoint >>> 15) & MAX_COORDINATE;
+    }
+
+    public static int unpackWorldPlane(final int packedPoint) {
+        return packedPoint >>> 30;
+    }
+
+    public static WorldPoint unpackWorldPoint(final int packedPoint) {
+        return new WorldPoint(unpackWorldX(packedPoint), unpackWorldY(packedPoint), unpackWorldPlane(packedPoint));
+    }
+
+    public static boolean isPackable(final int x, final int y, final int plane) {
+        return x >= 0 && x <= MAX_COORDINATE && y >= 0 && y <= MAX_COORDINATE && plane >= 0 && plane < PLANE_COUNT;
+    }
+}
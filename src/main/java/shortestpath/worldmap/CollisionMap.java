@@ -1,74 +1,221 @@
 package shortestpath.worldmap;
 
-import net.runelite.api.Point;
 import net.runelite.api.coords.WorldPoint;
 import shortestpath.ShortestPathPlugin;
 import shortestpath.utils.Util;
 import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.WorldPointUtil;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 public class CollisionMap extends SplitFlagMap {
+    private static final byte[] NO_WALKABLE_DIRECTIONS = new byte[0];
+    private static final int NORTH = 1 << OrdinalDirection.NORTH.ordinal();
+    private static final int EAST = 1 << OrdinalDirection.EAST.ordinal();
+    private static final int SOUTH = 1 << OrdinalDirection.SOUTH.ordinal();
+    private static final int WEST = 1 << OrdinalDirection.WEST.ordinal();
+    // Each diagonal with the cardinal directions it's made of
+    private static final int[] DIAGONALS = {
+            1 << OrdinalDirection.NORTH_EAST.ordinal(),
+            1 << OrdinalDirection.SOUTH_EAST.ordinal(),
+            1 << OrdinalDirection.SOUTH_WEST.ordinal(),
+            1 << OrdinalDirection.NORTH_WEST.ordinal()};
+    private static final int[] DIAGONAL_HORIZONTAL = {EAST, EAST, WEST, WEST};
+    private static final int[] DIAGONAL_VERTICAL = {NORTH, SOUTH, SOUTH, NORTH};
+
+    private final int regionSize;
+    private final int regionsPerAxis;
+    // Per region, one byte per tile with bit (1 << OrdinalDirection.ordinal()) set when walking that direction
+    // is possible. Built from the flags the first time a region is used, regions without any walkable tile
+    // share NO_WALKABLE_DIRECTIONS. Null for mapped maps, which store the tables in the mapped file instead.
+    private final AtomicReferenceArray<byte[]> walkableDirections;
+    private final MappedFlagMap mappedFlags;
+
     public CollisionMap(int regionSize, Map<Position, byte[]> compressedRegions) {
         super(regionSize, compressedRegions, 2);
+        this.regionSize = regionSize;
+        this.regionsPerAxis = (WorldPointUtil.MAX_COORDINATE + regionSize) / regionSize;
+        this.walkableDirections = new AtomicReferenceArray<>(regionsPerAxis * regionsPerAxis);
+        this.mappedFlags = null;
+    }
+
+    public CollisionMap(final MappedFlagMap mappedFlags) {
+        super(mappedFlags);
+        if (!mappedFlags.hasTables()) {
+            throw new IllegalArgumentException("Mapped collision map without walkability tables, write it with CollisionMap.toMappedFile");
+        }
+        this.regionSize = mappedFlags.getRegionSize();
+        this.regionsPerAxis = (WorldPointUtil.MAX_COORDINATE + regionSize) / regionSize;
+        this.walkableDirections = null;
+        this.mappedFlags = mappedFlags;
     }
 
     public boolean checkDirection(final WorldPoint point, final OrdinalDirection dir) {
         return checkDirection(point.getX(), point.getY(), point.getPlane(), dir);
     }
 
-    public boolean checkDirection(int x, int y, final int z, final OrdinalDirection dir) {
-        Point direction = dir.toPoint();
-        if (Math.abs(direction.getX()) + Math.abs(direction.getY()) > 1) {
-            // Diagonal cases, check that both WorldPoint traversals possible. For example:
-            // To go South-East, either:
-            //  (current_tile to South) -> (south_tile to East)
-            //  (current_tile to East) -> (east_tile to South)
-            final boolean horizontalPossible =
-                    checkDirection(x, y, z, OrdinalDirection.fromPoint(new Point(direction.getX(), 0))) &&
-                    checkDirection(x + direction.getX(), y, z, OrdinalDirection.fromPoint(new Point(0, direction.getY())));
-
-            final boolean verticalPossible =
-                    checkDirection(x, y, z, OrdinalDirection.fromPoint(new Point(0, direction.getY()))) &&
-                    checkDirection(x, y + direction.getY(), z, OrdinalDirection.fromPoint(new Point(direction.getX(), 0)));
-            if (!(horizontalPossible && verticalPossible)) {
-                return false;
-            }
+    public boolean checkDirection(final int x, final int y, final int z, final OrdinalDirection dir) {
+        return (getWalkableDirections(x, y, z) & (1 << dir.ordinal())) != 0;
+    }
+
+    public boolean isBlocked(final WorldPoint point) {
+        if (point == null) {
+            return true;
         }
+        return isBlocked(point.getX(), point.getY(), point.getPlane());
+    }
 
-        int flag = 0;
-        if ((OrdinalDirection.EAST == dir) || (OrdinalDirection.WEST == dir)) {
-            flag = 1;
+    public boolean isBlocked(final int x, final int y, final int z) {
+        return getWalkableDirections(x, y, z) == 0;
+    }
+
+    private int getWalkableDirections(final int x, final int y, final int z) {
+        if (mappedFlags != null) {
+            return mappedFlags.getTableValue(x, y, z);
         }
 
-        if (OrdinalDirection.WEST == dir) {
-            x -= 1;
+        final int regionX = x / regionSize;
+        final int regionY = y / regionSize;
+        if (x < 0 || y < 0 || z < 0 || z >= FlagMap.PLANE_COUNT || regionX >= regionsPerAxis || regionY >= regionsPerAxis) {
+            return 0;
         }
-        else if (OrdinalDirection.SOUTH == dir) {
-            y -= 1;
+
+        final byte[] region = getRegionWalkableDirections(regionX, regionY);
+        if (region == NO_WALKABLE_DIRECTIONS) {
+            return 0;
         }
-        return get(x, y, z, flag);
+        return region[(z * regionSize + y % regionSize) * regionSize + x % regionSize] & 0xFF;
     }
 
-    public boolean isBlocked(final WorldPoint point) {
-        if (point == null) {
-            return true;
+    /**
+     * Builds the walkability table of a region, and so decompresses the flags of it and its neighbors, ahead of
+     * the first search using it. Mapped maps have nothing to build.
+     */
+    public void preloadRegion(final int regionX, final int regionY) {
+        if (mappedFlags == null && regionX >= 0 && regionY >= 0 && regionX < regionsPerAxis && regionY < regionsPerAxis) {
+            getRegionWalkableDirections(regionX, regionY);
         }
-        return isBlocked(point.getX(), point.getY(), point.getPlane());
     }
 
-    public boolean isBlocked(final int x, final int y, final int z) {
-        return Stream.of(OrdinalDirection.values()).noneMatch(dir -> checkDirection(x, y, z, dir));
+    private byte[] getRegionWalkableDirections(final int regionX, final int regionY) {
+        final int regionIndex = regionX * regionsPerAxis + regionY;
+        byte[] region = walkableDirections.get(regionIndex);
+        if (region == null) {
+            // Concurrent builds of the same region produce identical tables, so the first one stored wins
+            region = computeWalkableDirections(regionX, regionY);
+            if (!walkableDirections.compareAndSet(regionIndex, null, region)) {
+                region = walkableDirections.get(regionIndex);
+            }
+        }
+        return region;
+    }
+
+    private byte[] computeWalkableDirections(final int regionX, final int regionY) {
+        final byte[] region = new byte[regionSize * regionSize * FlagMap.PLANE_COUNT];
+        boolean hasWalkableTile = false;
+
+        // Cardinal directions of the region and a border of one tile around it, as diagonals depend on the
+        // cardinal directions of the neighboring tiles
+        final int minX = regionX * regionSize - 1;
+        final int minY = regionY * regionSize - 1;
+        final int width = regionSize + 2;
+        final byte[] cardinals = new byte[width * width];
+
+        int index = 0;
+        for (int z = 0; z < FlagMap.PLANE_COUNT; ++z) {
+            for (int y = 0; y < width; ++y) {
+                for (int x = 0; x < width; ++x) {
+                    cardinals[y * width + x] = (byte) cardinalDirections(minX + x, minY + y, z);
+                }
+            }
+
+            for (int y = 1; y <= regionSize; ++y) {
+                for (int x = 1; x <= regionSize; ++x) {
+                    final int walkable = walkableDirections(cardinals, width, x, y);
+                    region[index++] = (byte) walkable;
+                    hasWalkableTile |= (walkable != 0);
+                }
+            }
+        }
+        return (hasWalkableTile ? region : NO_WALKABLE_DIRECTIONS);
+    }
+
+    private int cardinalDirections(final int x, final int y, final int z) {
+        // Flag 0 is movement between a tile and the tile north of it, flag 1 between a tile and the tile east of it
+        int directions = 0;
+        if (get(x, y, z, 0)) {
+            directions |= NORTH;
+        }
+        if (get(x, y, z, 1)) {
+            directions |= EAST;
+        }
+        if (get(x, y - 1, z, 0)) {
+            directions |= SOUTH;
+        }
+        if (get(x - 1, y, z, 1)) {
+            directions |= WEST;
+        }
+        return directions;
+    }
+
+    private static int walkableDirections(final byte[] cardinals, final int width, final int x, final int y) {
+        final int current = cardinals[y * width + x];
+        int walkable = current;
+
+        // Diagonal cases, check that both WorldPoint traversals possible. For example:
+        // To go South-East, both:
+        //  (current_tile to South) -> (south_tile to East)
+        //  (current_tile to East) -> (east_tile to South)
+        // Like movement north, a diagonal also requires flag 0 of the current tile.
+        if ((current & NORTH) == 0) {
+            return walkable;
+        }
+        for (int i = 0; i < DIAGONALS.length; ++i) {
+            final int horizontal = DIAGONAL_HORIZONTAL[i];
+            final int vertical = DIAGONAL_VERTICAL[i];
+            final int dx = (horizontal == EAST ? 1 : -1);
+            final int dy = (vertical == NORTH ? 1 : -1);
+            final boolean horizontalPossible = (current & horizontal) != 0 && (cardinals[y * width + x + dx] & vertical) != 0;
+            final boolean verticalPossible = (current & vertical) != 0 && (cardinals[(y + dy) * width + x] & horizontal) != 0;
+            if (horizontalPossible && verticalPossible) {
+                walkable |= DIAGONALS[i];
+            }
+        }
+        return walkable;
     }
 
     public static CollisionMap fromFile(final Path filepath) {
+        return new CollisionMap(64, readCompressedRegions(filepath));
+    }
+
+    /**
+     * Collision map from a file written by toMappedFile, which is read from disk rather than from the resources as
+     * it has to be memory-mapped.
+     */
+    public static CollisionMap fromMappedFile(final Path filepath) {
+        return new CollisionMap(MappedFlagMap.fromFile(filepath));
+    }
+
+    /**
+     * Writes the regions of a collision-map.zip as a file for fromMappedFile, with the walkability tables of all
+     * regions so that the mapped map doesn't build them on the heap.
+     */
+    public static void toMappedFile(final Path filepath, final Map<SplitFlagMap.Position, byte[]> compressedRegions) {
+        final CollisionMap collisionMap = new CollisionMap(64, compressedRegions);
+        MappedFlagMap.toFile(filepath, 64, compressedRegions, 2, (regionX, regionY) -> {
+            final byte[] region = collisionMap.computeWalkableDirections(regionX, regionY);
+            return (region == NO_WALKABLE_DIRECTIONS ? null : region);
+        });
+    }
+
+    public static Map<SplitFlagMap.Position, byte[]> readCompressedRegions(final Path filepath) {
         Map<SplitFlagMap.Position, byte[]> compressedRegions = new HashMap<>();
         try (ZipInputStream in = new ZipInputStream(ShortestPathPlugin.class.getResourceAsStream(Util.pathToResourcePath(filepath)))) {
             ZipEntry entry;
@@ -83,6 +230,6 @@ public class CollisionMap extends SplitFlagMap {
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-        return new CollisionMap(64, compressedRegions);
+        return compressedRegions;
     }
 }
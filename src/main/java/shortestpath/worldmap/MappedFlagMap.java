@@ -0,0 +1,276 @@
+package shortestpath.worldmap;
+
+import shortestpath.utils.Util;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Flags of all regions stored uncompressed in a file which is memory-mapped, so reading a flag is a single byte read
+ * without decompressing or caching regions on the heap. Optionally the file also holds a table of one byte per tile
+ * for each region, computed from the flags when writing it, which is read the same way.
+ *
+ * The file starts with a header page:
+ *   int magic, int version, int regionSize, int flagCount, int hasTables, int minRegionX, int minRegionY,
+ *   int regionCountX, int regionCountY, followed by two ints per region (x-major) holding the pages the flags and
+ *   the table of the region are stored at, 0 for regions without any flag set or without a table.
+ * The header is padded to a whole page, followed by the page-aligned blocks of the regions. A flags block holds the
+ * bits of the region in the same order as FlagMap, bit i in byte (i / 8) at position (i % 8). A table block holds
+ * the byte of tile (x, y, z) of the region at ((z * regionSize + y) * regionSize + x).
+ */
+public class MappedFlagMap {
+    public static final int PAGE_SIZE = 4096;
+    private static final int FILE_MAGIC = 0x434D4150; // "CMAP"
+    private static final int FILE_VERSION = 2;
+    private static final int HEADER_SIZE = 9 * Integer.BYTES;
+    private static final int REGION_ENTRY_SIZE = 2 * Integer.BYTES;
+    private static final int NO_PAGE = 0;
+
+    public interface RegionTableSource {
+        // Table of one byte per tile of the region, or null when all of them are 0
+        @Nullable
+        byte[] getTable(int regionX, int regionY);
+    }
+
+    private final ByteBuffer buffer;
+    private final int regionSize;
+    private final int flagCount;
+    private final boolean hasTables;
+    private final int minRegionX;
+    private final int minRegionY;
+    private final int regionCountX;
+    private final int regionCountY;
+
+    private MappedFlagMap(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != FILE_MAGIC) {
+            throw new RuntimeException("Not a mapped collision map file");
+        }
+        final int version = buffer.getInt(Integer.BYTES);
+        if (version != FILE_VERSION) {
+            throw new RuntimeException("Unsupported mapped collision map version: " + version);
+        }
+        this.regionSize = buffer.getInt(2 * Integer.BYTES);
+        this.flagCount = buffer.getInt(3 * Integer.BYTES);
+        this.hasTables = buffer.getInt(4 * Integer.BYTES) != 0;
+        this.minRegionX = buffer.getInt(5 * Integer.BYTES);
+        this.minRegionY = buffer.getInt(6 * Integer.BYTES);
+        this.regionCountX = buffer.getInt(7 * Integer.BYTES);
+        this.regionCountY = buffer.getInt(8 * Integer.BYTES);
+    }
+
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    public int getFlagCount() {
+        return flagCount;
+    }
+
+    public boolean hasTables() {
+        return hasTables;
+    }
+
+    /**
+     * Regions of which any flag may be set
+     */
+    public Set<SplitFlagMap.Position> getRegions() {
+        final Set<SplitFlagMap.Position> regions = new HashSet<>();
+        for (int regionX = 0; regionX < regionCountX; ++regionX) {
+            for (int regionY = 0; regionY < regionCountY; ++regionY) {
+                if (buffer.getInt(regionEntry(regionX, regionY)) != NO_PAGE) {
+                    regions.add(new SplitFlagMap.Position(minRegionX + regionX, minRegionY + regionY));
+                }
+            }
+        }
+        return regions;
+    }
+
+    public boolean get(final int x, final int y, final int z, final int flag) {
+        final int page = getPage(x, y, z, 0);
+        if (page == NO_PAGE) {
+            return false;
+        }
+
+        final int bit = ((z * regionSize + y % regionSize) * regionSize + x % regionSize) * flagCount + flag;
+        return (buffer.get(page * PAGE_SIZE + (bit >>> 3)) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * Byte of the tile in the table of its region, 0 when the region has no table.
+     */
+    public int getTableValue(final int x, final int y, final int z) {
+        final int page = getPage(x, y, z, Integer.BYTES);
+        if (page == NO_PAGE) {
+            return 0;
+        }
+        return buffer.get(page * PAGE_SIZE + (z * regionSize + y % regionSize) * regionSize + x % regionSize) & 0xFF;
+    }
+
+    // Page at the offset into the header entry of the tile's region, NO_PAGE outside the regions of the file
+    private int getPage(final int x, final int y, final int z, final int entryOffset) {
+        if (x < 0 || y < 0 || z < 0 || z >= FlagMap.PLANE_COUNT) {
+            return NO_PAGE;
+        }
+
+        final int regionX = x / regionSize - minRegionX;
+        final int regionY = y / regionSize - minRegionY;
+        if (regionX < 0 || regionY < 0 || regionX >= regionCountX || regionY >= regionCountY) {
+            return NO_PAGE;
+        }
+        return buffer.getInt(regionEntry(regionX, regionY) + entryOffset);
+    }
+
+    private int regionEntry(final int regionX, final int regionY) {
+        return HEADER_SIZE + (regionX * regionCountY + regionY) * REGION_ENTRY_SIZE;
+    }
+
+    public static MappedFlagMap fromFile(final Path filepath) {
+        try (final FileChannel channel = FileChannel.open(filepath, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedFlagMap(buffer);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the regions of a collision-map.zip (see CollisionMap.readCompressedRegions) as a file which can be mapped
+     * by fromFile.
+     */
+    public static void toFile(final Path filepath, final int regionSize, final Map<SplitFlagMap.Position, byte[]> compressedRegions,
+                              final int flagCount) {
+        toFile(filepath, regionSize, compressedRegions, flagCount, null);
+    }
+
+    /**
+     * Writes the regions like toFile, with the tables of the source. Tiles of the regions just past the highest
+     * regions may depend on flags of their neighbors, so those regions get tables as well.
+     */
+    public static void toFile(final Path filepath, final int regionSize, final Map<SplitFlagMap.Position, byte[]> compressedRegions,
+                              final int flagCount, @Nullable final RegionTableSource tables) {
+        int minRegionX = Integer.MAX_VALUE;
+        int minRegionY = Integer.MAX_VALUE;
+        int maxRegionX = Integer.MIN_VALUE;
+        int maxRegionY = Integer.MIN_VALUE;
+        for (final SplitFlagMap.Position position : compressedRegions.keySet()) {
+            minRegionX = Math.min(minRegionX, position.x);
+            minRegionY = Math.min(minRegionY, position.y);
+            maxRegionX = Math.max(maxRegionX, position.x);
+            maxRegionY = Math.max(maxRegionY, position.y);
+        }
+        if (compressedRegions.isEmpty()) {
+            minRegionX = minRegionY = 0;
+            maxRegionX = maxRegionY = -1;
+        }
+        else if (tables != null) {
+            ++maxRegionX;
+            ++maxRegionY;
+        }
+        final int regionCountX = maxRegionX - minRegionX + 1;
+        final int regionCountY = maxRegionY - minRegionY + 1;
+        final int headerPages = pageCount(HEADER_SIZE + regionCountX * regionCountY * REGION_ENTRY_SIZE);
+        final int regionBlockSize = regionBlockSize(regionSize, flagCount);
+        final int regionPages = regionBlockSize / PAGE_SIZE;
+        final int tableBlockSize = pageCount(regionSize * regionSize * FlagMap.PLANE_COUNT) * PAGE_SIZE;
+        final int tablePages = tableBlockSize / PAGE_SIZE;
+
+        final ByteBuffer header = ByteBuffer.allocate(headerPages * PAGE_SIZE);
+        header.putInt(FILE_MAGIC);
+        header.putInt(FILE_VERSION);
+        header.putInt(regionSize);
+        header.putInt(flagCount);
+        header.putInt(tables != null ? 1 : 0);
+        header.putInt(minRegionX);
+        header.putInt(minRegionY);
+        header.putInt(regionCountX);
+        header.putInt(regionCountY);
+
+        try (final FileChannel channel = FileChannel.open(filepath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int nextPage = headerPages;
+            for (int regionX = minRegionX; regionX <= maxRegionX; ++regionX) {
+                for (int regionY = minRegionY; regionY <= maxRegionY; ++regionY) {
+                    final byte[] compressedRegion = compressedRegions.get(new SplitFlagMap.Position(regionX, regionY));
+                    final ByteBuffer block = (compressedRegion == null ? null :
+                            readRegionBlock(compressedRegion, regionX, regionY, regionSize, regionBlockSize));
+                    if (block == null) {
+                        header.putInt(NO_PAGE);
+                    }
+                    else {
+                        header.putInt(nextPage);
+                        channel.write(block, (long) nextPage * PAGE_SIZE);
+                        nextPage += regionPages;
+                    }
+
+                    final byte[] table = (tables == null ? null : tables.getTable(regionX, regionY));
+                    if (table == null) {
+                        header.putInt(NO_PAGE);
+                    }
+                    else {
+                        header.putInt(nextPage);
+                        channel.write(ByteBuffer.wrap(table), (long) nextPage * PAGE_SIZE);
+                        nextPage += tablePages;
+                    }
+                }
+            }
+
+            header.rewind();
+            channel.write(header, 0);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Region flags as a block of whole pages, or null when no flag of the region is set
+    private static ByteBuffer readRegionBlock(final byte[] compressedRegion, final int regionX, final int regionY,
+                                             final int regionSize, final int regionBlockSize) throws IOException {
+        final byte[] bytes;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedRegion))) {
+            bytes = Util.readAllBytes(in);
+        }
+
+        // Same layout as read by FlagMap, the bits follow the region bounds
+        final ByteBuffer region = ByteBuffer.wrap(bytes);
+        final int minX = region.getInt();
+        final int minY = region.getInt();
+        final int maxX = region.getInt();
+        final int maxY = region.getInt();
+        if (minX != regionX * regionSize || minY != regionY * regionSize ||
+                maxX - minX + 1 != regionSize || maxY - minY + 1 != regionSize) {
+            throw new RuntimeException("Region " + regionX + "_" + regionY + " doesn't cover exactly one region");
+        }
+
+        final ByteBuffer block = ByteBuffer.allocate(regionBlockSize);
+        boolean hasFlagSet = false;
+        while (region.hasRemaining() && block.hasRemaining()) {
+            final byte flags = region.get();
+            hasFlagSet |= (flags != 0);
+            block.put(flags);
+        }
+        block.rewind();
+        return (hasFlagSet ? block : null);
+    }
+
+    private static int regionBlockSize(final int regionSize, final int flagCount) {
+        final int bits = regionSize * regionSize * FlagMap.PLANE_COUNT * flagCount;
+        return pageCount((bits + 7) / 8) * PAGE_SIZE;
+    }
+
+    private static int pageCount(final int bytes) {
+        return (bytes + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+}
@@ -1,53 +1,100 @@
 package shortestpath.worldmap;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.Weigher;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import shortestpath.utils.Util;
+import shortestpath.utils.WorldPointUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.zip.GZIPInputStream;
 
 public abstract class SplitFlagMap {
-    private static final int MAXIMUM_SIZE = 20 * 1024 * 1024;
+    // Shared by all regions without a compressed region, none of their flags are set
+    private static final FlagMap NO_FLAGS = new FlagMap(0, 0, -1, -1, 0);
+
     private final int regionSize;
-    private final LoadingCache<Position, FlagMap> regionMaps;
+    private final int regionsPerAxis;
     private final int flagCount;
+    private final Map<Position, byte[]> compressedRegions;
+    // Decompressed regions indexed by (regionX * regionsPerAxis + regionY), published with compareAndSet the first
+    // time a region is used so that lookups never lock
+    private final AtomicReferenceArray<FlagMap> regionMaps;
+    // When set, flags are read from the mapped file instead of decompressing regions into regionMaps
+    private final MappedFlagMap mappedFlags;
 
     public SplitFlagMap(int regionSize, Map<Position, byte[]> compressedRegions, int flagCount) {
         this.regionSize = regionSize;
+        this.regionsPerAxis = (WorldPointUtil.MAX_COORDINATE + regionSize) / regionSize;
         this.flagCount = flagCount;
-        regionMaps = CacheBuilder
-                .newBuilder()
-                .weigher((Weigher<Position, FlagMap>) (k, v) -> v.flags.size() / 8)
-                .maximumWeight(MAXIMUM_SIZE)
-                .build(CacheLoader.from(position -> {
-                    byte[] compressedRegion = compressedRegions.get(position);
-
-                    if (compressedRegion == null) {
-                        return new FlagMap(position.x * regionSize, position.y * regionSize, (position.x + 1) * regionSize - 1, (position.y + 1) * regionSize - 1, this.flagCount);
-                    }
-
-                    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedRegion))) {
-                        return new FlagMap(Util.readAllBytes(in), this.flagCount);
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                }));
+        this.compressedRegions = compressedRegions;
+        this.regionMaps = new AtomicReferenceArray<>(regionsPerAxis * regionsPerAxis);
+        this.mappedFlags = null;
+    }
+
+    public SplitFlagMap(final MappedFlagMap mappedFlags) {
+        this.regionSize = mappedFlags.getRegionSize();
+        this.regionsPerAxis = 0;
+        this.flagCount = mappedFlags.getFlagCount();
+        this.compressedRegions = null;
+        this.regionMaps = null;
+        this.mappedFlags = mappedFlags;
     }
 
     public boolean get(int x, int y, int z, int flag) {
-        try {
-            return regionMaps.get(new Position(x / regionSize, y / regionSize)).get(x, y, z, flag);
-        } catch (ExecutionException e) {
-            throw new UncheckedExecutionException(e);
+        if (mappedFlags != null) {
+            return mappedFlags.get(x, y, z, flag);
+        }
+
+        if (x < 0 || y < 0) {
+            return false;
+        }
+        final int regionX = x / regionSize;
+        final int regionY = y / regionSize;
+        if (regionX >= regionsPerAxis || regionY >= regionsPerAxis) {
+            return false;
+        }
+
+        final int regionIndex = regionX * regionsPerAxis + regionY;
+        FlagMap region = regionMaps.get(regionIndex);
+        if (region == null) {
+            // Concurrent loads of the same region are identical, so the first one stored wins
+            region = loadRegion(regionX, regionY);
+            if (!regionMaps.compareAndSet(regionIndex, null, region)) {
+                region = regionMaps.get(regionIndex);
+            }
+        }
+        return region != NO_FLAGS && region.get(x, y, z, flag);
+    }
+
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Regions of which any flag may be set
+     */
+    public Set<Position> getRegions() {
+        if (mappedFlags != null) {
+            return mappedFlags.getRegions();
+        }
+        return Collections.unmodifiableSet(compressedRegions.keySet());
+    }
+
+    private FlagMap loadRegion(final int regionX, final int regionY) {
+        final byte[] compressedRegion = compressedRegions.get(new Position(regionX, regionY));
+        if (compressedRegion == null) {
+            return NO_FLAGS;
+        }
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedRegion))) {
+            return new FlagMap(Util.readAllBytes(in), flagCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
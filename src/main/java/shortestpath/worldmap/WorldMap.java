@@ -1,28 +1,45 @@
 package shortestpath.worldmap;
 
+import lombok.Getter;
+import lombok.Setter;
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.DistanceHeuristic;
+import shortestpath.pathfinder.HeuristicProvider;
 import shortestpath.pathfinder.Node;
 import shortestpath.utils.OrdinalDirection;
 import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.TransportTable;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.hierarchy.ContractionHierarchy;
+import shortestpath.worldmap.sections.TransportDistances;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Predicate;
 
 public class WorldMap {
     private final CollisionMap collisionMap;
-    private final Map<WorldPoint, List<Transport>> transports;
     private final List<Transport> allTransports;
+    // Rebuilt when a transport is added, which is rare compared to lookups during searches
+    private volatile TransportTable transportsByOrigin;
+    private volatile TransportTable transportsByDestination;
+    @Getter
+    @Setter
+    private volatile HeuristicProvider heuristicProvider = DistanceHeuristic::new;
+    // Null when there's none for the collision map and transports
+    @Getter
+    @Setter
+    private volatile ContractionHierarchy contractionHierarchy = null;
+    // Null when there's none, pairs of transports added later are unknown to it but its distances stay valid
+    @Getter
+    @Setter
+    private volatile TransportDistances transportDistances = null;
 
-    WorldMap(final CollisionMap map, final Map<WorldPoint, List<Transport>> transports) {
+    WorldMap(final CollisionMap map, final TransportTable transports) {
         this.collisionMap = map;
-        this.transports = transports;
-
-        this.allTransports = new ArrayList<>();
-        for (List<Transport> list : transports.values()) {
-            allTransports.addAll(list);
-        }
+        this.allTransports = new ArrayList<>(transports.getTransports());
+        this.transportsByOrigin = transports;
+        this.transportsByDestination = TransportTable.byDestination(allTransports);
     }
 
     public List<Transport> getTransports() {
@@ -30,7 +47,19 @@ public class WorldMap {
     }
 
     public List<Transport> getTransports(final WorldPoint point) {
-        return transports.getOrDefault(point, new ArrayList<>());
+        return getTransports(WorldPointUtil.packWorldPoint(point));
+    }
+
+    public List<Transport> getTransports(final int packedPoint) {
+        return transportsByOrigin.get(packedPoint);
+    }
+
+    public List<Transport> getTransportsTo(final WorldPoint destination) {
+        return getTransportsTo(WorldPointUtil.packWorldPoint(destination));
+    }
+
+    public List<Transport> getTransportsTo(final int packedDestination) {
+        return transportsByDestination.get(packedDestination);
     }
 
     public void addTransport(final Transport transport) {
@@ -39,17 +68,29 @@ public class WorldMap {
         }
 
         allTransports.add(transport);
-        transports.computeIfAbsent(transport.getOrigin(), k -> new ArrayList<>()).add(transport);
+        transportsByOrigin = TransportTable.byOrigin(allTransports);
+        transportsByDestination = TransportTable.byDestination(allTransports);
+        // Precomputed heuristics don't know of the new transport and may overestimate
+        heuristicProvider = DistanceHeuristic::new;
+        contractionHierarchy = null;
     }
 
     public boolean isBlocked(final WorldPoint point) {
         return collisionMap.isBlocked(point);
     }
 
+    public boolean isBlocked(final int x, final int y, final int plane) {
+        return collisionMap.isBlocked(x, y, plane);
+    }
+
     public boolean checkDirection(final WorldPoint point, final OrdinalDirection dir) {
         return collisionMap.checkDirection(point, dir);
     }
 
+    public boolean checkDirection(final int x, final int y, final int plane, final OrdinalDirection dir) {
+        return collisionMap.checkDirection(x, y, plane, dir);
+    }
+
     public List<Node> getNeighborNodes(final Node node, final Predicate<Node> nodePredicate) {
 
         return new ArrayList<>();
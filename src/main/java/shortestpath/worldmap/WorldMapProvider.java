@@ -2,27 +2,140 @@ package shortestpath.worldmap;
 
 import lombok.Getter;
 import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.LandmarkDistances;
 import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.TransportTable;
+import shortestpath.utils.Util;
+import shortestpath.worldmap.hierarchy.ContractionHierarchy;
+import shortestpath.worldmap.sections.TransportDistances;
 
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 public class WorldMapProvider {
     private static final Path DEFAULT_COLLISION_MAP_PATH = Paths.get("src/main/resources/collision-map.zip");
     private static final Path DEFAULT_TRANSPORTS_PATH = Paths.get("src/main/resources/transports.txt");
+    // DEFAULT_TRANSPORTS_PATH compiled by the compileTransports build task
+    private static final String COMPILED_TRANSPORTS_RESOURCE = "/transports.bin";
+    // Generated by GenerateLandmarkDistances for the default collision map and transports, optional
+    private static final Path DEFAULT_LANDMARK_DISTANCES_PATH = Paths.get("src/main/resources/landmark-distances.zip");
+    // Generated by GenerateTransportDistances for the default collision map and transports, optional
+    public static final Path DEFAULT_TRANSPORT_DISTANCES_PATH = Paths.get("src/main/resources/transport-distances.zip");
+    // Generated by GenerateContractionHierarchy for the default collision map and transports, optional
+    public static final Path DEFAULT_CONTRACTION_HIERARCHY_PATH = Paths.get("src/main/resources/contraction-hierarchy.gz");
+
+    public interface PreloadProgressListener {
+        void onProgress(int loadedRegions, int totalRegions);
+    }
 
     @Getter
     final private WorldMap worldMap;
+    @Getter
+    private final CollisionMap collisionMap;
+    // Amount of transports when loaded from DEFAULT_TRANSPORTS_PATH, -1 for other transports
+    private final int defaultTransportCount;
+    private boolean contractionHierarchyLoaded = false;
 
     public WorldMapProvider() {
         this(DEFAULT_COLLISION_MAP_PATH, DEFAULT_TRANSPORTS_PATH);
     }
 
     public WorldMapProvider(final Path collisionMapPath, final Path transportsPath) {
-        final CollisionMap map = CollisionMap.fromFile(collisionMapPath);
-        final Map<WorldPoint, List<Transport>> transports = Transport.fromFile(transportsPath);
-        this.worldMap = new WorldMap(map, transports);
+        this(CollisionMap.fromFile(collisionMapPath), transportsPath);
+    }
+
+    public WorldMapProvider(final CollisionMap collisionMap, final Path transportsPath) {
+        this.collisionMap = collisionMap;
+        this.worldMap = new WorldMap(collisionMap, loadTransports(transportsPath));
+
+        if (DEFAULT_TRANSPORTS_PATH.equals(transportsPath) &&
+                WorldMapProvider.class.getResource(Util.pathToResourcePath(DEFAULT_LANDMARK_DISTANCES_PATH)) != null) {
+            worldMap.setHeuristicProvider(LandmarkDistances.fromFile(DEFAULT_LANDMARK_DISTANCES_PATH));
+        }
+        if (DEFAULT_TRANSPORTS_PATH.equals(transportsPath) &&
+                WorldMapProvider.class.getResource(Util.pathToResourcePath(DEFAULT_TRANSPORT_DISTANCES_PATH)) != null) {
+            worldMap.setTransportDistances(TransportDistances.fromFile(DEFAULT_TRANSPORT_DISTANCES_PATH));
+        }
+        // Hundreds of megabytes for the whole map, so only loaded once a search asks for it
+        this.defaultTransportCount = (DEFAULT_TRANSPORTS_PATH.equals(transportsPath) ? worldMap.getTransports().size() : -1);
+    }
+
+    /**
+     * The precomputed hierarchy of the default collision map and transports, loaded on the first call. Null when
+     * there's none, or when a transport was added since, which the hierarchy doesn't know of.
+     */
+    @Nullable
+    public synchronized ContractionHierarchy getContractionHierarchy() {
+        if (!contractionHierarchyLoaded) {
+            contractionHierarchyLoaded = true;
+            if (worldMap.getTransports().size() == defaultTransportCount &&
+                    WorldMapProvider.class.getResource(Util.pathToResourcePath(DEFAULT_CONTRACTION_HIERARCHY_PATH)) != null) {
+                worldMap.setContractionHierarchy(ContractionHierarchy.fromFile(DEFAULT_CONTRACTION_HIERARCHY_PATH));
+            }
+        }
+        return worldMap.getContractionHierarchy();
+    }
+
+    private static TransportTable loadTransports(final Path transportsPath) {
+        if (DEFAULT_TRANSPORTS_PATH.equals(transportsPath)) {
+            final InputStream compiledTransports = WorldMapProvider.class.getResourceAsStream(COMPILED_TRANSPORTS_RESOURCE);
+            if (compiledTransports != null) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(compiledTransports))) {
+                    return TransportTable.read(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        // Not built by the build, e.g. when run from an IDE without it
+        return TransportTable.byOrigin(Transport.fromFile(transportsPath));
+    }
+
+    // Collision map from a file converted by CollisionMap.toMappedFile, with the default transports
+    public static WorldMapProvider fromMappedCollisionMap(final Path mappedCollisionMapPath) {
+        return new WorldMapProvider(CollisionMap.fromMappedFile(mappedCollisionMapPath), DEFAULT_TRANSPORTS_PATH);
+    }
+
+    public CompletableFuture<Long> preloadRegions(final ForkJoinPool pool, final PreloadProgressListener listener) {
+        return preloadRegions(null, 0, pool, listener);
+    }
+
+    /**
+     * Decompresses the regions of the collision map and builds their walkability tables on the pool, so the first
+     * searches run as fast as later ones. When a center is given only regions at most regionRadius regions away
+     * from it are loaded. Completes with the time taken in milliseconds.
+     */
+    public CompletableFuture<Long> preloadRegions(@Nullable final WorldPoint center, final int regionRadius,
+                                                  final ForkJoinPool pool, final PreloadProgressListener listener) {
+        final int regionSize = collisionMap.getRegionSize();
+        final List<SplitFlagMap.Position> regions = collisionMap.getRegions().stream()
+                .filter(region -> center == null ||
+                        (Math.abs(region.x - center.getX() / regionSize) <= regionRadius &&
+                         Math.abs(region.y - center.getY() / regionSize) <= regionRadius))
+                .collect(Collectors.toList());
+
+        final long startTime = System.nanoTime();
+        final AtomicInteger loadedRegions = new AtomicInteger();
+        final CompletableFuture<?>[] loads = regions.stream()
+                .map(region -> CompletableFuture.runAsync(() -> {
+                    collisionMap.preloadRegion(region.x, region.y);
+                    listener.onProgress(loadedRegions.incrementAndGet(), regions.size());
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(loads)
+                .thenApply(ignored -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
     }
 }
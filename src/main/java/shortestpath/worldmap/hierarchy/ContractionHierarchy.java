@@ -0,0 +1,408 @@
+package shortestpath.worldmap.hierarchy;
+
+import shortestpath.utils.Util;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Contraction hierarchy of the tile graph, built offline by ContractionHierarchyBuilder. Nodes are tiles, sorted by
+ * packed point (see WorldPointUtil), and each node only keeps its edges to nodes contracted after it: upward edges
+ * leaving it and upward edges arriving at it. A shortest path is found by a search upward from the start and one
+ * upward from the target, against the arriving edges, which meet at the highest node of the path. Shortcuts are
+ * then unpacked through the node they were contracted over.
+ */
+public class ContractionHierarchy {
+    static final int EDGE_SIZE = 3;
+    static final int NO_MIDDLE = -1;
+    private static final int FILE_MAGIC = 0x43484945; // "CHIE"
+    private static final int FILE_VERSION = 2;
+
+    private final int[] points;
+    // Nodes left uncontracted by ContractionHierarchyBuilder, whose searches cost most of a query
+    private final int coreNodeCount;
+    // Edges of node i are at [first[i], first[i + 1]) as (other node, cost, middle node) triples
+    private final int[] outFirst;
+    private final int[] outEdges;
+    private final int[] inFirst;
+    private final int[] inEdges;
+
+    private ContractionHierarchy(final int[] points, final int coreNodeCount, final int[] outFirst, final int[] outEdges,
+                                 final int[] inFirst, final int[] inEdges) {
+        this.points = points;
+        this.coreNodeCount = coreNodeCount;
+        this.outFirst = outFirst;
+        this.outEdges = outEdges;
+        this.inFirst = inFirst;
+        this.inEdges = inEdges;
+    }
+
+    static ContractionHierarchy fromUpwardEdges(final int[] points, final int coreNodeCount,
+                                                final int[][] upwardOutEdges, final int[][] upwardInEdges) {
+        final int[] outFirst = new int[points.length + 1];
+        final int[] inFirst = new int[points.length + 1];
+        for (int node = 0; node < points.length; ++node) {
+            outFirst[node + 1] = outFirst[node] + upwardOutEdges[node].length;
+            inFirst[node + 1] = inFirst[node] + upwardInEdges[node].length;
+        }
+
+        final int[] outEdges = new int[outFirst[points.length]];
+        final int[] inEdges = new int[inFirst[points.length]];
+        for (int node = 0; node < points.length; ++node) {
+            System.arraycopy(upwardOutEdges[node], 0, outEdges, outFirst[node], upwardOutEdges[node].length);
+            System.arraycopy(upwardInEdges[node], 0, inEdges, inFirst[node], upwardInEdges[node].length);
+        }
+        return new ContractionHierarchy(points, coreNodeCount, outFirst, outEdges, inFirst, inEdges);
+    }
+
+    public int getNodeCount() {
+        return points.length;
+    }
+
+    public int getCoreNodeCount() {
+        return coreNodeCount;
+    }
+
+    public int getEdgeCount() {
+        return (outEdges.length + inEdges.length) / EDGE_SIZE;
+    }
+
+    public boolean contains(final int packedPoint) {
+        return Arrays.binarySearch(points, packedPoint) >= 0;
+    }
+
+    /**
+     * Packed points of a shortest path from start to target, including both, or null when either isn't in the
+     * hierarchy or the target can't be reached.
+     */
+    @Nullable
+    public int[] findPath(final int packedStart, final int packedTarget) {
+        final int start = Arrays.binarySearch(points, packedStart);
+        final int target = Arrays.binarySearch(points, packedTarget);
+        if (start < 0 || target < 0) {
+            return null;
+        }
+        if (start == target) {
+            return new int[]{packedStart};
+        }
+
+        final Search forward = new Search(start);
+        final Search backward = new Search(target);
+        int bestCost = Integer.MAX_VALUE;
+        int meetingNode = -1;
+        while (true) {
+            final boolean forwardDone = forward.isDone(bestCost);
+            final boolean backwardDone = backward.isDone(bestCost);
+            if (forwardDone && backwardDone) {
+                break;
+            }
+
+            final boolean expandForward = !forwardDone && (backwardDone || forward.peekCost() <= backward.peekCost());
+            final Search search = (expandForward ? forward : backward);
+            final Search other = (expandForward ? backward : forward);
+            final int node = (expandForward ?
+                    search.settle(outFirst, outEdges, inFirst, inEdges) :
+                    search.settle(inFirst, inEdges, outFirst, outEdges));
+            if (node < 0) {
+                continue;
+            }
+
+            final int otherCost = other.getCost(node);
+            if (otherCost != Integer.MAX_VALUE && search.getCost(node) + otherCost < bestCost) {
+                bestCost = search.getCost(node) + otherCost;
+                meetingNode = node;
+            }
+        }
+
+        if (meetingNode < 0) {
+            return null;
+        }
+
+        final IntList path = new IntList();
+        path.add(start);
+        appendPath(path, forward.getEdgesTo(meetingNode), true);
+        appendPath(path, backward.getEdgesTo(meetingNode), false);
+
+        final int[] packedPath = new int[path.size()];
+        for (int i = 0; i < packedPath.length; ++i) {
+            packedPath[i] = points[path.get(i)];
+        }
+        return packedPath;
+    }
+
+    /**
+     * Appends the unpacked nodes of a chain of search edges, as (from, to, middle) triples in the order found by
+     * the search. Backward search edges are walked from the meeting node to the target.
+     */
+    private void appendPath(final IntList path, final IntList searchEdges, final boolean forward) {
+        final int edgeCount = searchEdges.size() / EDGE_SIZE;
+        for (int i = 0; i < edgeCount; ++i) {
+            final int edge = (forward ? edgeCount - 1 - i : i) * EDGE_SIZE;
+            final int from = searchEdges.get(edge);
+            final int to = searchEdges.get(edge + 1);
+            final int middle = searchEdges.get(edge + 2);
+            if (forward) {
+                unpack(path, from, to, middle);
+            }
+            else {
+                unpack(path, to, from, middle);
+            }
+        }
+    }
+
+    // Appends the nodes after source on the path of the edge from source to target
+    private void unpack(final IntList path, final int source, final int target, final int middle) {
+        final IntList stack = new IntList();
+        stack.add(source);
+        stack.add(target);
+        stack.add(middle);
+        while (stack.size() > 0) {
+            final int edgeMiddle = stack.pop();
+            final int edgeTarget = stack.pop();
+            final int edgeSource = stack.pop();
+            if (edgeMiddle == NO_MIDDLE) {
+                path.add(edgeTarget);
+                continue;
+            }
+
+            // The middle node was contracted first, so both halves are upward edges of it. Push the second half
+            // first so the first half is unpacked first.
+            stack.add(edgeMiddle);
+            stack.add(edgeTarget);
+            stack.add(findMiddle(outFirst, outEdges, edgeMiddle, edgeTarget));
+            stack.add(edgeSource);
+            stack.add(edgeMiddle);
+            stack.add(findMiddle(inFirst, inEdges, edgeMiddle, edgeSource));
+        }
+    }
+
+    private static int findMiddle(final int[] first, final int[] edges, final int node, final int other) {
+        for (int i = first[node]; i < first[node + 1]; i += EDGE_SIZE) {
+            if (edges[i] == other) {
+                return edges[i + 2];
+            }
+        }
+        throw new IllegalStateException("Missing edge of shortcut between nodes " + node + " and " + other);
+    }
+
+    /**
+     * One direction of the query, settling nodes in order of cost along upward edges.
+     */
+    private static class Search {
+        private final NodeTable nodes = new NodeTable();
+        private final LongHeap heap = new LongHeap();
+
+        Search(final int source) {
+            nodes.put(source, 0, -1, NO_MIDDLE);
+            heap.add(0, source);
+        }
+
+        boolean isDone(final int bestCost) {
+            return heap.isEmpty() || heap.peekKey() >= bestCost;
+        }
+
+        int peekCost() {
+            return (heap.isEmpty() ? Integer.MAX_VALUE : heap.peekKey());
+        }
+
+        int getCost(final int node) {
+            return nodes.getCost(node);
+        }
+
+        /**
+         * Settles the cheapest queued node and relaxes its edges, returns -1 when the node was already settled
+         * at a lower cost or is stalled.
+         */
+        int settle(final int[] first, final int[] edges, final int[] reverseFirst, final int[] reverseEdges) {
+            final int cost = heap.peekKey();
+            final int node = heap.peekValue();
+            heap.poll();
+            if (cost > nodes.getCost(node)) {
+                return -1;
+            }
+
+            // Stall-on-demand: a higher node reached this search more cheaply through an edge down to this node,
+            // so no shortest path continues upward from here
+            for (int i = reverseFirst[node]; i < reverseFirst[node + 1]; i += EDGE_SIZE) {
+                final int higherCost = nodes.getCost(reverseEdges[i]);
+                if (higherCost != Integer.MAX_VALUE && higherCost + reverseEdges[i + 1] < cost) {
+                    return -1;
+                }
+            }
+
+            for (int i = first[node]; i < first[node + 1]; i += EDGE_SIZE) {
+                final int neighbor = edges[i];
+                final int neighborCost = cost + edges[i + 1];
+                if (neighborCost < nodes.getCost(neighbor)) {
+                    nodes.put(neighbor, neighborCost, node, edges[i + 2]);
+                    heap.add(neighborCost, neighbor);
+                }
+            }
+            return node;
+        }
+
+        // Edges from the source to the node as (previous node, node, middle) triples, starting at the node
+        IntList getEdgesTo(int node) {
+            final IntList edges = new IntList();
+            int previous;
+            while ((previous = nodes.getPrevious(node)) >= 0) {
+                edges.add(previous);
+                edges.add(node);
+                edges.add(nodes.getMiddle(node));
+                node = previous;
+            }
+            return edges;
+        }
+    }
+
+    /**
+     * Open-addressing map of node to its cost, previous node and the middle node of the edge from it.
+     */
+    private static class NodeTable {
+        private int[] keys = new int[256];
+        private int[] values = new int[256 * 3];
+        private int size = 0;
+
+        NodeTable() {
+            Arrays.fill(keys, -1);
+        }
+
+        int getCost(final int node) {
+            final int slot = find(node);
+            return (keys[slot] == node ? values[slot * 3] : Integer.MAX_VALUE);
+        }
+
+        int getPrevious(final int node) {
+            return values[find(node) * 3 + 1];
+        }
+
+        int getMiddle(final int node) {
+            return values[find(node) * 3 + 2];
+        }
+
+        void put(final int node, final int cost, final int previous, final int middle) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            final int slot = find(node);
+            if (keys[slot] != node) {
+                keys[slot] = node;
+                ++size;
+            }
+            values[slot * 3] = cost;
+            values[slot * 3 + 1] = previous;
+            values[slot * 3 + 2] = middle;
+        }
+
+        private int find(final int node) {
+            int slot = (node * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(keys.length));
+            while (keys[slot] != -1 && keys[slot] != node) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return slot;
+        }
+
+        private void grow() {
+            final int[] oldKeys = keys;
+            final int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, -1);
+            for (int i = 0; i < oldKeys.length; ++i) {
+                if (oldKeys[i] != -1) {
+                    final int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    System.arraycopy(oldValues, i * 3, values, slot * 3, 3);
+                }
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[64];
+        private int size = 0;
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(final int index) {
+            return values[index];
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    public void toFile(final Path path) {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path))))) {
+            write(output);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ContractionHierarchy fromFile(final Path path) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                ContractionHierarchy.class.getResourceAsStream(Util.pathToResourcePath(path)))))) {
+            return read(input);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(FILE_MAGIC);
+        output.writeInt(FILE_VERSION);
+        writeInts(output, points);
+        output.writeInt(coreNodeCount);
+        writeInts(output, outFirst);
+        writeInts(output, outEdges);
+        writeInts(output, inFirst);
+        writeInts(output, inEdges);
+    }
+
+    public static ContractionHierarchy read(final DataInput input) throws IOException {
+        final int magic = input.readInt();
+        final int version = input.readInt();
+        if (magic != FILE_MAGIC || version != FILE_VERSION) {
+            throw new IOException(String.format("Unsupported contraction hierarchy, magic %08x version %d", magic, version));
+        }
+        return new ContractionHierarchy(readInts(input), input.readInt(), readInts(input), readInts(input), readInts(input), readInts(input));
+    }
+
+    private static void writeInts(final DataOutput output, final int[] values) throws IOException {
+        output.writeInt(values.length);
+        for (final int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(final DataInput input) throws IOException {
+        final int[] values = new int[input.readInt()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,313 @@
+package shortestpath.worldmap.hierarchy;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.NodeGraph;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the ContractionHierarchy of the tiles reachable from a seed, with every walk and every transport as an
+ * edge of cost 1. Nodes are contracted in order of edge difference (shortcuts added minus edges removed) plus the
+ * amount of contracted neighbors, lazily updated. A shortcut is skipped when a witness search, limited to
+ * WITNESS_SETTLE_LIMIT nodes, finds a path at most as long without the contracted node.
+ *
+ * Contracting the last, densely connected nodes of the tile graph adds shortcuts quadratically, so contraction
+ * stops once the next node has more than CORE_DEGREE_LIMIT edges. The remaining nodes form the core, which keeps
+ * all edges between its nodes and is searched like a plain graph.
+ */
+public class ContractionHierarchyBuilder {
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int CORE_DEGREE_LIMIT = 96;
+    private static final int EDGE_SIZE = 3;
+    private static final int NO_MIDDLE = -1;
+
+    private final int[] points;
+    private final int nodeCount;
+
+    // Edges between nodes not contracted yet, as (other node, cost, middle node) triples
+    private final int[][] outEdges;
+    private final int[] outEdgeCounts;
+    private final int[][] inEdges;
+    private final int[] inEdgeCounts;
+    private final int[] contractedNeighbors;
+
+    // Edges of each contracted node to nodes contracted after it, which are all the hierarchy keeps
+    private final int[][] upwardOutEdges;
+    private final int[][] upwardInEdges;
+
+    // Witness search state, entries are only valid when their stamp is the current search
+    private final int[] witnessDistances;
+    private final int[] witnessStamps;
+    private int witnessStamp = 0;
+    private final LongHeap witnessHeap = new LongHeap();
+
+    private ContractionHierarchyBuilder(final WorldMap worldMap, final int[] points) {
+        this.points = points;
+        this.nodeCount = points.length;
+        this.outEdges = new int[nodeCount][];
+        this.outEdgeCounts = new int[nodeCount];
+        this.inEdges = new int[nodeCount][];
+        this.inEdgeCounts = new int[nodeCount];
+        this.contractedNeighbors = new int[nodeCount];
+        this.upwardOutEdges = new int[nodeCount][];
+        this.upwardInEdges = new int[nodeCount][];
+        this.witnessDistances = new int[nodeCount];
+        this.witnessStamps = new int[nodeCount];
+
+        final OrdinalDirection[] directions = OrdinalDirection.values();
+        final int[] directionX = new int[directions.length];
+        final int[] directionY = new int[directions.length];
+        for (int i = 0; i < directions.length; ++i) {
+            directionX[i] = directions[i].toPoint().getX();
+            directionY[i] = directions[i].toPoint().getY();
+        }
+
+        for (int node = 0; node < nodeCount; ++node) {
+            final int x = WorldPointUtil.unpackWorldX(points[node]);
+            final int y = WorldPointUtil.unpackWorldY(points[node]);
+            final int plane = WorldPointUtil.unpackWorldPlane(points[node]);
+            for (int i = 0; i < directions.length; ++i) {
+                if (worldMap.checkDirection(x, y, plane, directions[i])) {
+                    addEdge(node, getNode(WorldPointUtil.packWorldPoint(x + directionX[i], y + directionY[i], plane)), 1, NO_MIDDLE);
+                }
+            }
+
+            final List<Transport> transports = worldMap.getTransports(points[node]);
+            for (int i = 0; i < transports.size(); ++i) {
+                addEdge(node, getNode(WorldPointUtil.packWorldPoint(transports.get(i).getDestination())), 1, NO_MIDDLE);
+            }
+        }
+    }
+
+    /**
+     * Hierarchy of the tiles reachable from the seed through walking and any transport.
+     */
+    public static ContractionHierarchy build(final WorldMap worldMap, final WorldPoint seed) {
+        return build(worldMap, seed, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Hierarchy of the tiles reachable from the seed in at most maxDistance movements.
+     */
+    public static ContractionHierarchy build(final WorldMap worldMap, final WorldPoint seed, final int maxDistance) {
+        final NodeGraph graph = new NodeGraph(worldMap);
+        graph.addBoundaryNode(Node.createInitialNode(seed));
+
+        int[] points = new int[1024];
+        int pointCount = 0;
+        while (!graph.getBoundary().isEmpty() && graph.getBoundary().peek().getCost() <= maxDistance) {
+            if (pointCount == points.length) {
+                points = Arrays.copyOf(points, pointCount * 2);
+            }
+            points[pointCount++] = WorldPointUtil.packWorldPoint(graph.getBoundary().peek().getMovement().getDestination());
+            graph.evaluateBoundaryNode();
+        }
+
+        points = Arrays.copyOf(points, pointCount);
+        Arrays.sort(points);
+        return new ContractionHierarchyBuilder(worldMap, points).contractAll();
+    }
+
+    private int getNode(final int packedPoint) {
+        final int node = Arrays.binarySearch(points, packedPoint);
+        return (node >= 0 ? node : -1);
+    }
+
+    private ContractionHierarchy contractAll() {
+        final LongHeap queue = new LongHeap();
+        for (int node = 0; node < nodeCount; ++node) {
+            queue.add(priority(node), node);
+        }
+
+        int contractedCount = 0;
+        while (!queue.isEmpty()) {
+            final int node = queue.peekValue();
+            queue.poll();
+
+            // Priorities of the nodes around a contracted node change, only contract if still the lowest
+            final int priority = priority(node);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.add(priority, node);
+                continue;
+            }
+            if (outEdgeCounts[node] + inEdgeCounts[node] > CORE_DEGREE_LIMIT) {
+                break;
+            }
+            contract(node);
+            ++contractedCount;
+        }
+
+        for (int node = 0; node < nodeCount; ++node) {
+            if (upwardOutEdges[node] == null) {
+                upwardOutEdges[node] = Arrays.copyOf(orEmpty(outEdges[node]), outEdgeCounts[node] * EDGE_SIZE);
+                upwardInEdges[node] = Arrays.copyOf(orEmpty(inEdges[node]), inEdgeCounts[node] * EDGE_SIZE);
+            }
+        }
+        return ContractionHierarchy.fromUpwardEdges(points, nodeCount - contractedCount, upwardOutEdges, upwardInEdges);
+    }
+
+    private int priority(final int node) {
+        final int shortcuts = contract(node, false);
+        return shortcuts - outEdgeCounts[node] - inEdgeCounts[node] + contractedNeighbors[node];
+    }
+
+    private void contract(final int node) {
+        contract(node, true);
+        upwardOutEdges[node] = Arrays.copyOf(orEmpty(outEdges[node]), outEdgeCounts[node] * EDGE_SIZE);
+        upwardInEdges[node] = Arrays.copyOf(orEmpty(inEdges[node]), inEdgeCounts[node] * EDGE_SIZE);
+
+        for (int i = 0; i < outEdgeCounts[node]; ++i) {
+            final int neighbor = outEdges[node][i * EDGE_SIZE];
+            removeEdge(inEdges[neighbor], inEdgeCounts, neighbor, node);
+            ++contractedNeighbors[neighbor];
+        }
+        for (int i = 0; i < inEdgeCounts[node]; ++i) {
+            final int neighbor = inEdges[node][i * EDGE_SIZE];
+            removeEdge(outEdges[neighbor], outEdgeCounts, neighbor, node);
+            ++contractedNeighbors[neighbor];
+        }
+
+        outEdges[node] = null;
+        inEdges[node] = null;
+        outEdgeCounts[node] = 0;
+        inEdgeCounts[node] = 0;
+    }
+
+    /**
+     * Shortcuts needed to contract the node, which are added when addShortcuts is set.
+     */
+    private int contract(final int node, final boolean addShortcuts) {
+        final int[] in = inEdges[node];
+        final int[] out = outEdges[node];
+        final int inCount = inEdgeCounts[node];
+        final int outCount = outEdgeCounts[node];
+
+        int maxOutCost = 0;
+        for (int j = 0; j < outCount; ++j) {
+            maxOutCost = Math.max(maxOutCost, out[j * EDGE_SIZE + 1]);
+        }
+
+        int shortcuts = 0;
+        for (int i = 0; i < inCount; ++i) {
+            final int source = in[i * EDGE_SIZE];
+            final int inCost = in[i * EDGE_SIZE + 1];
+            witnessSearch(source, node, inCost + maxOutCost);
+
+            for (int j = 0; j < outCount; ++j) {
+                final int target = out[j * EDGE_SIZE];
+                final int cost = inCost + out[j * EDGE_SIZE + 1];
+                if (target == source || witnessDistance(target) <= cost) {
+                    continue;
+                }
+
+                ++shortcuts;
+                if (addShortcuts) {
+                    addEdge(source, target, cost, node);
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    private void witnessSearch(final int source, final int excludedNode, final int maxCost) {
+        ++witnessStamp;
+        witnessHeap.clear();
+        setWitnessDistance(source, 0);
+        witnessHeap.add(0, source);
+
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            final int cost = witnessHeap.peekKey();
+            final int node = witnessHeap.peekValue();
+            witnessHeap.poll();
+            if (cost > witnessDistance(node)) {
+                continue;
+            }
+            if (cost > maxCost) {
+                break;
+            }
+            ++settled;
+
+            final int[] out = outEdges[node];
+            for (int i = 0; i < outEdgeCounts[node]; ++i) {
+                final int neighbor = out[i * EDGE_SIZE];
+                final int neighborCost = cost + out[i * EDGE_SIZE + 1];
+                if (neighbor != excludedNode && neighborCost < witnessDistance(neighbor)) {
+                    setWitnessDistance(neighbor, neighborCost);
+                    witnessHeap.add(neighborCost, neighbor);
+                }
+            }
+        }
+    }
+
+    private int witnessDistance(final int node) {
+        return (witnessStamps[node] == witnessStamp ? witnessDistances[node] : Integer.MAX_VALUE);
+    }
+
+    private void setWitnessDistance(final int node, final int distance) {
+        witnessStamps[node] = witnessStamp;
+        witnessDistances[node] = distance;
+    }
+
+    private void addEdge(final int source, final int target, final int cost, final int middle) {
+        if (target < 0 || target == source) {
+            return;
+        }
+
+        // Keep only the cheapest edge between two nodes
+        final int[] out = outEdges[source];
+        for (int i = 0; i < outEdgeCounts[source]; ++i) {
+            if (out[i * EDGE_SIZE] == target) {
+                if (cost < out[i * EDGE_SIZE + 1]) {
+                    out[i * EDGE_SIZE + 1] = cost;
+                    out[i * EDGE_SIZE + 2] = middle;
+                    final int[] in = inEdges[target];
+                    for (int j = 0; j < inEdgeCounts[target]; ++j) {
+                        if (in[j * EDGE_SIZE] == source) {
+                            in[j * EDGE_SIZE + 1] = cost;
+                            in[j * EDGE_SIZE + 2] = middle;
+                        }
+                    }
+                }
+                return;
+            }
+        }
+
+        outEdges[source] = appendEdge(outEdges[source], outEdgeCounts[source]++, target, cost, middle);
+        inEdges[target] = appendEdge(inEdges[target], inEdgeCounts[target]++, source, cost, middle);
+    }
+
+    private static int[] appendEdge(int[] edges, final int count, final int other, final int cost, final int middle) {
+        if (edges == null) {
+            edges = new int[4 * EDGE_SIZE];
+        }
+        else if ((count + 1) * EDGE_SIZE > edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+        }
+        edges[count * EDGE_SIZE] = other;
+        edges[count * EDGE_SIZE + 1] = cost;
+        edges[count * EDGE_SIZE + 2] = middle;
+        return edges;
+    }
+
+    private static void removeEdge(final int[] edges, final int[] counts, final int node, final int other) {
+        final int count = counts[node];
+        for (int i = 0; i < count; ++i) {
+            if (edges[i * EDGE_SIZE] == other) {
+                System.arraycopy(edges, (count - 1) * EDGE_SIZE, edges, i * EDGE_SIZE, EDGE_SIZE);
+                counts[node] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private static int[] orEmpty(final int[] edges) {
+        return (edges == null ? new int[0] : edges);
+    }
+}
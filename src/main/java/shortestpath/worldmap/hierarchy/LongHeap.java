@@ -0,0 +1,64 @@
+package shortestpath.worldmap.hierarchy;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (int key, int value) pairs packed into longs, so searches over node ids don't box.
+ * Pairs are ordered by key, then by value.
+ */
+class LongHeap {
+    private long[] entries = new long[64];
+    private int size = 0;
+
+    void add(final int key, final int value) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+
+        final long entry = ((long) key << 32) | (value & 0xFFFFFFFFL);
+        int index = size++;
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (entries[parent] <= entry) {
+                break;
+            }
+            entries[index] = entries[parent];
+            index = parent;
+        }
+        entries[index] = entry;
+    }
+
+    int peekKey() {
+        return (int) (entries[0] >> 32);
+    }
+
+    int peekValue() {
+        return (int) entries[0];
+    }
+
+    void poll() {
+        final long entry = entries[--size];
+        final int half = size >>> 1;
+        int index = 0;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && entries[child + 1] < entries[child]) {
+                ++child;
+            }
+            if (entry <= entries[child]) {
+                break;
+            }
+            entries[index] = entries[child];
+            index = child;
+        }
+        entries[index] = entry;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
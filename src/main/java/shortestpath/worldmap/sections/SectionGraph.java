@@ -0,0 +1,108 @@
+package shortestpath.worldmap.sections;
+
+import lombok.Getter;
+import shortestpath.pathfinder.path.Transport;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Transports between different sections, grouped by origin section and then by destination section, with the
+ * sections of every transport resolved when it's built. The sections reached from a section are at
+ * [getFirstNeighbor(section), getFirstNeighbor(section + 1)), and the transports to each of them at
+ * [getFirstTransport(neighbor), getFirstTransport(neighbor + 1)) in the order of the transports it was built from.
+ */
+public class SectionGraph {
+    @Getter
+    private final int sectionCount;
+    // Number of transports it was built from, as transports are only ever added this tells whether they changed
+    @Getter
+    private final int builtTransportCount;
+    private final int[] firstNeighbor;
+    private final int[] neighborSections;
+    private final int[] firstTransport;
+    private final Transport[] transports;
+
+    private SectionGraph(final int sectionCount, final int builtTransportCount, final int[] firstNeighbor,
+                         final int[] neighborSections, final int[] firstTransport, final Transport[] transports) {
+        this.sectionCount = sectionCount;
+        this.builtTransportCount = builtTransportCount;
+        this.firstNeighbor = firstNeighbor;
+        this.neighborSections = neighborSections;
+        this.firstTransport = firstTransport;
+        this.transports = transports;
+    }
+
+    public static SectionGraph build(final SectionMapper sectionMapper, final List<Transport> allTransports) {
+        final List<Transport> transports = new ArrayList<>();
+        final List<MovementSections> transportSections = new ArrayList<>();
+        int sectionCount = sectionMapper.getSectionCount();
+        for (final Transport transport : allTransports) {
+            final MovementSections sections = sectionMapper.getSection(transport);
+            if (sections.getOriginSection() == null || sections.getDestinationSection() == null ||
+                    sections.getOriginSection().equals(sections.getDestinationSection())) {
+                continue;
+            }
+            transports.add(transport);
+            transportSections.add(sections);
+            sectionCount = Math.max(sectionCount, Math.max(sections.getOriginSection(), sections.getDestinationSection()) + 1);
+        }
+
+        // Sorting is stable, so transports between the same sections keep their order
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < transports.size(); ++i) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingInt(i -> transportSections.get(i).getOriginSection())
+                .thenComparingInt(i -> transportSections.get(i).getDestinationSection()));
+
+        final int[] firstNeighbor = new int[sectionCount + 1];
+        final List<Integer> neighborSections = new ArrayList<>();
+        final List<Integer> firstTransport = new ArrayList<>();
+        final Transport[] sortedTransports = new Transport[transports.size()];
+        int section = 0;
+        for (int i = 0; i < order.size(); ++i) {
+            final MovementSections sections = transportSections.get(order.get(i));
+            final int originSection = sections.getOriginSection();
+            final int destinationSection = sections.getDestinationSection();
+            while (section < originSection) {
+                firstNeighbor[++section] = neighborSections.size();
+            }
+            if (i == 0 || originSection != transportSections.get(order.get(i - 1)).getOriginSection() ||
+                    destinationSection != transportSections.get(order.get(i - 1)).getDestinationSection()) {
+                neighborSections.add(destinationSection);
+                firstTransport.add(i);
+            }
+            sortedTransports[i] = transports.get(order.get(i));
+        }
+        while (section < sectionCount) {
+            firstNeighbor[++section] = neighborSections.size();
+        }
+        firstTransport.add(sortedTransports.length);
+
+        return new SectionGraph(sectionCount, allTransports.size(), firstNeighbor,
+                neighborSections.stream().mapToInt(Integer::intValue).toArray(),
+                firstTransport.stream().mapToInt(Integer::intValue).toArray(), sortedTransports);
+    }
+
+    public int getFirstNeighbor(final int section) {
+        return firstNeighbor[Math.max(0, Math.min(section, sectionCount))];
+    }
+
+    public int getNeighborSection(final int neighbor) {
+        return neighborSections[neighbor];
+    }
+
+    public int getFirstTransport(final int neighbor) {
+        return firstTransport[neighbor];
+    }
+
+    public Transport getTransport(final int index) {
+        return transports[index];
+    }
+
+    public int getTransportCount() {
+        return transports.length;
+    }
+}
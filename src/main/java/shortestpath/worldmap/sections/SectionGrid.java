@@ -0,0 +1,171 @@
+package shortestpath.worldmap.sections;
+
+import shortestpath.utils.WorldPointUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Section id of every tile, split into 64x64 regions like SplitFlagMap. Each plane of a region is a short[]
+ * allocated on the first tile assigned to it, so looking up the section of a tile is a single array read.
+ */
+public class SectionGrid {
+    public static final int NO_SECTION = -1;
+    // Ids are stored + 1 so that a freshly allocated region contains NO_SECTION
+    public static final int MAX_SECTION = 0xFFFF - 1;
+
+    private static final int REGION_SHIFT = 6;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+    private static final int REGION_MASK = REGION_SIZE - 1;
+    private static final int REGIONS_PER_AXIS = (WorldPointUtil.MAX_COORDINATE + 1) >>> REGION_SHIFT;
+
+    private final short[][][] regions = new short[REGIONS_PER_AXIS * REGIONS_PER_AXIS][][];
+
+    public int get(final int x, final int y, final int plane) {
+        if (!WorldPointUtil.isPackable(x, y, plane)) {
+            return NO_SECTION;
+        }
+
+        final short[][] region = regions[regionIndex(x, y)];
+        if (region == null || region[plane] == null) {
+            return NO_SECTION;
+        }
+        return (region[plane][tileIndex(x, y)] & 0xFFFF) - 1;
+    }
+
+    public void set(final int x, final int y, final int plane, final int section) {
+        if (!WorldPointUtil.isPackable(x, y, plane)) {
+            throw new IndexOutOfBoundsException(x + " " + y + " " + plane);
+        }
+        if (section < NO_SECTION || section > MAX_SECTION) {
+            throw new IllegalArgumentException("Section id out of range: " + section);
+        }
+
+        final int regionIndex = regionIndex(x, y);
+        short[][] region = regions[regionIndex];
+        if (region == null) {
+            region = new short[WorldPointUtil.PLANE_COUNT][];
+            regions[regionIndex] = region;
+        }
+        if (region[plane] == null) {
+            region[plane] = new short[REGION_SIZE * REGION_SIZE];
+        }
+        region[plane][tileIndex(x, y)] = (short) (section + 1);
+    }
+
+    public void forEach(final TileConsumer consumer) {
+        for (int regionIndex = 0; regionIndex < regions.length; ++regionIndex) {
+            final short[][] region = regions[regionIndex];
+            if (region == null) {
+                continue;
+            }
+
+            final int minX = (regionIndex / REGIONS_PER_AXIS) << REGION_SHIFT;
+            final int minY = (regionIndex % REGIONS_PER_AXIS) << REGION_SHIFT;
+            for (int plane = 0; plane < region.length; ++plane) {
+                if (region[plane] == null) {
+                    continue;
+                }
+                for (int tile = 0; tile < region[plane].length; ++tile) {
+                    final int section = (region[plane][tile] & 0xFFFF) - 1;
+                    if (section != NO_SECTION) {
+                        consumer.accept(minX + (tile & REGION_MASK), minY + (tile >>> REGION_SHIFT), plane, section);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every allocated region plane as its region index, plane and the run-length encoded (run length,
+     * stored id) pairs of its tiles.
+     */
+    public void write(final DataOutput output) throws IOException {
+        int regionPlaneCount = 0;
+        for (final short[][] region : regions) {
+            if (region != null) {
+                for (final short[] tiles : region) {
+                    regionPlaneCount += (tiles == null ? 0 : 1);
+                }
+            }
+        }
+        output.writeInt(regionPlaneCount);
+
+        final short[] runs = new short[REGION_SIZE * REGION_SIZE * 2];
+        for (int regionIndex = 0; regionIndex < regions.length; ++regionIndex) {
+            final short[][] region = regions[regionIndex];
+            if (region == null) {
+                continue;
+            }
+            for (int plane = 0; plane < region.length; ++plane) {
+                final short[] tiles = region[plane];
+                if (tiles == null) {
+                    continue;
+                }
+
+                int runCount = 0;
+                int runStart = 0;
+                for (int tile = 1; tile <= tiles.length; ++tile) {
+                    if (tile == tiles.length || tiles[tile] != tiles[runStart]) {
+                        runs[2 * runCount] = (short) (tile - runStart);
+                        runs[2 * runCount + 1] = tiles[runStart];
+                        ++runCount;
+                        runStart = tile;
+                    }
+                }
+
+                output.writeInt(regionIndex);
+                output.writeByte(plane);
+                output.writeShort(runCount);
+                for (int i = 0; i < 2 * runCount; ++i) {
+                    output.writeShort(runs[i]);
+                }
+            }
+        }
+    }
+
+    public static SectionGrid read(final DataInput input) throws IOException {
+        final SectionGrid grid = new SectionGrid();
+        final int regionPlaneCount = input.readInt();
+        for (int i = 0; i < regionPlaneCount; ++i) {
+            final int regionIndex = input.readInt();
+            final int plane = input.readUnsignedByte();
+            final int runCount = input.readUnsignedShort();
+            if (regionIndex < 0 || regionIndex >= grid.regions.length || plane >= WorldPointUtil.PLANE_COUNT) {
+                throw new IOException("Invalid region " + regionIndex + " plane " + plane);
+            }
+
+            if (grid.regions[regionIndex] == null) {
+                grid.regions[regionIndex] = new short[WorldPointUtil.PLANE_COUNT][];
+            }
+            final short[] tiles = new short[REGION_SIZE * REGION_SIZE];
+            grid.regions[regionIndex][plane] = tiles;
+
+            int tile = 0;
+            for (int run = 0; run < runCount; ++run) {
+                final int length = input.readUnsignedShort();
+                final short section = input.readShort();
+                if (tile + length > tiles.length) {
+                    throw new IOException("Run exceeds region " + regionIndex + " plane " + plane);
+                }
+                Arrays.fill(tiles, tile, tile + length, section);
+                tile += length;
+            }
+        }
+        return grid;
+    }
+
+    private static int regionIndex(final int x, final int y) {
+        return (x >>> REGION_SHIFT) * REGIONS_PER_AXIS + (y >>> REGION_SHIFT);
+    }
+
+    private static int tileIndex(final int x, final int y) {
+        return (y & REGION_MASK) << REGION_SHIFT | (x & REGION_MASK);
+    }
+
+    public interface TileConsumer {
+        void accept(int x, int y, int plane, int section);
+    }
+}
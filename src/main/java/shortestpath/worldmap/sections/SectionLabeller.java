@@ -0,0 +1,270 @@
+package shortestpath.worldmap.sections;
+
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.CollisionMap;
+import shortestpath.worldmap.FlagMap;
+import shortestpath.worldmap.SplitFlagMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Connected components of the walkable tiles of a collision map. Every region is labelled on its own in parallel,
+ * after which the labels of tiles walkable across region borders are merged in a lock-free union-find. Walking
+ * diagonally requires both cardinal moves to be possible, so only cardinal moves have to be followed.
+ */
+public class SectionLabeller {
+    public static final int NO_COMPONENT = -1;
+
+    private static final int NO_LABEL = 0;
+    private static final int NO_REGION = -1;
+    private static final OrdinalDirection[] CARDINAL_DIRECTIONS = {
+            OrdinalDirection.NORTH, OrdinalDirection.EAST, OrdinalDirection.SOUTH, OrdinalDirection.WEST};
+    private static final int[] DIRECTION_X = {0, 1, 0, -1};
+    private static final int[] DIRECTION_Y = {1, 0, -1, 0};
+
+    private final CollisionMap collisionMap;
+    private final int regionSize;
+    private final int regionsPerAxis;
+    // Regions of the collision map and the ones next to them, whose border tiles may be walkable from them
+    private final List<SplitFlagMap.Position> regions = new ArrayList<>();
+    // Index into regions by (regionX * regionsPerAxis + regionY)
+    private final int[] regionIndices;
+    // Per region the label of each tile, numbered from 1 within the region and NO_LABEL when blocked. Null when
+    // no tile of the region is walkable
+    private final short[][] tileLabels;
+    private final int[] labelCounts;
+    // Global label of the first label of each region
+    private final int[] labelOffsets;
+    private AtomicIntegerArray parents;
+
+    private SectionLabeller(final CollisionMap collisionMap) {
+        this.collisionMap = collisionMap;
+        this.regionSize = collisionMap.getRegionSize();
+        this.regionsPerAxis = (WorldPointUtil.MAX_COORDINATE + regionSize) / regionSize;
+        this.regionIndices = new int[regionsPerAxis * regionsPerAxis];
+        Arrays.fill(regionIndices, NO_REGION);
+
+        for (final SplitFlagMap.Position region : collisionMap.getRegions()) {
+            addRegion(region.x, region.y);
+            addRegion(region.x + 1, region.y);
+            addRegion(region.x - 1, region.y);
+            addRegion(region.x, region.y + 1);
+            addRegion(region.x, region.y - 1);
+        }
+        this.tileLabels = new short[regions.size()][];
+        this.labelCounts = new int[regions.size()];
+        this.labelOffsets = new int[regions.size()];
+    }
+
+    /**
+     * Labels the components of the collision map, using every thread of the pool.
+     */
+    public static SectionLabeller label(final CollisionMap collisionMap, final ForkJoinPool pool) {
+        final SectionLabeller labeller = new SectionLabeller(collisionMap);
+        labeller.forEachRegion(pool, labeller::labelRegion);
+
+        int labelCount = 0;
+        for (int i = 0; i < labeller.regions.size(); ++i) {
+            labeller.labelOffsets[i] = labelCount;
+            labelCount += labeller.labelCounts[i];
+        }
+        labeller.parents = new AtomicIntegerArray(IntStream.range(0, labelCount).toArray());
+
+        labeller.forEachRegion(pool, labeller::mergeRegionBorders);
+        return labeller;
+    }
+
+    /**
+     * Component of the tile, the same for all tiles walkable from each other, or NO_COMPONENT when it's blocked.
+     * Components are below getLabelCount.
+     */
+    public int getComponent(final int x, final int y, final int plane) {
+        if (!WorldPointUtil.isPackable(x, y, plane)) {
+            return NO_COMPONENT;
+        }
+
+        final int regionIndex = regionIndices[(x / regionSize) * regionsPerAxis + y / regionSize];
+        if (regionIndex == NO_REGION || tileLabels[regionIndex] == null) {
+            return NO_COMPONENT;
+        }
+        final int label = tileLabels[regionIndex][tileIndex(x, y, plane)] & 0xFFFF;
+        return (label == NO_LABEL ? NO_COMPONENT : find(labelOffsets[regionIndex] + label - 1));
+    }
+
+    public int getLabelCount() {
+        return parents.length();
+    }
+
+    /**
+     * Calls the consumer with the component of every walkable tile, region by region.
+     */
+    public void forEachTile(final SectionGrid.TileConsumer consumer) {
+        final int tilesPerPlane = regionSize * regionSize;
+        for (int regionIndex = 0; regionIndex < regions.size(); ++regionIndex) {
+            final short[] labels = tileLabels[regionIndex];
+            if (labels == null) {
+                continue;
+            }
+
+            final SplitFlagMap.Position region = regions.get(regionIndex);
+            for (int index = 0; index < labels.length; ++index) {
+                final int label = labels[index] & 0xFFFF;
+                if (label != NO_LABEL) {
+                    final int tile = index % tilesPerPlane;
+                    consumer.accept(region.x * regionSize + tile % regionSize, region.y * regionSize + tile / regionSize,
+                            index / tilesPerPlane, find(labelOffsets[regionIndex] + label - 1));
+                }
+            }
+        }
+    }
+
+    private void addRegion(final int regionX, final int regionY) {
+        if (regionX < 0 || regionY < 0 || regionX >= regionsPerAxis || regionY >= regionsPerAxis) {
+            return;
+        }
+        final int position = regionX * regionsPerAxis + regionY;
+        if (regionIndices[position] == NO_REGION) {
+            regionIndices[position] = regions.size();
+            regions.add(new SplitFlagMap.Position(regionX, regionY));
+        }
+    }
+
+    private void forEachRegion(final ForkJoinPool pool, final IntConsumer regionConsumer) {
+        final CompletableFuture<?>[] tasks = IntStream.range(0, regions.size())
+                .mapToObj(regionIndex -> CompletableFuture.runAsync(() -> regionConsumer.accept(regionIndex), pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
+    }
+
+    private void labelRegion(final int regionIndex) {
+        final SplitFlagMap.Position region = regions.get(regionIndex);
+        final int minX = region.x * regionSize;
+        final int minY = region.y * regionSize;
+        final int tilesPerPlane = regionSize * regionSize;
+
+        // Allocated on the first walkable tile, most regions next to the ones of the collision map have none
+        short[] labels = null;
+        int[] stack = null;
+        int labelCount = 0;
+        for (int plane = 0; plane < FlagMap.PLANE_COUNT; ++plane) {
+            for (int tile = 0; tile < tilesPerPlane; ++tile) {
+                final int index = plane * tilesPerPlane + tile;
+                if (labels != null && labels[index] != NO_LABEL) {
+                    continue;
+                }
+                if (collisionMap.isBlocked(minX + tile % regionSize, minY + tile / regionSize, plane)) {
+                    continue;
+                }
+
+                if (labels == null) {
+                    labels = new short[FlagMap.PLANE_COUNT * tilesPerPlane];
+                    stack = new int[tilesPerPlane];
+                }
+                final short label = (short) ++labelCount;
+                labels[index] = label;
+                int stackSize = 0;
+                stack[stackSize++] = tile;
+
+                while (stackSize > 0) {
+                    final int current = stack[--stackSize];
+                    final int x = current % regionSize;
+                    final int y = current / regionSize;
+                    for (int i = 0; i < CARDINAL_DIRECTIONS.length; ++i) {
+                        final int neighborX = x + DIRECTION_X[i];
+                        final int neighborY = y + DIRECTION_Y[i];
+                        if (neighborX < 0 || neighborY < 0 || neighborX >= regionSize || neighborY >= regionSize) {
+                            continue;
+                        }
+                        final int neighbor = neighborY * regionSize + neighborX;
+                        if (labels[plane * tilesPerPlane + neighbor] == NO_LABEL &&
+                                collisionMap.checkDirection(minX + x, minY + y, plane, CARDINAL_DIRECTIONS[i])) {
+                            labels[plane * tilesPerPlane + neighbor] = label;
+                            stack[stackSize++] = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+
+        tileLabels[regionIndex] = labels;
+        labelCounts[regionIndex] = labelCount;
+    }
+
+    private void mergeRegionBorders(final int regionIndex) {
+        if (tileLabels[regionIndex] == null) {
+            return;
+        }
+
+        // Walking is possible both ways, so merging the east and north borders of every region covers all borders
+        final SplitFlagMap.Position region = regions.get(regionIndex);
+        final int maxX = (region.x + 1) * regionSize - 1;
+        final int maxY = (region.y + 1) * regionSize - 1;
+        for (int plane = 0; plane < FlagMap.PLANE_COUNT; ++plane) {
+            for (int i = 0; i < regionSize; ++i) {
+                mergeAcrossBorder(regionIndex, maxX, region.y * regionSize + i, plane, OrdinalDirection.EAST);
+                mergeAcrossBorder(regionIndex, region.x * regionSize + i, maxY, plane, OrdinalDirection.NORTH);
+            }
+        }
+    }
+
+    private void mergeAcrossBorder(final int regionIndex, final int x, final int y, final int plane, final OrdinalDirection direction) {
+        final int label = tileLabels[regionIndex][tileIndex(x, y, plane)] & 0xFFFF;
+        if (label == NO_LABEL || !collisionMap.checkDirection(x, y, plane, direction)) {
+            return;
+        }
+
+        final int neighborX = x + direction.toPoint().getX();
+        final int neighborY = y + direction.toPoint().getY();
+        if (!WorldPointUtil.isPackable(neighborX, neighborY, plane)) {
+            return;
+        }
+        final int neighborRegionIndex = regionIndices[(neighborX / regionSize) * regionsPerAxis + neighborY / regionSize];
+        if (neighborRegionIndex == NO_REGION || tileLabels[neighborRegionIndex] == null) {
+            return;
+        }
+        final int neighborLabel = tileLabels[neighborRegionIndex][tileIndex(neighborX, neighborY, plane)] & 0xFFFF;
+        if (neighborLabel != NO_LABEL) {
+            union(labelOffsets[regionIndex] + label - 1, labelOffsets[neighborRegionIndex] + neighborLabel - 1);
+        }
+    }
+
+    private int tileIndex(final int x, final int y, final int plane) {
+        return (plane * regionSize + y % regionSize) * regionSize + x % regionSize;
+    }
+
+    private int find(int label) {
+        int parent;
+        while ((parent = parents.get(label)) != label) {
+            // Path halving, when another thread changed the parent first the shortcut is only skipped
+            final int grandparent = parents.get(parent);
+            parents.compareAndSet(label, parent, grandparent);
+            label = grandparent;
+        }
+        return label;
+    }
+
+    private void union(int label, int otherLabel) {
+        while (true) {
+            label = find(label);
+            otherLabel = find(otherLabel);
+            if (label == otherLabel) {
+                return;
+            }
+
+            // Roots are always linked to a lower root, so parents never form a cycle
+            final int higherRoot = Math.max(label, otherLabel);
+            final int lowerRoot = Math.min(label, otherLabel);
+            if (parents.compareAndSet(higherRoot, higherRoot, lowerRoot)) {
+                return;
+            }
+        }
+    }
+}
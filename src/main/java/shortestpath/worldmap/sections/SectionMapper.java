@@ -2,33 +2,34 @@ package shortestpath.worldmap.sections;
 
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
 import net.runelite.api.coords.WorldPoint;
-import shortestpath.pathfinder.Node;
-import shortestpath.pathfinder.NodeGraph;
 import shortestpath.pathfinder.path.Movement;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.utils.Util;
 import shortestpath.worldmap.WorldMapProvider;
 
 import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -37,35 +38,73 @@ import com.google.gson.Gson;
 
 public class SectionMapper {
     private static final Path DEFAULT_SECTION_MAP_ZIP_PATH = Paths.get("src/main/resources/section-map.zip");
-    private static final ZipEntry SECTIONS_ZIP_ENTRY = new ZipEntry("section-map.json");
-
-    private List<Set<WorldPoint>> sections = new ArrayList<>();
+    private static final ZipEntry SECTIONS_ZIP_ENTRY = new ZipEntry("section-map.bin");
+    // Section maps saved before the binary format, only read so they can be converted
+    private static final ZipEntry LEGACY_SECTIONS_ZIP_ENTRY = new ZipEntry("section-map.json");
+    private static final int SECTIONS_FILE_MAGIC = 0x534D4150; // "SMAP"
+    private static final int SECTIONS_FILE_VERSION = 1;
+
+    private SectionGrid sectionGrid = new SectionGrid();
+    private int sectionCount = 0;
     private final WorldMapProvider worldMapProvider;
     private final Map<Movement, MovementSections> movementSectionsMap = new HashMap<>();
+    private SectionGraph sectionGraph = null;
 
     public SectionMapper(final WorldMapProvider worldMapProvider) {
         this.worldMapProvider = worldMapProvider;
     }
 
     public void findSections() {
-        sections = new ArrayList<>();
+        findSections(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sections are the components of walkable tiles with a transport endpoint, numbered in the order of the
+     * transports. A blocked endpoint is a section of its own.
+     */
+    public void findSections(final ForkJoinPool pool) {
+        final SectionLabeller labeller = SectionLabeller.label(worldMapProvider.getCollisionMap(), pool);
+        final int[] componentSections = new int[labeller.getLabelCount()];
+        Arrays.fill(componentSections, SectionGrid.NO_SECTION);
+
+        sectionGrid = new SectionGrid();
+        sectionCount = 0;
+        movementSectionsMap.clear();
+        sectionGraph = null;
         for (final Transport transport : worldMapProvider.getWorldMap().getTransports()) {
-            floodFill(transport.getOrigin());
-            floodFill(transport.getDestination());
+            addSection(labeller, componentSections, transport.getOrigin());
+            addSection(labeller, componentSections, transport.getDestination());
         }
+
+        labeller.forEachTile((x, y, plane, component) -> {
+            if (componentSections[component] != SectionGrid.NO_SECTION) {
+                sectionGrid.set(x, y, plane, componentSections[component]);
+            }
+        });
     }
 
     @Nullable
     public Integer getSection(final WorldPoint point) {
-        for (int i = 0; i < sections.size(); ++i) {
-            if (sections.get(i).contains(point)) {
-                return i;
-            }
+        final int section = sectionGrid.get(point.getX(), point.getY(), point.getPlane());
+        return (section == SectionGrid.NO_SECTION ? null : section);
+    }
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    /**
+     * Graph of the sections connected by the transports of the world map, rebuilt when transports were added.
+     */
+    public synchronized SectionGraph getSectionGraph() {
+        final List<Transport> transports = worldMapProvider.getWorldMap().getTransports();
+        if (sectionGraph == null || sectionGraph.getBuiltTransportCount() != transports.size()) {
+            sectionGraph = SectionGraph.build(this, transports);
         }
-        return null;
+        return sectionGraph;
     }
 
-    public MovementSections getSection(final Movement movement) {
+    public synchronized MovementSections getSection(final Movement movement) {
         MovementSections movementSections = movementSectionsMap.get(movement);
         if (movementSections == null) {
             final Integer originSection = getSection(movement.getOrigin());
@@ -76,23 +115,24 @@ public class SectionMapper {
         return movementSections;
     }
 
-    private void floodFill(final WorldPoint point) {
-        if (getSection(point) != null) {
-            return;
+    private void addSection(final SectionLabeller labeller, final int[] componentSections, final WorldPoint point) {
+        final int component = labeller.getComponent(point.getX(), point.getY(), point.getPlane());
+        if (component == SectionLabeller.NO_COMPONENT) {
+            if (getSection(point) == null) {
+                sectionGrid.set(point.getX(), point.getY(), point.getPlane(), sectionCount++);
+            }
         }
-
-        final NodeGraph graph = new NodeGraph(worldMapProvider.getWorldMap());
-        graph.addBoundaryNode(Node.createInitialNode(point));
-
-        while (!graph.getBoundary().isEmpty()) {
-            graph.evaluateBoundaryNode(0, (x) -> true, (x) -> false);
+        else if (componentSections[component] == SectionGrid.NO_SECTION) {
+            componentSections[component] = sectionCount++;
         }
+    }
 
-        sections.add(graph.getVisited());
-        if (graph.getVisited().isEmpty()) {
-            Set<WorldPoint> temporarySet = new HashSet<>();
-            temporarySet.add(point);
-            sections.add(temporarySet);
+    private void addSection(final Set<WorldPoint> section) {
+        final int sectionId = sectionCount++;
+        for (final WorldPoint point : section) {
+            if (sectionGrid.get(point.getX(), point.getY(), point.getPlane()) == SectionGrid.NO_SECTION) {
+                sectionGrid.set(point.getX(), point.getY(), point.getPlane(), sectionId);
+            }
         }
     }
 
@@ -110,23 +150,13 @@ public class SectionMapper {
         }
     }
 
-    private void saveSectionsToFile(final OutputStream outputStream) {
-        final Gson gson = new Gson();
-        final Type sectionType = new TypeToken<HashSet<WorldPoint>>() {
-        }.getType();
-
-        try {
-            final JsonWriter writer = new JsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
-            writer.setIndent("  ");
-            writer.beginArray();
-            for (final Set<WorldPoint> section : sections) {
-                gson.toJson(section, sectionType, writer);
-            }
-            writer.endArray();
-            writer.flush();
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    private void saveSectionsToFile(final OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(SECTIONS_FILE_MAGIC);
+        output.writeInt(SECTIONS_FILE_VERSION);
+        output.writeInt(sectionCount);
+        sectionGrid.write(output);
+        output.flush();
     }
 
     public static SectionMapper fromFile(final WorldMapProvider worldMapProvider) {
@@ -134,12 +164,18 @@ public class SectionMapper {
     }
 
     public static SectionMapper fromFile(final Path filepath, final WorldMapProvider worldMapProvider) {
-        List<Set<WorldPoint>> sections = null;
+        SectionMapper sectionMapper = null;
         try (final ZipInputStream inputStream = new ZipInputStream(SectionMapper.class.getResourceAsStream(Util.pathToResourcePath(filepath)))) {
             ZipEntry zipEntry;
             while ((zipEntry = inputStream.getNextEntry()) != null) {
                 if (SECTIONS_ZIP_ENTRY.getName().equals(zipEntry.getName())) {
-                    sections = getSectionsFromFile(inputStream);
+                    sectionMapper = new SectionMapper(worldMapProvider);
+                    sectionMapper.readSectionsFromFile(inputStream);
+                    break;
+                }
+                else if (LEGACY_SECTIONS_ZIP_ENTRY.getName().equals(zipEntry.getName())) {
+                    sectionMapper = new SectionMapper(worldMapProvider);
+                    sectionMapper.readLegacySectionsFromFile(inputStream);
                 }
             }
 
@@ -147,33 +183,40 @@ public class SectionMapper {
             throw new UncheckedIOException(e);
         }
 
-        if (sections == null) {
-            throw new RuntimeException(String.format("%s not found/parsed correctly from %s.",
-                    SECTIONS_ZIP_ENTRY.getName(), filepath.getFileName()));
+        if (sectionMapper == null) {
+            throw new RuntimeException(String.format("%s/%s not found/parsed correctly from %s.",
+                    SECTIONS_ZIP_ENTRY.getName(), LEGACY_SECTIONS_ZIP_ENTRY.getName(), filepath.getFileName()));
         }
-
-        final SectionMapper sectionMapper = new SectionMapper(worldMapProvider);
-        sectionMapper.sections = sections;
         return sectionMapper;
     }
 
-    private static List<Set<WorldPoint>> getSectionsFromFile(final InputStream inputStream) {
+    private void readSectionsFromFile(final InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+        final int magic = input.readInt();
+        final int version = input.readInt();
+        if (magic != SECTIONS_FILE_MAGIC || version != SECTIONS_FILE_VERSION) {
+            throw new IOException(String.format("Unsupported section map, magic %08x version %d", magic, version));
+        }
+
+        sectionCount = input.readInt();
+        sectionGrid = SectionGrid.read(input);
+    }
+
+    private void readLegacySectionsFromFile(final InputStream inputStream) {
         final Gson gson = new Gson();
         final Type sectionType = new TypeToken<HashSet<WorldPoint>>() {
         }.getType();
 
-        final List<Set<WorldPoint>> sections = new ArrayList<>();
         try {
             final JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
             reader.beginArray();
             while (reader.hasNext()) {
                 final Set<WorldPoint> section = gson.fromJson(reader, sectionType);
-                sections.add(section);
+                addSection(section);
             }
             reader.endArray();
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
-        return sections;
     }
 }
@@ -3,19 +3,54 @@ package shortestpath.worldmap.sections;
 import lombok.Getter;
 import shortestpath.pathfinder.path.Transport;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 class SectionNode {
+    // Transport index of the start, and of the target reached by walking from the previous node
+    static final int START = -1;
+    static final int TARGET = -2;
+
     @Getter
     final int section;
     final SectionNode previous;
+    @Nullable
     final Transport transport;
+    // Index of the transport in the SectionGraph, or START or TARGET
+    final int transportIndex;
+    @Getter
+    final int cost;
+    // Sections of the route up to and including this node's, sorted
+    final int[] visitedSections;
 
-    public SectionNode(final int section, final SectionNode previous, final Transport transport) {
+    public SectionNode(final int section, final SectionNode previous, @Nullable final Transport transport,
+                       final int transportIndex, final int cost) {
         this.section = section;
         this.previous = previous;
         this.transport = transport;
+        this.transportIndex = transportIndex;
+        this.cost = cost;
+        this.visitedSections = (previous == null ? new int[] {section} : withSection(previous.visitedSections, section));
+    }
+
+    public boolean hasBeenInSection(final int section) {
+        return Arrays.binarySearch(visitedSections, section) >= 0;
+    }
+
+    private static int[] withSection(final int[] sections, final int section) {
+        final int index = Arrays.binarySearch(sections, section);
+        if (index >= 0) {
+            return sections;
+        }
+
+        final int insertionPoint = -index - 1;
+        final int[] result = new int[sections.length + 1];
+        System.arraycopy(sections, 0, result, 0, insertionPoint);
+        result[insertionPoint] = section;
+        System.arraycopy(sections, insertionPoint, result, insertionPoint + 1, sections.length - insertionPoint);
+        return result;
     }
 
     public List<Transport> getTransportRoute() {
@@ -23,7 +58,9 @@ class SectionNode {
 
         SectionNode sectionNodeIterator = this;
         while (sectionNodeIterator.previous != null) {
-            transports.add(0, sectionNodeIterator.transport);
+            if (sectionNodeIterator.transport != null) {
+                transports.add(0, sectionNodeIterator.transport);
+            }
             sectionNodeIterator = sectionNodeIterator.previous;
         }
 
@@ -7,14 +7,19 @@ import shortestpath.pathfinder.pathfindertask.PathfinderTaskStatus;
 import shortestpath.worldmap.WorldMap;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
-import java.util.function.BiPredicate;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+/**
+ * Finds the maxRoutes shortest routes between the sections of the start and target, shortest first (see
+ * SectionRouteSearch). Each route is handed to the route listener as soon as it's found, so searching along the
+ * first routes doesn't wait for the others.
+ */
 public class SectionPathfinderTask implements Runnable {
+    public static final int DEFAULT_MAX_ROUTES = 16;
+
     private final WorldMap worldMap;
     private final SectionMapper sectionMapper;
 
@@ -23,12 +28,18 @@ public class SectionPathfinderTask implements Runnable {
     @Getter
     private final WorldPoint target;
     @Getter
-    private PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    private volatile PathfinderTaskStatus status = PathfinderTaskStatus.CALCULATING;
+    // Shortest first
     @Getter
     private final List<SectionRoute> routes = new ArrayList<>();
+    // Completed with the routes found once the task is done or cancelled
+    @Getter
+    private final CompletableFuture<List<SectionRoute>> completion = new CompletableFuture<>();
 
     final Predicate<Transport> transportPredicate;
-    private boolean shouldCancelTask = false;
+    private final int maxRoutes;
+    private final Consumer<SectionRoute> routeListener;
+    private volatile boolean shouldCancelTask = false;
 
     public SectionPathfinderTask(final WorldMap worldMap, final SectionMapper sectionMapper,
                                  final WorldPoint start, final WorldPoint target) {
@@ -37,13 +48,25 @@ public class SectionPathfinderTask implements Runnable {
 
     public SectionPathfinderTask(final WorldMap worldMap, final SectionMapper sectionMapper,
                                  final WorldPoint start, final WorldPoint target, final Predicate<Transport> transportPredicate) {
+        this(worldMap, sectionMapper, start, target, transportPredicate, DEFAULT_MAX_ROUTES);
+    }
+
+    public SectionPathfinderTask(final WorldMap worldMap, final SectionMapper sectionMapper,
+                                 final WorldPoint start, final WorldPoint target, final Predicate<Transport> transportPredicate,
+                                 final int maxRoutes) {
+        this(worldMap, sectionMapper, start, target, transportPredicate, maxRoutes, (route) -> {});
+    }
+
+    public SectionPathfinderTask(final WorldMap worldMap, final SectionMapper sectionMapper,
+                                 final WorldPoint start, final WorldPoint target, final Predicate<Transport> transportPredicate,
+                                 final int maxRoutes, final Consumer<SectionRoute> routeListener) {
         this.worldMap = worldMap;
         this.sectionMapper = sectionMapper;
         this.start = start;
         this.target = target;
         this.transportPredicate = transportPredicate;
-
-        new Thread(this).start();
+        this.maxRoutes = maxRoutes;
+        this.routeListener = routeListener;
     }
 
     public void cancelTask() {
@@ -56,49 +79,22 @@ public class SectionPathfinderTask implements Runnable {
         Integer targetSection = sectionMapper.getSection(target);
         if (startSection == null || targetSection == null) {
             status = PathfinderTaskStatus.CANCELLED;
+            completion.complete(routes);
             return;
         }
 
-        final BiPredicate<SectionNode, Integer> hasNodeBeenInSectionBefore = (node, section) -> {
-            final List<Transport> route = node.getTransportRoute();
-            final Set<Integer> visitedSections = new HashSet<>();
-
-            if (route.isEmpty()) {
-                return false;
-            }
-
-            final Transport firstTransport = route.get(0);
-            final MovementSections firstTransportSections = sectionMapper.getSection(firstTransport);
-            visitedSections.add(firstTransportSections.getOriginSection());
-
-            for (final Transport transport : route) {
-                final MovementSections transportSections = sectionMapper.getSection(transport);
-                if (!visitedSections.add(transportSections.getDestinationSection())) {
-                    return true;
-                }
-            }
-            return false;
-        };
-
-        List<SectionNode> boundary = new LinkedList<>();
-        boundary.add(new SectionNode(startSection, null, null));
-
-        Set<Integer> visited = new HashSet<>();
-        visited.add(startSection);
-
-        while (!boundary.isEmpty() && !shouldCancelTask) {
-            final SectionNode currentNode = boundary.remove(0);
-            final List<SectionNode> neighbors = getNeighbors(currentNode);
-            for (final SectionNode node : neighbors) {
-
-                final MovementSections nodeSections = sectionMapper.getSection(node.transport);
-                if (node.getSection() == targetSection) {
-                    routes.add(new SectionRoute(start, target, node.getTransportRoute()));
-                }
-                else {
-                    boundary.add(node);
-                }
+        try {
+            final SectionRouteSearch search = new SectionRouteSearch(sectionMapper.getSectionGraph(), start, startSection,
+                    target, targetSection, transportPredicate, maxRoutes, worldMap.getTransportDistances());
+            SectionRoute route;
+            while (routes.size() < maxRoutes && (route = search.next(() -> shouldCancelTask)) != null) {
+                routes.add(route);
+                routeListener.accept(route);
             }
+        } catch (final Throwable e) {
+            status = PathfinderTaskStatus.CANCELLED;
+            completion.completeExceptionally(e);
+            throw e;
         }
 
         if (shouldCancelTask) {
@@ -107,56 +103,6 @@ public class SectionPathfinderTask implements Runnable {
         else {
             status = PathfinderTaskStatus.DONE;
         }
-    }
-
-    private List<SectionNode> getNeighbors(final SectionNode node) {
-        final Integer nodeSection = node.getSection();
-        final BiPredicate<SectionNode, Integer> hasNodeBeenInSectionBefore = (nodeToCheck, section) -> {
-            final List<Transport> route = nodeToCheck.getTransportRoute();
-            final Set<Integer> visitedSections = new HashSet<>();
-
-            if (route.isEmpty()) {
-                return false;
-            }
-
-            final Transport firstTransport = route.get(0);
-            final MovementSections firstTransportSections = sectionMapper.getSection(firstTransport);
-            visitedSections.add(firstTransportSections.getOriginSection());
-
-            for (final Transport transport : route) {
-                final MovementSections transportSections = sectionMapper.getSection(transport);
-                if (!visitedSections.add(transportSections.getDestinationSection())) {
-                    return true;
-                }
-            }
-            return false;
-        };
-
-        final List<SectionNode> neighbors = new ArrayList<>();
-        for (final Transport transport : worldMap.getTransports()) {
-            final MovementSections transportSections = sectionMapper.getSection(transport);
-            if (!transportSections.getOriginSection().equals(nodeSection)) {
-                continue;
-            }
-            if (transportSections.getOriginSection().equals(transportSections.getDestinationSection())) {
-                continue;
-            }
-
-            final boolean neighborToSectionAlreadyAdded = neighbors.stream().anyMatch((neighborNode) -> {
-                return neighborNode.section == transportSections.getDestinationSection();
-            });
-            if (neighborToSectionAlreadyAdded) {
-                continue;
-            }
-
-            if (!transportPredicate.test(transport)) {
-                continue;
-            }
-
-            if (!hasNodeBeenInSectionBefore.test(node, transportSections.getDestinationSection())) {
-                neighbors.add(new SectionNode(transportSections.getDestinationSection(), node, transport));
-            }
-        }
-        return neighbors;
+        completion.complete(routes);
     }
 }
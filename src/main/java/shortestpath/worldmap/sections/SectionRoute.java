@@ -4,9 +4,13 @@ import lombok.Getter;
 import net.runelite.api.coords.WorldPoint;
 import shortestpath.pathfinder.path.Transport;
 
-import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Transports from an origin to a destination in another section, with the cost routes are ranked by. The cost is an
+ * estimate rather than a bound, as it mixes straight lines with the legs of TransportDistances that shortcuts may
+ * beat, so pruning routes uses PathfinderRouteTask.getLengthBound instead.
+ */
 public class SectionRoute {
     @Getter
     private final WorldPoint origin;
@@ -14,14 +18,33 @@ public class SectionRoute {
     private final WorldPoint destination;
     @Getter
     private final List<Transport> transports;
+    // Estimated length it was found with, see SectionRouteSearch
+    @Getter
+    private final int cost;
 
     public SectionRoute(final WorldPoint origin, final WorldPoint destination, final List<Transport> transports) {
         this.origin = origin;
         this.destination = destination;
         this.transports = transports;
+        this.cost = straightLineLength(origin, destination, transports);
+    }
+
+    public SectionRoute(final WorldPoint origin, final WorldPoint destination, final List<Transport> transports,
+                        final int cost) {
+        this.origin = origin;
+        this.destination = destination;
+        this.transports = transports;
+        this.cost = cost;
     }
 
-    public int length() {
+    /**
+     * Estimated length, walking straight to, between and from the transports and taking a step for each transport.
+     */
+    private static int straightLineLength(final WorldPoint origin, final WorldPoint destination, final List<Transport> transports) {
+        if (transports.isEmpty()) {
+            return origin.distanceTo2D(destination);
+        }
+
         int length = origin.distanceTo2D(transports.get(0).getOrigin());
 
         for (int i = 0; i < transports.size() - 1; ++i) {
@@ -31,7 +54,7 @@ public class SectionRoute {
             length += distanceBetweenTransports;
         }
 
-        length += origin.distanceTo2D(transports.get(transports.size() - 1).getDestination());
-        return length;
+        length += transports.get(transports.size() - 1).getDestination().distanceTo2D(destination);
+        return length + transports.size();
     }
 }
@@ -0,0 +1,165 @@
+package shortestpath.worldmap.sections;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Transport;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Routes from a start to a target in another section over the transports of a SectionGraph, found lazily in order
+ * of their estimated length (see SectionRoute.getCost). Legs between transports take the length of their path in
+ * TransportDistances when it has one, which the player's agility shortcuts may beat, and the straight line length
+ * otherwise, which the leg may exceed, so the cost is an estimate that's neither bound. Routes never return to a
+ * section.
+ *
+ * Nodes are the transports, at their destination, together with the sections visited so far, and routes are
+ * extended in order of cost like Dijkstra's algorithm. A route's extensions only depend on that state, so the first
+ * maxRoutes routes never pass a state more often, and each state is extended at most maxRoutes times. This gives
+ * the maxRoutes shortest routes in order, but the number of states can grow quickly with the number of sections,
+ * so the search also stops after maxRoutes extensions per transport. Routes found before that are still the
+ * shortest in order, there may only be fewer of them.
+ */
+public class SectionRouteSearch {
+    private static final byte UNTESTED = 0;
+    private static final byte USABLE = 1;
+    private static final byte UNUSABLE = 2;
+
+    private final SectionGraph sectionGraph;
+    private final WorldPoint start;
+    private final WorldPoint target;
+    private final int targetSection;
+    private final Predicate<Transport> transportPredicate;
+    private final int maxRoutes;
+    @Nullable
+    private final TransportDistances transportDistances;
+
+    private final PriorityQueue<SectionNode> boundary = new PriorityQueue<>(Comparator.comparingInt(SectionNode::getCost));
+    private final Map<State, Integer> timesExtended = new HashMap<>();
+    private int remainingExtensions;
+    // Transport predicate results by transport index, as the predicate is tested for each node reaching them
+    private final byte[] transportUsability;
+
+    public SectionRouteSearch(final SectionGraph sectionGraph, final WorldPoint start, final int startSection,
+                              final WorldPoint target, final int targetSection, final Predicate<Transport> transportPredicate,
+                              final int maxRoutes) {
+        this(sectionGraph, start, startSection, target, targetSection, transportPredicate, maxRoutes, null);
+    }
+
+    public SectionRouteSearch(final SectionGraph sectionGraph, final WorldPoint start, final int startSection,
+                              final WorldPoint target, final int targetSection, final Predicate<Transport> transportPredicate,
+                              final int maxRoutes, @Nullable final TransportDistances transportDistances) {
+        this.sectionGraph = sectionGraph;
+        this.start = start;
+        this.target = target;
+        this.targetSection = targetSection;
+        this.transportPredicate = transportPredicate;
+        this.maxRoutes = maxRoutes;
+        this.transportDistances = transportDistances;
+        this.remainingExtensions = (int) Math.min(Integer.MAX_VALUE, (long) maxRoutes * Math.max(1, sectionGraph.getTransportCount()));
+        this.transportUsability = new byte[sectionGraph.getTransportCount()];
+
+        boundary.add(new SectionNode(startSection, null, null, SectionNode.START, 0));
+    }
+
+    /**
+     * The next shortest route, or null when there are no more routes or the search is cancelled first.
+     */
+    @Nullable
+    public synchronized SectionRoute next(final BooleanSupplier isCancelled) {
+        while (!boundary.isEmpty() && !isCancelled.getAsBoolean()) {
+            final SectionNode node = boundary.poll();
+            if (node.transportIndex == SectionNode.TARGET) {
+                return new SectionRoute(start, target, node.getTransportRoute(), node.cost);
+            }
+            if (node.transportIndex != SectionNode.START &&
+                    timesExtended.merge(new State(node.transportIndex, node.visitedSections), 1, Integer::sum) > maxRoutes) {
+                continue;
+            }
+            if (remainingExtensions-- <= 0) {
+                boundary.clear();
+                break;
+            }
+
+            final WorldPoint point = (node.transport == null ? start : node.transport.getDestination());
+            if (node.section == targetSection) {
+                // The target section can't be left and returned to, so routes reaching it end at the target
+                boundary.add(new SectionNode(targetSection, node, null, SectionNode.TARGET,
+                        node.cost + point.distanceTo2D(target)));
+                continue;
+            }
+            addNeighbors(node, point);
+        }
+        return null;
+    }
+
+    private void addNeighbors(final SectionNode node, final WorldPoint point) {
+        final int lastNeighbor = sectionGraph.getFirstNeighbor(node.section + 1);
+        for (int neighbor = sectionGraph.getFirstNeighbor(node.section); neighbor < lastNeighbor; ++neighbor) {
+            final int neighborSection = sectionGraph.getNeighborSection(neighbor);
+            if (node.hasBeenInSection(neighborSection)) {
+                continue;
+            }
+
+            final int lastTransport = sectionGraph.getFirstTransport(neighbor + 1);
+            for (int i = sectionGraph.getFirstTransport(neighbor); i < lastTransport; ++i) {
+                if (!isUsable(i)) {
+                    continue;
+                }
+                final Transport transport = sectionGraph.getTransport(i);
+                // Walking to the transport and a step to take it
+                final int cost = node.cost + legDistance(node, point, transport.getOrigin()) + 1;
+                boundary.add(new SectionNode(neighborSection, node, transport, i, cost));
+            }
+        }
+    }
+
+    private int legDistance(final SectionNode node, final WorldPoint from, final WorldPoint to) {
+        if (transportDistances != null && node.transport != null) {
+            // Without a path every player can take, the leg may still take agility shortcuts
+            final int distance = transportDistances.getDistance(from, to);
+            if (distance != TransportDistances.UNKNOWN && distance != TransportDistances.UNREACHABLE) {
+                return distance;
+            }
+        }
+        return from.distanceTo2D(to);
+    }
+
+    private boolean isUsable(final int transportIndex) {
+        if (transportUsability[transportIndex] == UNTESTED) {
+            transportUsability[transportIndex] = (transportPredicate.test(sectionGraph.getTransport(transportIndex)) ? USABLE : UNUSABLE);
+        }
+        return transportUsability[transportIndex] == USABLE;
+    }
+
+    // Transport a route is at and the sections it visited, which decide how it can be extended
+    private static class State {
+        private final int transportIndex;
+        private final int[] visitedSections;
+
+        State(final int transportIndex, final int[] visitedSections) {
+            this.transportIndex = transportIndex;
+            this.visitedSections = visitedSections;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof State)) {
+                return false;
+            }
+            final State state = (State) other;
+            return transportIndex == state.transportIndex && Arrays.equals(visitedSections, state.visitedSections);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * transportIndex + Arrays.hashCode(visitedSections);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package shortestpath.worldmap.sections;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.path.Movement;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.Walk;
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.utils.Util;
+import shortestpath.utils.WorldPointSet;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Shortest paths within sections from the destination of every transport arriving in a section to the origin of
+ * every transport leaving it, or of any other transport in it which not every player can use. These are the legs
+ * between the transports of a SectionRoute. The paths walk and take the transports of isTakenByPaths, which every
+ * player can use, so a leg's path is exact unless the player can use another transport of the section on the way,
+ * which the distances to the origins of those transports tell. See PathfinderRouteTask.
+ *
+ * Each pair keeps its distance and its path, as runs of steps in one direction and the transports taken. Pairs that
+ * weren't computed are UNKNOWN, and pairs without a path between them are UNREACHABLE. The paths only depend on the
+ * collision map and the transports they may take, so update only computes the pairs of new transports unless a
+ * transport the paths may take was added.
+ */
+public class TransportDistances {
+    public static final int UNKNOWN = -1;
+    public static final int UNREACHABLE = 0xFFFF;
+    private static final ZipEntry DISTANCES_ZIP_ENTRY = new ZipEntry("transport-distances.bin");
+    private static final int DISTANCES_FILE_MAGIC = 0x54444953; // "TDIS"
+    private static final int DISTANCES_FILE_VERSION = 2;
+    private static final OrdinalDirection[] DIRECTIONS = OrdinalDirection.values();
+    private static final int[] DIRECTION_X = new int[DIRECTIONS.length];
+    private static final int[] DIRECTION_Y = new int[DIRECTIONS.length];
+    // Moves of the search, the index of a direction or a transport
+    private static final byte TRANSPORT_MOVE = (byte) DIRECTIONS.length;
+    // Steps of a path are bytes of (direction << 4) | (steps - 1) for up to MAX_RUN steps in a direction, or
+    // TRANSPORT_STEP followed by the packed destination of the transport taken
+    private static final int MAX_RUN = 16;
+    private static final byte TRANSPORT_STEP = (byte) 0x80;
+
+    static {
+        for (int i = 0; i < DIRECTIONS.length; ++i) {
+            DIRECTION_X[i] = DIRECTIONS[i].toPoint().getX();
+            DIRECTION_Y[i] = DIRECTIONS[i].toPoint().getY();
+        }
+    }
+
+    // Number of transports the paths could take when they were computed, as transports are only ever added this
+    // tells whether one was added since
+    private final int takenTransportCount;
+    // Sorted (packed from, packed to) pairs, see pairKey, and the distance of each
+    private final long[] pairs;
+    private final char[] distances;
+    // Steps of the path of pair i at [pathOffsets[i], pathOffsets[i + 1])
+    private final int[] pathOffsets;
+    private final byte[] paths;
+
+    private TransportDistances(final int takenTransportCount, final long[] pairs, final char[] distances,
+                               final int[] pathOffsets, final byte[] paths) {
+        this.takenTransportCount = takenTransportCount;
+        this.pairs = pairs;
+        this.distances = distances;
+        this.pathOffsets = pathOffsets;
+        this.paths = paths;
+    }
+
+    public int getDistance(final WorldPoint from, final WorldPoint to) {
+        final int index = Arrays.binarySearch(pairs, pairKey(WorldPointUtil.packWorldPoint(from), WorldPointUtil.packWorldPoint(to)));
+        return (index < 0 ? UNKNOWN : distances[index]);
+    }
+
+    /**
+     * Path of a pair, with getDistance movements after the initial one like the paths of searches, or null when the
+     * pair isn't known, is UNREACHABLE or takes a transport which isn't on the world map.
+     */
+    @Nullable
+    public shortestpath.pathfinder.path.Path getPath(final WorldMap worldMap, final WorldPoint from, final WorldPoint to) {
+        final int index = Arrays.binarySearch(pairs, pairKey(WorldPointUtil.packWorldPoint(from), WorldPointUtil.packWorldPoint(to)));
+        if (index < 0 || distances[index] == UNREACHABLE) {
+            return null;
+        }
+
+        final List<Movement> movements = new ArrayList<>(distances[index] + 1);
+        movements.add(new Walk(from, from));
+        WorldPoint point = from;
+        int offset = pathOffsets[index];
+        while (offset < pathOffsets[index + 1]) {
+            final byte step = paths[offset++];
+            if (step == TRANSPORT_STEP) {
+                final int destination = ((paths[offset] & 0xFF) << 24) | ((paths[offset + 1] & 0xFF) << 16) |
+                        ((paths[offset + 2] & 0xFF) << 8) | (paths[offset + 3] & 0xFF);
+                offset += 4;
+                final Transport transport = findTransport(worldMap, point, destination);
+                if (transport == null) {
+                    return null;
+                }
+                movements.add(transport);
+                point = transport.getDestination();
+                continue;
+            }
+
+            final int direction = (step >> 4) & 0x7;
+            for (int i = 0; i <= (step & 0xF); ++i) {
+                final WorldPoint next = new WorldPoint(point.getX() + DIRECTION_X[direction], point.getY() + DIRECTION_Y[direction], point.getPlane());
+                movements.add(new Walk(point, next));
+                point = next;
+            }
+        }
+        return new shortestpath.pathfinder.path.Path(movements);
+    }
+
+    @Nullable
+    private static Transport findTransport(final WorldMap worldMap, final WorldPoint origin, final int packedDestination) {
+        for (final Transport transport : worldMap.getTransports(origin)) {
+            if (WorldPointUtil.packWorldPoint(transport.getDestination()) == packedDestination) {
+                return transport;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return pairs.length;
+    }
+
+    /**
+     * Transports the paths may take, the ones staying in their section which every player can use. Agility
+     * shortcuts need a level above 1.
+     */
+    public static boolean isTakenByPaths(final Transport transport, final SectionMapper sectionMapper) {
+        if (transport.getAgilityLevelRequired() > 1) {
+            return false;
+        }
+        final MovementSections sections = sectionMapper.getSection(transport);
+        return sections.getOriginSection() != null && sections.getOriginSection().equals(sections.getDestinationSection());
+    }
+
+    public static TransportDistances compute(final WorldMap worldMap, final SectionMapper sectionMapper, final ForkJoinPool pool) {
+        return new TransportDistances(0, new long[0], new char[0], new int[1], new byte[0]).update(worldMap, sectionMapper, pool);
+    }
+
+    /**
+     * Copy with the pairs of the current transports which aren't known yet, searching from each transport
+     * destination with unknown pairs on the pool. All pairs are searched again when a transport the paths may
+     * take was added, as it may shorten them.
+     */
+    public TransportDistances update(final WorldMap worldMap, final SectionMapper sectionMapper, final ForkJoinPool pool) {
+        final Predicate<Transport> isTaken = transport -> isTakenByPaths(transport, sectionMapper);
+        final List<Transport> transports = worldMap.getTransports();
+        final int currentTakenTransportCount = (int) transports.stream().filter(isTaken).count();
+        final boolean keepKnownPairs = (currentTakenTransportCount == takenTransportCount);
+
+        final Map<Integer, Set<Integer>> originsBySection = new HashMap<>();
+        for (final Transport transport : transports) {
+            final Integer originSection = sectionMapper.getSection(transport).getOriginSection();
+            if (originSection != null && !isTaken.test(transport)) {
+                originsBySection.computeIfAbsent(originSection, k -> new LinkedHashSet<>())
+                        .add(WorldPointUtil.packWorldPoint(transport.getOrigin()));
+            }
+        }
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        final Map<Integer, Set<Integer>> destinationsBySection = new HashMap<>();
+        for (int i = 0; i < sectionGraph.getTransportCount(); ++i) {
+            final Transport transport = sectionGraph.getTransport(i);
+            destinationsBySection.computeIfAbsent(sectionMapper.getSection(transport).getDestinationSection(), k -> new LinkedHashSet<>())
+                    .add(WorldPointUtil.packWorldPoint(transport.getDestination()));
+        }
+
+        final List<CompletableFuture<SearchResult>> searches = new ArrayList<>();
+        for (final Map.Entry<Integer, Set<Integer>> entry : destinationsBySection.entrySet()) {
+            final Set<Integer> origins = originsBySection.get(entry.getKey());
+            if (origins == null) {
+                continue;
+            }
+            final int[] targets = origins.stream().mapToInt(Integer::intValue).toArray();
+            for (final int source : entry.getValue()) {
+                if (!keepKnownPairs || Arrays.stream(targets).anyMatch(target -> Arrays.binarySearch(pairs, pairKey(source, target)) < 0)) {
+                    searches.add(CompletableFuture.supplyAsync(() -> search(worldMap, isTaken, source, targets), pool));
+                }
+            }
+        }
+
+        final TreeMap<Long, Character> allDistances = new TreeMap<>();
+        final Map<Long, byte[]> allPaths = new HashMap<>();
+        if (keepKnownPairs) {
+            for (int i = 0; i < pairs.length; ++i) {
+                allDistances.put(pairs[i], distances[i]);
+                allPaths.put(pairs[i], Arrays.copyOfRange(paths, pathOffsets[i], pathOffsets[i + 1]));
+            }
+        }
+        for (final CompletableFuture<SearchResult> search : searches) {
+            final SearchResult result = search.join();
+            for (int target = 0; target < result.targets.length; ++target) {
+                final long pair = pairKey(result.source, result.targets[target]);
+                allDistances.put(pair, (char) result.distances[target]);
+                allPaths.put(pair, result.paths[target]);
+            }
+        }
+
+        final long[] updatedPairs = new long[allDistances.size()];
+        final char[] updatedDistances = new char[allDistances.size()];
+        final int[] updatedPathOffsets = new int[allDistances.size() + 1];
+        final ByteArrayOutputStream updatedPaths = new ByteArrayOutputStream();
+        int index = 0;
+        for (final Map.Entry<Long, Character> entry : allDistances.entrySet()) {
+            final byte[] path = allPaths.get(entry.getKey());
+            updatedPairs[index] = entry.getKey();
+            updatedDistances[index] = entry.getValue();
+            updatedPaths.write(path, 0, path.length);
+            updatedPathOffsets[++index] = updatedPaths.size();
+        }
+        return new TransportDistances(currentTakenTransportCount, updatedPairs, updatedDistances, updatedPathOffsets,
+                updatedPaths.toByteArray());
+    }
+
+    private static class SearchResult {
+        private final int source;
+        private final int[] targets;
+        private final int[] distances;
+        private final byte[][] paths;
+
+        SearchResult(final int source, final int[] targets) {
+            this.source = source;
+            this.targets = targets;
+            this.distances = new int[targets.length];
+            this.paths = new byte[targets.length][];
+            Arrays.fill(distances, UNREACHABLE);
+            Arrays.fill(paths, new byte[0]);
+        }
+    }
+
+    private static SearchResult search(final WorldMap worldMap, final Predicate<Transport> isTaken, final int source,
+                                       final int[] targets) {
+        final SearchResult result = new SearchResult(source, targets);
+        final Map<Integer, Integer> targetIndices = new HashMap<>();
+        for (int i = 0; i < targets.length; ++i) {
+            targetIndices.put(targets[i], i);
+        }
+
+        // Breadth-first, one level of the queue per distance, until every target is reached. Each point of the
+        // queue keeps the index of the point it was reached from and the move reaching it, to build the paths.
+        final WorldPointSet visited = new WorldPointSet();
+        int[] queue = new int[1024];
+        int[] previous = new int[queue.length];
+        byte[] moves = new byte[queue.length];
+        int head = 0;
+        int tail = 0;
+        int levelEnd = 1;
+        int distance = 0;
+        int remainingTargets = targets.length;
+        visited.add(source);
+        queue[tail++] = source;
+        while (head < tail && remainingTargets > 0) {
+            if (head == levelEnd) {
+                ++distance;
+                levelEnd = tail;
+            }
+            final int pointIndex = head++;
+            final int point = queue[pointIndex];
+            final Integer targetIndex = targetIndices.get(point);
+            if (targetIndex != null) {
+                result.distances[targetIndex] = Math.min(distance, UNREACHABLE - 1);
+                result.paths[targetIndex] = encodePath(queue, previous, moves, pointIndex);
+                --remainingTargets;
+            }
+
+            final List<Transport> transports = worldMap.getTransports(point);
+            if (tail + DIRECTIONS.length + transports.size() > queue.length) {
+                final int length = Math.max(queue.length * 2, tail + DIRECTIONS.length + transports.size());
+                queue = Arrays.copyOf(queue, length);
+                previous = Arrays.copyOf(previous, length);
+                moves = Arrays.copyOf(moves, length);
+            }
+            final int x = WorldPointUtil.unpackWorldX(point);
+            final int y = WorldPointUtil.unpackWorldY(point);
+            final int plane = WorldPointUtil.unpackWorldPlane(point);
+            for (int i = 0; i < DIRECTIONS.length; ++i) {
+                final int neighborX = x + DIRECTION_X[i];
+                final int neighborY = y + DIRECTION_Y[i];
+                if (!worldMap.checkDirection(x, y, plane, DIRECTIONS[i]) || !visited.add(neighborX, neighborY, plane)) {
+                    continue;
+                }
+                queue[tail] = WorldPointUtil.packWorldPoint(neighborX, neighborY, plane);
+                previous[tail] = pointIndex;
+                moves[tail++] = (byte) i;
+            }
+            for (final Transport transport : transports) {
+                final int destination = WorldPointUtil.packWorldPoint(transport.getDestination());
+                if (!isTaken.test(transport) || !visited.add(destination)) {
+                    continue;
+                }
+                queue[tail] = destination;
+                previous[tail] = pointIndex;
+                moves[tail++] = TRANSPORT_MOVE;
+            }
+        }
+        return result;
+    }
+
+    private static byte[] encodePath(final int[] queue, final int[] previous, final byte[] moves, final int pointIndex) {
+        final List<Integer> pointIndices = new ArrayList<>();
+        for (int index = pointIndex; index != 0; index = previous[index]) {
+            pointIndices.add(index);
+        }
+
+        final ByteArrayOutputStream path = new ByteArrayOutputStream();
+        for (int i = pointIndices.size() - 1; i >= 0; --i) {
+            final int index = pointIndices.get(i);
+            if (moves[index] == TRANSPORT_MOVE) {
+                final int destination = queue[index];
+                path.write(TRANSPORT_STEP);
+                path.write(destination >>> 24);
+                path.write(destination >>> 16);
+                path.write(destination >>> 8);
+                path.write(destination);
+                continue;
+            }
+
+            int steps = 1;
+            while (steps < MAX_RUN && i - steps >= 0 && moves[pointIndices.get(i - steps)] == moves[index]) {
+                ++steps;
+            }
+            path.write((moves[index] << 4) | (steps - 1));
+            i -= steps - 1;
+        }
+        return path.toByteArray();
+    }
+
+    private static long pairKey(final int packedFrom, final int packedTo) {
+        return ((long) packedFrom << 32) | (packedTo & 0xFFFFFFFFL);
+    }
+
+    public void toFile(final Path path) {
+        try (final ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(path))) {
+            outputStream.putNextEntry(DISTANCES_ZIP_ENTRY);
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+            write(output);
+            output.flush();
+            outputStream.closeEntry();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static TransportDistances fromFile(final Path filepath) {
+        try (final ZipInputStream inputStream = new ZipInputStream(TransportDistances.class.getResourceAsStream(Util.pathToResourcePath(filepath)))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = inputStream.getNextEntry()) != null) {
+                if (DISTANCES_ZIP_ENTRY.getName().equals(zipEntry.getName())) {
+                    return read(new DataInputStream(new BufferedInputStream(inputStream)));
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        throw new RuntimeException(String.format("%s not found in %s.", DISTANCES_ZIP_ENTRY.getName(), filepath.getFileName()));
+    }
+
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(DISTANCES_FILE_MAGIC);
+        output.writeInt(DISTANCES_FILE_VERSION);
+        output.writeInt(takenTransportCount);
+        output.writeInt(pairs.length);
+        for (int i = 0; i < pairs.length; ++i) {
+            output.writeLong(pairs[i]);
+            output.writeChar(distances[i]);
+            output.writeChar(pathOffsets[i + 1] - pathOffsets[i]);
+        }
+        output.writeInt(paths.length);
+        output.write(paths);
+    }
+
+    public static TransportDistances read(final DataInput input) throws IOException {
+        final int magic = input.readInt();
+        final int version = input.readInt();
+        if (magic != DISTANCES_FILE_MAGIC || version != DISTANCES_FILE_VERSION) {
+            throw new IOException(String.format("Unsupported transport distances, magic %08x version %d", magic, version));
+        }
+
+        final int takenTransportCount = input.readInt();
+        final int pairCount = input.readInt();
+        final long[] pairs = new long[pairCount];
+        final char[] distances = new char[pairCount];
+        final int[] pathOffsets = new int[pairCount + 1];
+        for (int i = 0; i < pairCount; ++i) {
+            pairs[i] = input.readLong();
+            distances[i] = input.readChar();
+            pathOffsets[i + 1] = pathOffsets[i] + input.readChar();
+        }
+        final byte[] paths = new byte[input.readInt()];
+        input.readFully(paths);
+        return new TransportDistances(takenTransportCount, pairs, distances, pathOffsets, paths);
+    }
+}
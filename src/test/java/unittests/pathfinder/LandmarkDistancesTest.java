@@ -0,0 +1,97 @@
+package unittests.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.pathfinder.Heuristic;
+import shortestpath.pathfinder.LandmarkDistances;
+import shortestpath.pathfinder.SearchAlgorithm;
+import shortestpath.pathfinder.path.Movement;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.utils.PathfinderUtil;
+import shortestpath.worldmap.CollisionMap;
+import shortestpath.worldmap.SplitFlagMap;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.WorldMapProvider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+public class LandmarkDistancesTest {
+    // Grand Exchange to Lumbridge, where teleports make the distance on the map a poor estimate
+    private static final WorldPoint START = new WorldPoint(3164, 3486, 0);
+    private static final WorldPoint TARGET = new WorldPoint(3222, 3218, 0);
+    private static final int REGION_SIZE = 64;
+    private static final int MIN_REGION_X = 3072 / REGION_SIZE;
+    private static final int MAX_REGION_X = 3327 / REGION_SIZE;
+    private static final int MIN_REGION_Y = 3136 / REGION_SIZE;
+    private static final int MAX_REGION_Y = 3519 / REGION_SIZE;
+
+    private static WorldMap worldMap;
+    private static LandmarkDistances landmarkDistances;
+
+    @BeforeClass
+    public static void computeLandmarkDistances() {
+        // Only the regions from the Grand Exchange to Lumbridge, so the searches of compute don't cover the world
+        final Map<SplitFlagMap.Position, byte[]> regions = CollisionMap.readCompressedRegions(Paths.get("src/main/resources/collision-map.zip"));
+        regions.keySet().removeIf(region -> region.x < MIN_REGION_X || region.x > MAX_REGION_X ||
+                region.y < MIN_REGION_Y || region.y > MAX_REGION_Y);
+        worldMap = new WorldMapProvider(new CollisionMap(REGION_SIZE, regions), Paths.get("src/main/resources/transports.txt")).getWorldMap();
+        landmarkDistances = LandmarkDistances.compute(worldMap, TARGET, 4);
+    }
+
+    private static Path findPath(final SearchAlgorithm searchAlgorithm) {
+        final Path path = PathfinderUtil.findPath(worldMap, START, TARGET, searchAlgorithm);
+        Assert.assertNotNull(path);
+        return path;
+    }
+
+    @Test
+    public void testHeuristicNeverOverestimates() {
+        final Path path = findPath(SearchAlgorithm.BREADTH_FIRST);
+        final Heuristic heuristic = landmarkDistances.createHeuristic(TARGET, worldMap.getTransports());
+
+        final List<Movement> movements = path.getMovements();
+        for (int i = 0; i < movements.size(); ++i) {
+            final int movementsLeft = movements.size() - 1 - i;
+            Assert.assertTrue(heuristic.estimate(movements.get(i).getDestination()) <= movementsLeft);
+        }
+        Assert.assertTrue(heuristic.estimate(START) > START.distanceTo(TARGET));
+    }
+
+    @Test
+    public void testAStarWithLandmarksAsShortAsBreadthFirst() {
+        final Path breadthFirstPath = findPath(SearchAlgorithm.BREADTH_FIRST);
+
+        worldMap.setHeuristicProvider(landmarkDistances);
+        final Path aStarPath = findPath(SearchAlgorithm.A_STAR);
+
+        Assert.assertEquals(TARGET, aStarPath.getDestination());
+        Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, aStarPath));
+        Assert.assertEquals(breadthFirstPath.getMovements().size(), aStarPath.getMovements().size());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            landmarkDistances.write(out);
+        }
+        final LandmarkDistances read = LandmarkDistances.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(landmarkDistances.getLandmarks(), read.getLandmarks());
+        final Heuristic heuristic = landmarkDistances.createHeuristic(TARGET, worldMap.getTransports());
+        final Heuristic readHeuristic = read.createHeuristic(TARGET, worldMap.getTransports());
+        for (int x = START.getX() - 50; x <= START.getX() + 50; ++x) {
+            final WorldPoint point = new WorldPoint(x, START.getY(), 0);
+            Assert.assertEquals(heuristic.estimate(point), readHeuristic.estimate(point));
+        }
+    }
+}
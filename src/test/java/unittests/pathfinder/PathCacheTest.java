@@ -0,0 +1,83 @@
+package unittests.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.PathCache;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.Walk;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.WorldMapProvider;
+
+import java.util.Collections;
+
+public class PathCacheTest {
+    private static final WorldPoint START = new WorldPoint(3171, 3383, 0);
+    private static final WorldPoint TARGET = new WorldPoint(3147, 3338, 0);
+    private static final WorldPoint OTHER_TARGET = new WorldPoint(3171, 3404, 0);
+
+    private final WorldMap worldMap = new WorldMapProvider().getWorldMap();
+
+    private static Path createPath(final WorldPoint start, final WorldPoint target) {
+        return new Path(Collections.singletonList(new Walk(start, target)));
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        final PathCache pathCache = new PathCache(worldMap);
+        final PathfinderConfig config = new PathfinderConfig();
+        Assert.assertNull(pathCache.get(START, TARGET, config));
+
+        final Path path = createPath(START, TARGET);
+        pathCache.put(START, TARGET, config, path);
+        Assert.assertSame(path, pathCache.get(START, TARGET, new PathfinderConfig()));
+        Assert.assertNull(pathCache.get(START, OTHER_TARGET, config));
+        Assert.assertEquals(1, pathCache.getHits());
+        Assert.assertEquals(2, pathCache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        final PathCache pathCache = new PathCache(worldMap, 2);
+        final PathfinderConfig config = new PathfinderConfig();
+        final WorldPoint thirdTarget = new WorldPoint(3160, 3360, 0);
+        pathCache.put(START, TARGET, config, createPath(START, TARGET));
+        pathCache.put(START, OTHER_TARGET, config, createPath(START, OTHER_TARGET));
+
+        // Using the first path makes the second one the least recently used
+        Assert.assertNotNull(pathCache.get(START, TARGET, config));
+        pathCache.put(START, thirdTarget, config, createPath(START, thirdTarget));
+
+        Assert.assertEquals(2, pathCache.size());
+        Assert.assertNotNull(pathCache.get(START, TARGET, config));
+        Assert.assertNull(pathCache.get(START, OTHER_TARGET, config));
+        Assert.assertNotNull(pathCache.get(START, thirdTarget, config));
+    }
+
+    @Test
+    public void testConfigsWithDifferentReachabilityKeptApart() {
+        final PathCache pathCache = new PathCache(worldMap);
+        pathCache.put(START, TARGET, new PathfinderConfig(), createPath(START, TARGET));
+
+        final PathfinderConfig higherAgilityConfig = new PathfinderConfig();
+        higherAgilityConfig.agilityLevel = 50;
+        Assert.assertNull(pathCache.get(START, TARGET, higherAgilityConfig));
+
+        final PathfinderConfig noWildernessAvoidanceConfig = new PathfinderConfig();
+        noWildernessAvoidanceConfig.avoidWilderness = false;
+        Assert.assertNull(pathCache.get(START, TARGET, noWildernessAvoidanceConfig));
+    }
+
+    @Test
+    public void testClearedWhenTransportAdded() {
+        final PathCache pathCache = new PathCache(worldMap);
+        final PathfinderConfig config = new PathfinderConfig();
+        pathCache.put(START, TARGET, config, createPath(START, TARGET));
+
+        worldMap.addTransport(new Transport(START, TARGET));
+        Assert.assertNull(pathCache.get(START, TARGET, config));
+        Assert.assertEquals(0, pathCache.size());
+    }
+}
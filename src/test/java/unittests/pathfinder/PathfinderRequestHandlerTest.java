@@ -227,6 +227,22 @@ public class PathfinderRequestHandlerTest {
         Assert.assertEquals(playerToTargetPath, pathfinderRequestHandler.getActivePath());
     }
 
+    @Test
+    public void testReplanFromRepairsFinishedPath() {
+        // Drifting off a finished path should reconnect to it, rather than search to the target again
+        final WorldPoint start = new WorldPoint(3171, 3383, 0);
+        final WorldPoint target = new WorldPoint(3171, 3404, 0);
+        final Path path = expectGeneratePath(start, target);
+        pathfinderRequestHandler.setTarget(target);
+        when(simplePathfinderTaskMock.getStatus()).thenReturn(PathfinderTaskStatus.DONE);
+
+        final WorldPoint driftedLocation = new WorldPoint(3171, 3390, 0);
+        pathfinderRequestHandler.replanFrom(driftedLocation);
+        verify(pathfinderTaskHandlerMock).newRepairTask(path, driftedLocation, target);
+        verify(pathfinderTaskHandlerMock).newTask(any(), any());
+        Assert.assertEquals(driftedLocation, pathfinderRequestHandler.getStart());
+    }
+
     @Test
     public void testFilteringBlockedPoints_setTarget() {
         // 'Set Target' on a blocked point should move the request point to a close but walkable tile instead.
@@ -0,0 +1,69 @@
+package unittests.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.SearchAlgorithm;
+import shortestpath.pathfinder.SearchTree;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.utils.PathfinderUtil;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.WorldMapProvider;
+
+public class SearchTreeTest {
+    private static final WorldPoint START = new WorldPoint(3171, 3383, 0);
+    private static final WorldPoint FAR_TARGET = new WorldPoint(3147, 3338, 0);
+    private static final WorldPoint NEAR_TARGET = new WorldPoint(3171, 3404, 0);
+
+    private final WorldMap worldMap = new WorldMapProvider().getWorldMap();
+
+    private int findBreadthFirstPathLength(final WorldPoint target) {
+        return PathfinderUtil.findPath(worldMap, START, target, SearchAlgorithm.BREADTH_FIRST).getMovements().size();
+    }
+
+    @Test
+    public void testTargetInsideTreeAnsweredWithoutSearching() {
+        final SearchTree searchTree = new SearchTree(worldMap, START, new PathfinderConfig());
+        final Node farNode = searchTree.findNode(FAR_TARGET, () -> false);
+        Assert.assertNotNull(farNode);
+        final int size = searchTree.size();
+
+        // Closer than the first target, so already reached
+        final Node nearNode = searchTree.findNode(NEAR_TARGET, () -> false);
+        Assert.assertNotNull(nearNode);
+        Assert.assertEquals(size, searchTree.size());
+
+        final Path nearPath = nearNode.getPath();
+        Assert.assertEquals(START, nearPath.getOrigin());
+        Assert.assertEquals(NEAR_TARGET, nearPath.getDestination());
+        Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, nearPath));
+        Assert.assertEquals(findBreadthFirstPathLength(NEAR_TARGET), nearPath.getMovements().size());
+        Assert.assertEquals(findBreadthFirstPathLength(FAR_TARGET), farNode.getPath().getMovements().size());
+    }
+
+    @Test
+    public void testTargetOutsideTreeResumesSearch() {
+        final SearchTree searchTree = new SearchTree(worldMap, START, new PathfinderConfig());
+        Assert.assertNotNull(searchTree.findNode(NEAR_TARGET, () -> false));
+        final int size = searchTree.size();
+
+        final Node farNode = searchTree.findNode(FAR_TARGET, () -> false);
+        Assert.assertNotNull(farNode);
+        Assert.assertTrue(searchTree.size() > size);
+        Assert.assertEquals(findBreadthFirstPathLength(FAR_TARGET), farNode.getPath().getMovements().size());
+    }
+
+    @Test
+    public void testInvalidatedByConfigChange() {
+        final PathfinderConfig config = new PathfinderConfig();
+        final SearchTree searchTree = new SearchTree(worldMap, START, config);
+        Assert.assertTrue(searchTree.isValidFor(START, new PathfinderConfig()));
+        Assert.assertFalse(searchTree.isValidFor(NEAR_TARGET, config));
+
+        final PathfinderConfig higherAgilityConfig = new PathfinderConfig();
+        higherAgilityConfig.agilityLevel = 50;
+        Assert.assertFalse(searchTree.isValidFor(START, higherAgilityConfig));
+    }
+}
@@ -0,0 +1,59 @@
+package unittests.pathfinder;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.path.TransportTable;
+import shortestpath.utils.WorldPointUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class TransportTableTest {
+    private final List<Transport> transports = Transport.fromFile(Paths.get("src/main/resources/transports.txt"));
+
+    @Test
+    public void testLookupSameAsGroupedTransports() {
+        final Map<WorldPoint, List<Transport>> byOrigin = new HashMap<>();
+        final Map<WorldPoint, List<Transport>> byDestination = new HashMap<>();
+        for (final Transport transport : transports) {
+            byOrigin.computeIfAbsent(transport.getOrigin(), k -> new ArrayList<>()).add(transport);
+            byDestination.computeIfAbsent(transport.getDestination(), k -> new ArrayList<>()).add(transport);
+        }
+
+        final TransportTable originTable = TransportTable.byOrigin(transports);
+        for (final Map.Entry<WorldPoint, List<Transport>> entry : byOrigin.entrySet()) {
+            Assert.assertEquals(new HashSet<>(entry.getValue()),
+                    new HashSet<>(originTable.get(WorldPointUtil.packWorldPoint(entry.getKey()))));
+        }
+        final TransportTable destinationTable = TransportTable.byDestination(transports);
+        for (final Map.Entry<WorldPoint, List<Transport>> entry : byDestination.entrySet()) {
+            Assert.assertEquals(new HashSet<>(entry.getValue()),
+                    new HashSet<>(destinationTable.get(WorldPointUtil.packWorldPoint(entry.getKey()))));
+        }
+
+        Assert.assertTrue(originTable.get(WorldPointUtil.packWorldPoint(0, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            TransportTable.byOrigin(transports).write(out);
+        }
+
+        final TransportTable read = TransportTable.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(transports.size(), read.getTransports().size());
+        Assert.assertEquals(new HashSet<>(transports), new HashSet<>(read.getTransports()));
+    }
+}
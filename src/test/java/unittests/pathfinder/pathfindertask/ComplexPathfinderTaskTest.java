@@ -6,18 +6,23 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
 import shortestpath.pathfinder.path.Path;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.pathfinder.pathfindertask.ComplexPathfinderTask;
+import shortestpath.pathfinder.pathfindertask.PathfinderRouteTask;
 import shortestpath.utils.PathfinderUtil;
 import shortestpath.worldmap.WorldMapProvider;
 import shortestpath.worldmap.sections.SectionMapper;
+import shortestpath.worldmap.sections.SectionRoute;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 public class ComplexPathfinderTaskTest {
     private static final long TIMEOUT_SECONDS = 10;
+    private static final PathfinderExecutor pathfinderExecutor = new PathfinderExecutor();
 
     private WorldMapProvider worldMapProvider = new WorldMapProvider();
     private SectionMapper sectionMapper = SectionMapper.fromFile(worldMapProvider);
@@ -42,7 +47,7 @@ public class ComplexPathfinderTaskTest {
     }
 
     public Path completeComplexPathfinderTask(final WorldPoint start, final WorldPoint target, final PathfinderConfig config) {
-        final ComplexPathfinderTask task = new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, config, start, target);
+        final ComplexPathfinderTask task = new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, config, start, target, pathfinderExecutor);
         final boolean finishedInTime = PathfinderUtil.waitForTaskCompletion(task, TIMEOUT_SECONDS);
         Assert.assertTrue(finishedInTime);
 
@@ -119,4 +124,39 @@ public class ComplexPathfinderTaskTest {
         final boolean isWildernessLeverUsed = wildernessLever.stream().anyMatch(transportsInPath::contains);
         Assert.assertTrue(isWildernessLeverUsed);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void routeTaskLengthBoundTest() {
+        // The bound starts at the straight line and is the path length once the route is done
+        final WorldPoint start = new WorldPoint(3222, 3218, 0);
+        final WorldPoint target = new WorldPoint(3235, 3225, 0);
+        final PathfinderRouteTask routeTask = new PathfinderRouteTask(new SectionRoute(start, target, Collections.emptyList()),
+                worldMapProvider.getWorldMap(), sectionMapper, defaultConfig, pathfinderExecutor, PathfinderExecutor.Priority.NORMAL);
+        Assert.assertTrue(routeTask.getLengthBound() >= start.distanceTo(target));
+
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(routeTask, TIMEOUT_SECONDS));
+        Assert.assertNotNull(routeTask.getPath());
+        Assert.assertEquals(routeTask.getPath().getMovements().size(), routeTask.getLengthBound());
+    }
+
+    @Test
+    public void routeTaskLengthBoundTest_transportShorterThanStraightLine() {
+        // A transport within the section makes the leg a single movement, far shorter than the straight line
+        final WorldPoint start = new WorldPoint(3222, 3218, 0);
+        final WorldPoint target = new WorldPoint(3235, 3225, 0);
+        worldMapProvider.getWorldMap().addTransport(new Transport(start, target));
+        final SectionRoute route = new SectionRoute(start, target, Collections.emptyList());
+        final List<Transport> usableTransports =
+                PathfinderRouteTask.getUsableTransports(worldMapProvider.getWorldMap(), sectionMapper, defaultConfig);
+
+        final PathfinderRouteTask routeTask = new PathfinderRouteTask(route, worldMapProvider.getWorldMap(), sectionMapper,
+                defaultConfig, pathfinderExecutor, PathfinderExecutor.Priority.NORMAL);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(routeTask, TIMEOUT_SECONDS));
+        final int pathLength = routeTask.getPath().getMovements().size();
+        Assert.assertTrue(pathLength < start.distanceTo(target));
+
+        // Routes are pruned when their bound reaches the best path, so the route isn't pruned by a longer best path
+        Assert.assertTrue(PathfinderRouteTask.getLengthBound(route, usableTransports) <= pathLength);
+        Assert.assertTrue(routeTask.getLengthBound() <= pathLength);
+    }
+}
@@ -6,6 +6,10 @@ import org.junit.Test;
 import shortestpath.pathfinder.path.Path;
 import shortestpath.pathfinder.Node;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.SearchAlgorithm;
+import shortestpath.pathfinder.pathfindertask.PathfinderTaskStatus;
+import shortestpath.pathfinder.pathfindertask.RepairPathfinderTask;
 import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
 import shortestpath.pathfinder.path.Walk;
 import shortestpath.utils.PathfinderUtil;
@@ -13,8 +17,19 @@ import shortestpath.worldmap.WorldMapProvider;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class PathfinderTest {
+    private static final PathfinderExecutor pathfinderExecutor = new PathfinderExecutor();
+    // Paths every search algorithm should find as short as breadth-first does:
+    //   open fields west of Varrock (illustrations/testPathAdheresCollisionMap.png), which jump scans skip across,
+    //   and a route through a transport, which the backward search of bidirectional has to follow
+    private static final WorldPoint[][] SHORTEST_PATH_ROUTES = {
+            {new WorldPoint(3147, 3338, 0), new WorldPoint(3175, 3323, 0)},
+            {new WorldPoint(3395, 3485, 0), new WorldPoint(3478, 9839, 0)}};
+
     private final WorldMapProvider worldMapProvider;
     private final PathfinderConfig defaultConfig;
     private final List<WorldPoint> varrockSteppingStoneShortcutPoints;
@@ -51,6 +66,7 @@ public class PathfinderTest {
         final WorldPoint start = new WorldPoint(3171, 3383, 0);
         final WorldPoint target = new WorldPoint(3171, 3404, 0);
         final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig);
+        pathfinderExecutor.execute(task);
 
         final boolean calculatedPathInTime = PathfinderUtil.waitForTaskCompletion(task);
         Assert.assertTrue(calculatedPathInTime);
@@ -68,6 +84,7 @@ public class PathfinderTest {
         final WorldPoint start = new WorldPoint(3147, 3338, 0);
         final WorldPoint target = new WorldPoint(3175, 3323, 0);
         final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig);
+        pathfinderExecutor.execute(task);
 
         final boolean calculatedPathInTime = PathfinderUtil.waitForTaskCompletion(task);
         final boolean isPathValid = PathfinderUtil.isPathValid(worldMapProvider.getWorldMap(), task.getPath());
@@ -107,6 +124,7 @@ public class PathfinderTest {
         final WorldPoint start = new WorldPoint(3161, 3364, 0);
         final WorldPoint target = new WorldPoint(3143, 3364, 0);
         final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, config);
+        pathfinderExecutor.execute(task);
 
         final boolean calculatedPathInTime = PathfinderUtil.waitForTaskCompletion(task);
         Assert.assertTrue(calculatedPathInTime);
@@ -131,6 +149,7 @@ public class PathfinderTest {
         final WorldPoint start = new WorldPoint(3161, 3364, 0);
         final WorldPoint target = new WorldPoint(3143, 3364, 0);
         final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, config);
+        pathfinderExecutor.execute(task);
 
         final boolean calculatedPathInTime = PathfinderUtil.waitForTaskCompletion(task);
         Assert.assertTrue(calculatedPathInTime);
@@ -144,4 +163,112 @@ public class PathfinderTest {
 
         Assert.assertTrue(varrockSteppingStoneShortcutInPath(path));
     }
+
+    private void assertPathsAsShortAsBreadthFirst(final SearchAlgorithm searchAlgorithm) {
+        for (final WorldPoint[] route : SHORTEST_PATH_ROUTES) {
+            final Path breadthFirstPath = PathfinderUtil.findPath(worldMapProvider.getWorldMap(), route[0], route[1], SearchAlgorithm.BREADTH_FIRST);
+            final Path path = PathfinderUtil.findPath(worldMapProvider.getWorldMap(), route[0], route[1], searchAlgorithm);
+            Assert.assertNotNull(breadthFirstPath);
+            Assert.assertNotNull(path);
+            Assert.assertEquals(route[0], path.getOrigin());
+            Assert.assertEquals(route[1], path.getDestination());
+            Assert.assertTrue(PathfinderUtil.isPathValid(worldMapProvider.getWorldMap(), path));
+            Assert.assertEquals(breadthFirstPath.getMovements().size(), path.getMovements().size());
+        }
+    }
+
+    @Test
+    public void testAStarPathAsShortAsBreadthFirst() {
+        assertPathsAsShortAsBreadthFirst(SearchAlgorithm.A_STAR);
+    }
+
+    @Test
+    public void testBidirectionalPathAsShortAsBreadthFirst() {
+        assertPathsAsShortAsBreadthFirst(SearchAlgorithm.BIDIRECTIONAL);
+    }
+
+    @Test
+    public void testJumpPointPathAsShortAsBreadthFirst() {
+        assertPathsAsShortAsBreadthFirst(SearchAlgorithm.JUMP_POINT);
+    }
+
+    @Test
+    public void testRepairPathRejoinsPath() {
+        // Drifting a few tiles off the path should reconnect to it, not fall back to a search from scratch
+        final WorldPoint start = new WorldPoint(3171, 3383, 0);
+        final WorldPoint target = new WorldPoint(3147, 3338, 0);
+        final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig);
+        pathfinderExecutor.execute(task);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(task));
+        final Path path = task.getPath();
+
+        final WorldPoint driftedStart = new WorldPoint(3171, 3390, 0);
+        final RepairPathfinderTask repairTask = new RepairPathfinderTask(worldMapProvider.getWorldMap(), path, driftedStart, target, defaultConfig,
+                () -> {
+                    throw new AssertionError("Repair fell back to a search");
+                });
+        pathfinderExecutor.execute(repairTask);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(repairTask));
+
+        final Path repairedPath = repairTask.getPath();
+        Assert.assertEquals(driftedStart, repairedPath.getOrigin());
+        Assert.assertEquals(target, repairedPath.getDestination());
+        Assert.assertTrue(PathfinderUtil.isPathValid(worldMapProvider.getWorldMap(), repairedPath));
+        Assert.assertTrue(repairedPath.getMovements().size() <= path.getMovements().size() + driftedStart.distanceTo(start));
+    }
+
+    @Test
+    public void testCompletionCompletesWithPath() throws Exception {
+        final WorldPoint start = new WorldPoint(3171, 3383, 0);
+        final WorldPoint target = new WorldPoint(3171, 3404, 0);
+        final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig);
+        pathfinderExecutor.execute(task);
+
+        final Path path = task.getCompletion().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(PathfinderTaskStatus.DONE, task.getStatus());
+        Assert.assertSame(task.getPath(), path);
+        Assert.assertEquals(target, path.getDestination());
+    }
+
+    @Test
+    public void testFailedSearchCompletesExceptionally() throws Exception {
+        // The door next to the start has its transport tested right away
+        final WorldPoint start = new WorldPoint(3097, 3107, 0);
+        final WorldPoint target = new WorldPoint(3090, 3092, 0);
+        final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig,
+                transport -> {
+                    throw new IllegalStateException("Failing search");
+                });
+        pathfinderExecutor.execute(task);
+
+        try {
+            task.getCompletion().get(5, TimeUnit.SECONDS);
+            Assert.fail("Completion should have failed");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(PathfinderTaskStatus.CANCELLED, task.getStatus());
+    }
+
+    @Test
+    public void testShutdownCompletesQueuedTasks() throws Exception {
+        final PathfinderExecutor executor = new PathfinderExecutor(1);
+        final CountDownLatch blocking = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocking.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        final WorldPoint start = new WorldPoint(3171, 3383, 0);
+        final WorldPoint target = new WorldPoint(3171, 3404, 0);
+        final SimplePathfinderTask task = new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, defaultConfig);
+        executor.execute(task);
+        executor.shutdown();
+
+        Assert.assertTrue(task.getCompletion().isDone());
+        Assert.assertEquals(PathfinderTaskStatus.CANCELLED, task.getStatus());
+    }
 }
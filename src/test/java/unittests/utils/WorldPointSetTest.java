@@ -0,0 +1,50 @@
+package unittests.utils;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.utils.WorldPointSet;
+import shortestpath.utils.WorldPointUtil;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class WorldPointSetTest {
+    @Test
+    public void testAddContains() {
+        final WorldPointSet set = new WorldPointSet();
+        final WorldPoint point = new WorldPoint(3171, 3383, 0);
+
+        Assert.assertFalse(set.contains(point));
+        Assert.assertTrue(set.add(point));
+        Assert.assertFalse(set.add(point));
+        Assert.assertTrue(set.contains(point));
+        Assert.assertTrue(set.contains(point.getX(), point.getY(), point.getPlane()));
+
+        // Same tile on another plane, and neighbouring tiles in other regions, are different points
+        Assert.assertFalse(set.contains(point.dz(1)));
+        Assert.assertFalse(set.contains(new WorldPoint(3171 + 64, 3383, 0)));
+        Assert.assertFalse(set.contains(new WorldPoint(3171, 3383 + 64, 0)));
+        Assert.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testIterateSameAsHashSet() {
+        final Set<WorldPoint> expected = new HashSet<>();
+        final WorldPointSet set = new WorldPointSet();
+        for (int i = 0; i < 1000; ++i) {
+            final WorldPoint point = new WorldPoint((i * 37) % 4000, (i * 101) % 13000, i % WorldPointUtil.PLANE_COUNT);
+            Assert.assertEquals(expected.add(point), set.add(point));
+        }
+
+        Assert.assertEquals(expected.size(), set.size());
+        Assert.assertEquals(expected, new HashSet<>(set));
+    }
+
+    @Test
+    public void testPackWorldPoint() {
+        final WorldPoint point = new WorldPoint(3478, 9839, 3);
+        final int packedPoint = WorldPointUtil.packWorldPoint(point);
+        Assert.assertEquals(point, WorldPointUtil.unpackWorldPoint(packedPoint));
+    }
+}
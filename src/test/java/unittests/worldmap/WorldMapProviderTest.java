@@ -0,0 +1,43 @@
+package unittests.worldmap;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.utils.OrdinalDirection;
+import shortestpath.worldmap.WorldMapProvider;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorldMapProviderTest {
+    @Test
+    public void testPreloadRegionsAroundCenter() throws Exception {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        final AtomicInteger reportedRegions = new AtomicInteger();
+        final AtomicInteger reportedTotal = new AtomicInteger();
+
+        // Radius of 1 region around Varrock, at most 3x3 regions
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        worldMapProvider.preloadRegions(new WorldPoint(3200, 3400, 0), 1, pool, (loadedRegions, totalRegions) -> {
+            reportedRegions.incrementAndGet();
+            reportedTotal.set(totalRegions);
+        }).get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        Assert.assertTrue(reportedTotal.get() > 0 && reportedTotal.get() <= 9);
+        Assert.assertEquals(reportedTotal.get(), reportedRegions.get());
+        Assert.assertTrue(worldMapProvider.getWorldMap().checkDirection(new WorldPoint(3200, 3390, 0), OrdinalDirection.WEST));
+    }
+
+    @Test
+    public void testContractionHierarchyNotLoadedUntilAskedFor() {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        Assert.assertNull(worldMapProvider.getWorldMap().getContractionHierarchy());
+
+        // The hierarchy doesn't know of added transports, so it mustn't be loaded after one
+        worldMapProvider.getWorldMap().addTransport(new Transport(new WorldPoint(3222, 3218, 0), new WorldPoint(3212, 3428, 0)));
+        Assert.assertNull(worldMapProvider.getContractionHierarchy());
+    }
+}
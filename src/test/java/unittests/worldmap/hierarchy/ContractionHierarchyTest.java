@@ -0,0 +1,132 @@
+package unittests.worldmap.hierarchy;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.SearchAlgorithm;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.pathfindertask.HierarchyPathfinderTask;
+import shortestpath.pathfinder.pathfindertask.PathfinderTask;
+import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
+import shortestpath.utils.PathfinderUtil;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.hierarchy.ContractionHierarchy;
+import shortestpath.worldmap.hierarchy.ContractionHierarchyBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+public class ContractionHierarchyTest {
+    private static final PathfinderExecutor pathfinderExecutor = new PathfinderExecutor();
+    private static final WorldPoint LUMBRIDGE = new WorldPoint(3222, 3218, 0);
+    // Paths between these stay well within the tiles the hierarchy is built for
+    private static final WorldPoint[][] ROUTES = {
+            {new WorldPoint(3222, 3218, 0), new WorldPoint(3206, 3215, 1)},
+            {new WorldPoint(3235, 3225, 0), new WorldPoint(3208, 3205, 0)},
+            {new WorldPoint(3206, 3228, 2), new WorldPoint(3241, 3208, 0)},
+            {new WorldPoint(3258, 3230, 0), new WorldPoint(3222, 3240, 0)},
+    };
+
+    private static WorldMap worldMap;
+    private static ContractionHierarchy contractionHierarchy;
+
+    @BeforeClass
+    public static void buildContractionHierarchy() {
+        worldMap = new WorldMapProvider().getWorldMap();
+        contractionHierarchy = ContractionHierarchyBuilder.build(worldMap, LUMBRIDGE, 150);
+    }
+
+    private static Path findPath(final PathfinderTask task) {
+        pathfinderExecutor.execute(task);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(task));
+        return task.getPath();
+    }
+
+    private static Path findBreadthFirstPath(final WorldPoint start, final WorldPoint target) {
+        return PathfinderUtil.findPath(worldMap, start, target, SearchAlgorithm.BREADTH_FIRST);
+    }
+
+    private static HierarchyPathfinderTask createTask(final WorldPoint start, final WorldPoint target) {
+        return createTask(start, target, () -> contractionHierarchy);
+    }
+
+    private static HierarchyPathfinderTask createTask(final WorldPoint start, final WorldPoint target,
+                                                      final Supplier<ContractionHierarchy> contractionHierarchySupplier) {
+        final PathfinderConfig config = new PathfinderConfig();
+        return new HierarchyPathfinderTask(worldMap, contractionHierarchySupplier, start, target, config,
+                () -> {
+                    final PathfinderTask fallbackTask = new SimplePathfinderTask(worldMap, start, target, config);
+                    pathfinderExecutor.execute(fallbackTask);
+                    return fallbackTask;
+                });
+    }
+
+    @Test
+    public void testPathsAsShortAsBreadthFirst() {
+        for (final WorldPoint[] route : ROUTES) {
+            final int[] points = contractionHierarchy.findPath(WorldPointUtil.packWorldPoint(route[0]), WorldPointUtil.packWorldPoint(route[1]));
+            Assert.assertNotNull(points);
+            Assert.assertEquals(WorldPointUtil.packWorldPoint(route[0]), points[0]);
+            Assert.assertEquals(WorldPointUtil.packWorldPoint(route[1]), points[points.length - 1]);
+            Assert.assertEquals(findBreadthFirstPath(route[0], route[1]).getMovements().size(), points.length);
+        }
+    }
+
+    @Test
+    public void testTaskPathValid() {
+        for (final WorldPoint[] route : ROUTES) {
+            final Path path = findPath(createTask(route[0], route[1]));
+            Assert.assertEquals(route[0], path.getOrigin());
+            Assert.assertEquals(route[1], path.getDestination());
+            Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, path));
+            Assert.assertEquals(findBreadthFirstPath(route[0], route[1]).getMovements().size(), path.getMovements().size());
+        }
+    }
+
+    @Test
+    public void testTaskFallsBackOutsideHierarchy() {
+        // Varrock square is further than the hierarchy reaches
+        final WorldPoint target = new WorldPoint(3212, 3428, 0);
+        Assert.assertNull(contractionHierarchy.findPath(WorldPointUtil.packWorldPoint(LUMBRIDGE), WorldPointUtil.packWorldPoint(target)));
+
+        final Path path = findPath(createTask(LUMBRIDGE, target));
+        Assert.assertEquals(target, path.getDestination());
+        Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, path));
+    }
+
+    @Test
+    public void testTaskFallsBackWithoutHierarchy() {
+        final WorldPoint[] route = ROUTES[0];
+        final Path path = findPath(createTask(route[0], route[1], () -> null));
+        Assert.assertEquals(route[1], path.getDestination());
+        Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, path));
+        Assert.assertEquals(findBreadthFirstPath(route[0], route[1]).getMovements().size(), path.getMovements().size());
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            contractionHierarchy.write(out);
+        }
+        final ContractionHierarchy read = ContractionHierarchy.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(contractionHierarchy.getNodeCount(), read.getNodeCount());
+        Assert.assertEquals(contractionHierarchy.getEdgeCount(), read.getEdgeCount());
+        Assert.assertEquals(contractionHierarchy.getCoreNodeCount(), read.getCoreNodeCount());
+        for (final WorldPoint[] route : ROUTES) {
+            final int start = WorldPointUtil.packWorldPoint(route[0]);
+            final int target = WorldPointUtil.packWorldPoint(route[1]);
+            Assert.assertArrayEquals(contractionHierarchy.findPath(start, target), read.findPath(start, target));
+        }
+    }
+}
@@ -2,14 +2,24 @@ package unittests.worldmap.sections;
 
 import net.runelite.api.coords.WorldPoint;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import shortestpath.utils.OrdinalDirection;
+import shortestpath.worldmap.CollisionMap;
+import shortestpath.worldmap.FlagMap;
+import shortestpath.worldmap.MappedFlagMap;
+import shortestpath.worldmap.SplitFlagMap;
 import shortestpath.worldmap.WorldMapProvider;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 
 public class CollisionMapTest {
     private static WorldMapProvider worldMapProvider = new WorldMapProvider();
@@ -33,6 +43,11 @@ public class CollisionMapTest {
                     {new WorldPoint(3161, 3501, 0), OrdinalDirection.SOUTH_EAST, false},
                     {new WorldPoint(3162, 3499, 0), OrdinalDirection.SOUTH_WEST, false},
                     {new WorldPoint(3162, 3500, 0), OrdinalDirection.NORTH_WEST, false},
+
+                    // Moving across a region border
+                    {new WorldPoint(3199, 3390, 0), OrdinalDirection.NORTH_EAST, true},
+                    {new WorldPoint(3199, 3394, 0), OrdinalDirection.EAST, false},
+                    {new WorldPoint(3200, 3390, 0), OrdinalDirection.WEST, true},
             });
         }
 
@@ -54,4 +69,108 @@ public class CollisionMapTest {
             Assert.assertEquals(expectedResult, result);
         }
     }
+
+    public static class MappedCollisionMapTest {
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        @Test
+        public void testMappedFlagsMatchCompressedFlags() throws IOException {
+            final Map<SplitFlagMap.Position, byte[]> compressedRegions =
+                    CollisionMap.readCompressedRegions(Paths.get("src/main/resources/collision-map.zip"));
+            final CollisionMap collisionMap = new CollisionMap(64, compressedRegions);
+
+            final Path mappedPath = temporaryFolder.newFile("collision-map.bin").toPath();
+            CollisionMap.toMappedFile(mappedPath, compressedRegions);
+            final CollisionMap mappedCollisionMap = CollisionMap.fromMappedFile(mappedPath);
+
+            // Area around Varrock spanning several regions, and a few points outside of any region
+            for (int x = 3136; x < 3264; ++x) {
+                for (int y = 3328; y < 3456; ++y) {
+                    for (int flag = 0; flag < 2; ++flag) {
+                        Assert.assertEquals(collisionMap.get(x, y, 0, flag), mappedCollisionMap.get(x, y, 0, flag));
+                    }
+                }
+            }
+            Assert.assertFalse(mappedCollisionMap.get(-1, 3400, 0, 0));
+            Assert.assertFalse(mappedCollisionMap.get(3200, 3400, 4, 0));
+            Assert.assertFalse(mappedCollisionMap.get(30000, 30000, 0, 0));
+
+            Assert.assertTrue(mappedCollisionMap.checkDirection(new WorldPoint(3159, 3500, 0), OrdinalDirection.NORTH));
+            Assert.assertFalse(mappedCollisionMap.checkDirection(new WorldPoint(3161, 3498, 0), OrdinalDirection.NORTH));
+        }
+
+        @Test
+        public void testMappedWalkableDirectionsMatchCompressedMap() throws IOException {
+            final Map<SplitFlagMap.Position, byte[]> compressedRegions =
+                    CollisionMap.readCompressedRegions(Paths.get("src/main/resources/collision-map.zip"));
+            final CollisionMap collisionMap = new CollisionMap(64, compressedRegions);
+
+            final Path mappedPath = temporaryFolder.newFile("collision-map.bin").toPath();
+            CollisionMap.toMappedFile(mappedPath, compressedRegions);
+            final CollisionMap mappedCollisionMap = CollisionMap.fromMappedFile(mappedPath);
+
+            // Area around Varrock spanning several regions, on every plane
+            for (int z = 0; z < FlagMap.PLANE_COUNT; ++z) {
+                for (int x = 3136; x < 3264; ++x) {
+                    for (int y = 3328; y < 3456; ++y) {
+                        for (final OrdinalDirection direction : OrdinalDirection.values()) {
+                            Assert.assertEquals(collisionMap.checkDirection(x, y, z, direction),
+                                    mappedCollisionMap.checkDirection(x, y, z, direction));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void testMappedFileWithoutTablesRejected() throws IOException {
+            final Map<SplitFlagMap.Position, byte[]> compressedRegions =
+                    CollisionMap.readCompressedRegions(Paths.get("src/main/resources/collision-map.zip"));
+            final Path mappedPath = temporaryFolder.newFile("collision-map.bin").toPath();
+            MappedFlagMap.toFile(mappedPath, 64, compressedRegions, 2);
+            CollisionMap.fromMappedFile(mappedPath);
+        }
+    }
+
+    public static class WalkableDirectionsTest {
+        @Test
+        public void testWalkableDirectionsMatchFlags() {
+            final CollisionMap collisionMap = worldMapProvider.getCollisionMap();
+
+            // Area around Varrock spanning several regions, on every plane
+            for (int z = 0; z < FlagMap.PLANE_COUNT; ++z) {
+                for (int x = 3136; x < 3264; ++x) {
+                    for (int y = 3328; y < 3456; ++y) {
+                        for (final OrdinalDirection direction : OrdinalDirection.values()) {
+                            Assert.assertEquals(x + " " + y + " " + z + " " + direction,
+                                    checkFlags(collisionMap, x, y, z, direction.toPoint().getX(), direction.toPoint().getY()),
+                                    collisionMap.checkDirection(x, y, z, direction));
+                        }
+                    }
+                }
+            }
+        }
+
+        // Movement in a direction read from the flags one step at a time, as CollisionMap did before its tables
+        private static boolean checkFlags(final CollisionMap collisionMap, final int x, final int y, final int z,
+                                          final int dx, final int dy) {
+            if (dx != 0 && dy != 0) {
+                final boolean horizontalPossible = checkFlags(collisionMap, x, y, z, dx, 0) &&
+                        checkFlags(collisionMap, x + dx, y, z, 0, dy);
+                final boolean verticalPossible = checkFlags(collisionMap, x, y, z, 0, dy) &&
+                        checkFlags(collisionMap, x, y + dy, z, dx, 0);
+                if (!(horizontalPossible && verticalPossible)) {
+                    return false;
+                }
+            }
+
+            // Flag 0 is movement between a tile and the tile north of it, flag 1 between a tile and the tile east
+            // of it. Diagonals also require flag 0 of the tile itself.
+            if (dy == 0) {
+                return collisionMap.get(dx < 0 ? x - 1 : x, y, z, 1);
+            }
+            return collisionMap.get(x, (dx == 0 && dy < 0) ? y - 1 : y, z, 0);
+        }
+    }
 }
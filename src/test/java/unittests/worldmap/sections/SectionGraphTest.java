@@ -0,0 +1,60 @@
+package unittests.worldmap.sections;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.MovementSections;
+import shortestpath.worldmap.sections.SectionGraph;
+import shortestpath.worldmap.sections.SectionMapper;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SectionGraphTest {
+    private final WorldMapProvider worldMapProvider = new WorldMapProvider();
+    private final SectionMapper sectionMapper = SectionMapper.fromFile(worldMapProvider);
+
+    @Test
+    public void testTransportsGroupedBySections() {
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        final Set<Transport> graphTransports = new HashSet<>();
+        int transportCount = 0;
+        for (int section = 0; section < sectionGraph.getSectionCount(); ++section) {
+            int previousNeighborSection = -1;
+            for (int neighbor = sectionGraph.getFirstNeighbor(section); neighbor < sectionGraph.getFirstNeighbor(section + 1); ++neighbor) {
+                final int neighborSection = sectionGraph.getNeighborSection(neighbor);
+                Assert.assertTrue(neighborSection > previousNeighborSection);
+                previousNeighborSection = neighborSection;
+
+                for (int i = sectionGraph.getFirstTransport(neighbor); i < sectionGraph.getFirstTransport(neighbor + 1); ++i) {
+                    final Transport transport = sectionGraph.getTransport(i);
+                    final MovementSections sections = sectionMapper.getSection(transport);
+                    Assert.assertEquals(section, (int) sections.getOriginSection());
+                    Assert.assertEquals(neighborSection, (int) sections.getDestinationSection());
+                    graphTransports.add(transport);
+                    ++transportCount;
+                }
+            }
+        }
+
+        // Every transport between different sections is in the graph
+        Assert.assertEquals(sectionGraph.getTransportCount(), transportCount);
+        for (final Transport transport : worldMapProvider.getWorldMap().getTransports()) {
+            final MovementSections sections = sectionMapper.getSection(transport);
+            final boolean isBetweenSections = sections.getOriginSection() != null && sections.getDestinationSection() != null &&
+                    !sections.getOriginSection().equals(sections.getDestinationSection());
+            Assert.assertEquals(isBetweenSections, graphTransports.contains(transport));
+        }
+    }
+
+    @Test
+    public void testRebuiltWhenTransportAdded() {
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        Assert.assertSame(sectionGraph, sectionMapper.getSectionGraph());
+
+        worldMapProvider.getWorldMap().addTransport(new Transport(new WorldPoint(3171, 3383, 0), new WorldPoint(3147, 3338, 0)));
+        Assert.assertNotSame(sectionGraph, sectionMapper.getSectionGraph());
+    }
+}
@@ -0,0 +1,64 @@
+package unittests.worldmap.sections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.worldmap.sections.SectionGrid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SectionGridTest {
+    @Test
+    public void testSetGet() {
+        final SectionGrid grid = new SectionGrid();
+        Assert.assertEquals(SectionGrid.NO_SECTION, grid.get(3171, 3383, 0));
+
+        grid.set(3171, 3383, 0, 0);
+        grid.set(3172, 3383, 0, SectionGrid.MAX_SECTION);
+        Assert.assertEquals(0, grid.get(3171, 3383, 0));
+        Assert.assertEquals(SectionGrid.MAX_SECTION, grid.get(3172, 3383, 0));
+
+        // Same tile on another plane and tiles outside the world are not in any section
+        Assert.assertEquals(SectionGrid.NO_SECTION, grid.get(3171, 3383, 1));
+        Assert.assertEquals(SectionGrid.NO_SECTION, grid.get(-1, 3383, 0));
+    }
+
+    @Test
+    public void testForEach() {
+        final SectionGrid grid = new SectionGrid();
+        grid.set(3171, 3383, 0, 3);
+        grid.set(3478, 9839, 2, 7);
+
+        final List<String> tiles = new ArrayList<>();
+        grid.forEach((x, y, plane, section) -> tiles.add(x + "," + y + "," + plane + ":" + section));
+        Assert.assertEquals(2, tiles.size());
+        Assert.assertTrue(tiles.contains("3171,3383,0:3"));
+        Assert.assertTrue(tiles.contains("3478,9839,2:7"));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final SectionGrid grid = new SectionGrid();
+        for (int x = 3136; x < 3200; ++x) {
+            for (int y = 3328; y < 3392; ++y) {
+                grid.set(x, y, 0, (x < 3150 ? 1 : 2));
+            }
+        }
+        grid.set(3478, 9839, 2, SectionGrid.MAX_SECTION);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        grid.write(new DataOutputStream(bytes));
+        final SectionGrid readGrid = SectionGrid.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(1, readGrid.get(3136, 3328, 0));
+        Assert.assertEquals(2, readGrid.get(3199, 3391, 0));
+        Assert.assertEquals(SectionGrid.NO_SECTION, readGrid.get(3199, 3391, 1));
+        Assert.assertEquals(SectionGrid.MAX_SECTION, readGrid.get(3478, 9839, 2));
+        Assert.assertEquals(SectionGrid.NO_SECTION, readGrid.get(3479, 9839, 2));
+    }
+}
@@ -0,0 +1,52 @@
+package unittests.worldmap.sections;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.Test;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.NodeGraph;
+import shortestpath.worldmap.CollisionMap;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionLabeller;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class SectionLabellerTest {
+    private static final WorldMapProvider worldMapProvider = new WorldMapProvider();
+    private static final SectionLabeller labeller = SectionLabeller.label(worldMapProvider.getCollisionMap(), new ForkJoinPool(4));
+    // Varrock, a few tiles south of the border of its region
+    private static final WorldPoint START = new WorldPoint(3171, 3383, 0);
+
+    private static int getComponent(final WorldPoint point) {
+        return labeller.getComponent(point.getX(), point.getY(), point.getPlane());
+    }
+
+    @Test
+    public void testWalkableTilesShareComponent() {
+        final int component = getComponent(START);
+        Assert.assertNotEquals(SectionLabeller.NO_COMPONENT, component);
+
+        // Far enough to cross region borders
+        final NodeGraph graph = new NodeGraph(worldMapProvider.getWorldMap());
+        graph.addBoundaryNode(Node.createInitialNode(START));
+        for (int i = 0; i < 20_000 && !graph.getBoundary().isEmpty(); ++i) {
+            final WorldPoint point = graph.getBoundary().peek().getMovement().getDestination();
+            Assert.assertEquals(point.toString(), component, getComponent(point));
+            graph.evaluateBoundaryNode((x) -> true, (x) -> false);
+        }
+    }
+
+    @Test
+    public void testBlockedTilesHaveNoComponent() {
+        final CollisionMap collisionMap = worldMapProvider.getCollisionMap();
+        int blockedTiles = 0;
+        for (int x = START.getX() - 20; x <= START.getX() + 20; ++x) {
+            for (int y = START.getY() - 20; y <= START.getY() + 20; ++y) {
+                final boolean isBlocked = collisionMap.isBlocked(x, y, 0);
+                Assert.assertEquals(isBlocked, labeller.getComponent(x, y, 0) == SectionLabeller.NO_COMPONENT);
+                blockedTiles += (isBlocked ? 1 : 0);
+            }
+        }
+        Assert.assertTrue(blockedTiles > 0);
+    }
+}
@@ -4,12 +4,19 @@ import net.runelite.api.coords.WorldPoint;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import shortestpath.pathfinder.Node;
+import shortestpath.pathfinder.NodeGraph;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.utils.PathfinderUtil;
 import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionGrid;
 import shortestpath.worldmap.sections.SectionMapper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -23,6 +30,81 @@ public class SectionMapperTest {
         this.sectionMapper = SectionMapper.fromFile(worldMapProvider);
     }
 
+    @Test
+    public void testFindSections_transportEndpointsHaveSections() {
+        final SectionMapper foundSectionMapper = new SectionMapper(worldMapProvider);
+        foundSectionMapper.findSections();
+
+        for (final Transport transport : worldMapProvider.getWorldMap().getTransports()) {
+            Assert.assertNotNull(foundSectionMapper.getSection(transport.getOrigin()));
+            Assert.assertNotNull(foundSectionMapper.getSection(transport.getDestination()));
+        }
+
+        // Blocked endpoints are sections of their own, so there are at most two sections per transport
+        Assert.assertTrue(foundSectionMapper.getSectionCount() > 0);
+        Assert.assertTrue(foundSectionMapper.getSectionCount() <= 2 * worldMapProvider.getWorldMap().getTransports().size());
+    }
+
+    @Test
+    public void testFindSections_sameSectionsAsFloodFill() {
+        final SectionMapper foundSectionMapper = new SectionMapper(worldMapProvider);
+        foundSectionMapper.findSections();
+        final SectionGrid floodFillSections = floodFillSections();
+
+        // Two endpoints share a section in one labelling exactly when they share one in the other, so the sections
+        // of the endpoints map one to one between the labellings
+        final Map<Integer, Integer> floodFillToFound = new HashMap<>();
+        final Map<Integer, Integer> foundToFloodFill = new HashMap<>();
+        for (final WorldPoint endpoint : getTransportEndpoints()) {
+            final int floodFillSection = floodFillSections.get(endpoint.getX(), endpoint.getY(), endpoint.getPlane());
+            final Integer foundSection = foundSectionMapper.getSection(endpoint);
+            Assert.assertNotEquals(SectionGrid.NO_SECTION, floodFillSection);
+            Assert.assertNotNull(foundSection);
+            Assert.assertEquals("Found section of " + endpoint, floodFillToFound.computeIfAbsent(floodFillSection, k -> foundSection), foundSection);
+            Assert.assertEquals("Flood fill section of " + endpoint, foundToFloodFill.computeIfAbsent(foundSection, k -> floodFillSection), (Integer) floodFillSection);
+        }
+    }
+
+    private List<WorldPoint> getTransportEndpoints() {
+        final List<WorldPoint> endpoints = new ArrayList<>();
+        for (final Transport transport : worldMapProvider.getWorldMap().getTransports()) {
+            endpoints.add(transport.getOrigin());
+            endpoints.add(transport.getDestination());
+        }
+        return endpoints;
+    }
+
+    /**
+     * Sections as SectionMapper found them before the labelling, by a walking flood fill from every endpoint which
+     * isn't in a section yet. A blocked endpoint is a section of its own.
+     */
+    private SectionGrid floodFillSections() {
+        final SectionGrid sections = new SectionGrid();
+        int sectionCount = 0;
+        for (final WorldPoint endpoint : getTransportEndpoints()) {
+            if (sections.get(endpoint.getX(), endpoint.getY(), endpoint.getPlane()) != SectionGrid.NO_SECTION) {
+                continue;
+            }
+
+            final NodeGraph graph = new NodeGraph(worldMapProvider.getWorldMap());
+            graph.addBoundaryNode(Node.createInitialNode(endpoint));
+            while (!graph.getBoundary().isEmpty()) {
+                graph.evaluateBoundaryNode((x) -> true, (x) -> false);
+            }
+
+            final int section = sectionCount++;
+            for (final WorldPoint point : graph.getVisited()) {
+                if (sections.get(point.getX(), point.getY(), point.getPlane()) == SectionGrid.NO_SECTION) {
+                    sections.set(point.getX(), point.getY(), point.getPlane(), section);
+                }
+            }
+            if (graph.getVisited().isEmpty()) {
+                sections.set(endpoint.getX(), endpoint.getY(), endpoint.getPlane(), section);
+            }
+        }
+        return sections;
+    }
+
 //    @Test
 //    public void testGetShortcuts_steppingStoneShortcut() {
 //        // Set-up, find transports belonging to Stepping Stone shortcut
@@ -5,6 +5,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
 import shortestpath.pathfinder.path.Transport;
 import shortestpath.pathfinder.pathfindertask.PathfinderTaskStatus;
 import shortestpath.utils.PathfinderUtil;
@@ -14,6 +15,8 @@ import shortestpath.worldmap.sections.SectionMapper;
 import shortestpath.worldmap.sections.SectionPathfinderTask;
 import shortestpath.worldmap.sections.SectionRoute;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -21,6 +24,7 @@ import java.util.function.Predicate;
 
 public class SectionPathfinderTaskTest {
     private static final long TIMEOUT_SECONDS = 100;
+    private static final PathfinderExecutor pathfinderExecutor = new PathfinderExecutor();
 
     private WorldMapProvider worldMapProvider;
     private SectionMapper sectionMapper;
@@ -93,6 +97,7 @@ public class SectionPathfinderTaskTest {
         final WorldPoint target = new WorldPoint(3089, 3523, 0);
 
         SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, start, target);
+        pathfinderExecutor.execute(sectionPathfinderTask);
         final boolean taskCompletedInTime = PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask);
         Assert.assertTrue(taskCompletedInTime);
 
@@ -107,6 +112,7 @@ public class SectionPathfinderTaskTest {
         final WorldPoint target = new WorldPoint(3224, 3218, 0);
 
         SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, start, target);
+        pathfinderExecutor.execute(sectionPathfinderTask);
         final boolean taskCompletedInTime = PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask);
         Assert.assertTrue(taskCompletedInTime);
 
@@ -115,6 +121,72 @@ public class SectionPathfinderTaskTest {
         Assert.assertTrue(routes.size() > 0);
     }
 
+    @Test
+    public void routesShortestFirstTest_GrandExchange() {
+        final WorldPoint start = new WorldPoint(3232, 3401, 0);
+        final WorldPoint target = new WorldPoint(3089, 3523, 0);
+
+        SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, start, target);
+        pathfinderExecutor.execute(sectionPathfinderTask);
+        final boolean taskCompletedInTime = PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask);
+        Assert.assertTrue(taskCompletedInTime);
+
+        final List<SectionRoute> routes = sectionPathfinderTask.getRoutes();
+        Assert.assertTrue(routes.size() <= SectionPathfinderTask.DEFAULT_MAX_ROUTES);
+        for (int i = 1; i < routes.size(); ++i) {
+            Assert.assertTrue(routes.get(i - 1).getCost() <= routes.get(i).getCost());
+        }
+    }
+
+    @Test
+    public void fewerRoutesArePrefixTest_GrandExchange() {
+        // The shortest routes don't depend on how many are asked for
+        final WorldPoint start = new WorldPoint(3232, 3401, 0);
+        final WorldPoint target = new WorldPoint(3089, 3523, 0);
+        final Predicate<Transport> transportPredicate = pathfinderConfig.getCanPlayerUseTransportPredicate();
+
+        final SectionPathfinderTask fewRoutesTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper,
+                start, target, transportPredicate, 4);
+        final SectionPathfinderTask manyRoutesTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper,
+                start, target, transportPredicate, SectionPathfinderTask.DEFAULT_MAX_ROUTES);
+        pathfinderExecutor.execute(fewRoutesTask);
+        pathfinderExecutor.execute(manyRoutesTask);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(fewRoutesTask));
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(manyRoutesTask));
+
+        final List<SectionRoute> fewRoutes = fewRoutesTask.getRoutes();
+        final List<SectionRoute> manyRoutes = manyRoutesTask.getRoutes();
+        Assert.assertTrue(fewRoutes.size() <= manyRoutes.size());
+        for (int i = 0; i < fewRoutes.size(); ++i) {
+            Assert.assertEquals(fewRoutes.get(i).getCost(), manyRoutes.get(i).getCost());
+        }
+    }
+
+    @Test
+    public void routesHandedOverAsFoundTest_GrandExchange() {
+        final WorldPoint start = new WorldPoint(3232, 3401, 0);
+        final WorldPoint target = new WorldPoint(3089, 3523, 0);
+
+        final List<SectionRoute> listenedRoutes = Collections.synchronizedList(new ArrayList<>());
+        final SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper,
+                start, target, (x) -> true, SectionPathfinderTask.DEFAULT_MAX_ROUTES, listenedRoutes::add);
+        pathfinderExecutor.execute(sectionPathfinderTask);
+        Assert.assertTrue(PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask));
+
+        Assert.assertFalse(listenedRoutes.isEmpty());
+        Assert.assertEquals(sectionPathfinderTask.getRoutes(), listenedRoutes);
+    }
+
+    @Test
+    public void routeCostTest_lastLegFromLastTransport() {
+        final Transport transport = new Transport(new WorldPoint(3210, 3200, 0), new WorldPoint(3300, 3200, 0));
+        final SectionRoute route = new SectionRoute(new WorldPoint(3200, 3200, 0), new WorldPoint(3305, 3200, 0),
+                Collections.singletonList(transport));
+
+        // 10 tiles to the transport, a step to take it and 5 tiles from it
+        Assert.assertEquals(16, route.getCost());
+    }
+
     @Test
     public void agilityShortcutTest_meetsRequirements() {
         final WorldPoint start = new WorldPoint(3395, 3485, 0);
@@ -122,6 +194,7 @@ public class SectionPathfinderTaskTest {
         pathfinderConfig.agilityLevel = 65;
 
         SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, start, target, pathfinderConfig.getCanPlayerUseTransportPredicate());
+        pathfinderExecutor.execute(sectionPathfinderTask);
         final boolean taskCompletedInTime = PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask);
         Assert.assertTrue(taskCompletedInTime);
 
@@ -139,6 +212,7 @@ public class SectionPathfinderTaskTest {
         final WorldPoint target = new WorldPoint(3478, 9839, 0);
 
         SectionPathfinderTask sectionPathfinderTask = new SectionPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, start, target, pathfinderConfig.getCanPlayerUseTransportPredicate());
+        pathfinderExecutor.execute(sectionPathfinderTask);
         final boolean taskCompletedInTime = PathfinderUtil.waitForTaskCompletion(sectionPathfinderTask);
         Assert.assertTrue(taskCompletedInTime);
 
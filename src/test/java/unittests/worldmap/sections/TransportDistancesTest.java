@@ -0,0 +1,224 @@
+package unittests.worldmap.sections;
+
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
+import shortestpath.pathfinder.path.Movement;
+import shortestpath.pathfinder.path.Path;
+import shortestpath.pathfinder.path.Transport;
+import shortestpath.pathfinder.pathfindertask.PathfinderRouteTask;
+import shortestpath.utils.PathfinderUtil;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMap;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionGraph;
+import shortestpath.worldmap.sections.SectionMapper;
+import shortestpath.worldmap.sections.SectionRoute;
+import shortestpath.worldmap.sections.TransportDistances;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class TransportDistancesTest {
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private static WorldMap worldMap;
+    private static SectionMapper sectionMapper;
+    private static TransportDistances transportDistances;
+
+    @BeforeClass
+    public static void computeTransportDistances() {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        worldMap = worldMapProvider.getWorldMap();
+        sectionMapper = SectionMapper.fromFile(worldMapProvider);
+        transportDistances = TransportDistances.compute(worldMap, sectionMapper, pool);
+    }
+
+    @Test
+    public void testDistancesOfTransportsWithinSections() {
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        Assert.assertTrue(transportDistances.size() > 0);
+        for (int i = 0; i < sectionGraph.getTransportCount(); ++i) {
+            final Transport arriving = sectionGraph.getTransport(i);
+            final int section = sectionMapper.getSection(arriving).getDestinationSection();
+            final int lastNeighbor = sectionGraph.getFirstNeighbor(section + 1);
+            for (int neighbor = sectionGraph.getFirstNeighbor(section); neighbor < lastNeighbor; ++neighbor) {
+                final Transport leaving = sectionGraph.getTransport(sectionGraph.getFirstTransport(neighbor));
+                final int distance = transportDistances.getDistance(arriving.getDestination(), leaving.getOrigin());
+                // Sections are connected by walking
+                Assert.assertNotEquals(TransportDistances.UNKNOWN, distance);
+                Assert.assertNotEquals(TransportDistances.UNREACHABLE, distance);
+
+                final Path path = transportDistances.getPath(worldMap, arriving.getDestination(), leaving.getOrigin());
+                Assert.assertNotNull(path);
+                Assert.assertEquals(distance + 1, path.getMovements().size());
+                Assert.assertEquals(arriving.getDestination(), path.getOrigin());
+                Assert.assertEquals(leaving.getOrigin(), path.getDestination());
+                Assert.assertTrue(PathfinderUtil.isPathValid(worldMap, path));
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateKeepsKnownDistances() {
+        final TransportDistances updated = transportDistances.update(worldMap, sectionMapper, pool);
+        Assert.assertEquals(transportDistances.size(), updated.size());
+    }
+
+    @Test
+    public void testRouteTaskTakesKnownLegs() {
+        // A route arriving with one transport in a section it leaves with another
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        int arrivingIndex = 0;
+        while (sectionGraph.getFirstNeighbor(getDestinationSection(sectionGraph, arrivingIndex)) ==
+                sectionGraph.getFirstNeighbor(getDestinationSection(sectionGraph, arrivingIndex) + 1)) {
+            ++arrivingIndex;
+        }
+        final Transport arriving = sectionGraph.getTransport(arrivingIndex);
+        final int section = getDestinationSection(sectionGraph, arrivingIndex);
+        final Transport leaving = sectionGraph.getTransport(sectionGraph.getFirstTransport(sectionGraph.getFirstNeighbor(section)));
+        final SectionRoute route = new SectionRoute(arriving.getOrigin(), leaving.getOrigin(), Collections.singletonList(arriving));
+
+        final PathfinderConfig config = new PathfinderConfig();
+        config.avoidWilderness = false;
+        final PathfinderExecutor pathfinderExecutor = new PathfinderExecutor();
+        worldMap.setTransportDistances(transportDistances);
+        try {
+            final PathfinderRouteTask routeTask = new PathfinderRouteTask(route, worldMap, sectionMapper, config,
+                    pathfinderExecutor, PathfinderExecutor.Priority.HIGH);
+
+            // Without agility shortcuts the leg between the transports is known without a search
+            final CompletableFuture<Path> knownLeg = routeTask.getSectionCompletions().get(1);
+            Assert.assertTrue(knownLeg.isDone());
+            Assert.assertEquals(transportDistances.getDistance(arriving.getDestination(), leaving.getOrigin()) + 1,
+                    knownLeg.join().getMovements().size());
+        } finally {
+            worldMap.setTransportDistances(null);
+            pathfinderExecutor.shutdown();
+        }
+    }
+
+    private static int getDestinationSection(final SectionGraph sectionGraph, final int transportIndex) {
+        return sectionMapper.getSection(sectionGraph.getTransport(transportIndex)).getDestinationSection();
+    }
+
+    @Test
+    public void testUpdateOnlyComputesPairsOfAddedTransport() {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        final WorldMap addedWorldMap = worldMapProvider.getWorldMap();
+        final SectionMapper addedSectionMapper = SectionMapper.fromFile(worldMapProvider);
+        final Map<Integer, Set<Integer>> pairs = getPairs(addedWorldMap, addedSectionMapper);
+
+        // A transport between the sections of two transports, from where one arrives to where the other leaves
+        final SectionGraph sectionGraph = addedSectionMapper.getSectionGraph();
+        final Transport arriving = sectionGraph.getTransport(0);
+        Transport leaving = null;
+        for (int i = 0; i < sectionGraph.getTransportCount() && leaving == null; ++i) {
+            final Transport transport = sectionGraph.getTransport(i);
+            if (!addedSectionMapper.getSection(transport).getOriginSection().equals(addedSectionMapper.getSection(arriving).getDestinationSection())) {
+                leaving = transport;
+            }
+        }
+        Assert.assertNotNull(leaving);
+        addedWorldMap.addTransport(new Transport(arriving.getDestination(), leaving.getOrigin()));
+
+        final Map<Integer, Set<Integer>> addedPairs = getPairs(addedWorldMap, addedSectionMapper);
+        int addedPairCount = 0;
+        for (final Map.Entry<Integer, Set<Integer>> entry : addedPairs.entrySet()) {
+            entry.getValue().removeAll(pairs.getOrDefault(entry.getKey(), Collections.emptySet()));
+            addedPairCount += entry.getValue().size();
+        }
+        addedPairs.values().removeIf(Set::isEmpty);
+        Assert.assertTrue(addedPairCount > 0);
+
+        final CountingPool countingPool = new CountingPool();
+        final TransportDistances updated = transportDistances.update(addedWorldMap, addedSectionMapper, countingPool);
+        // Only the sources of the added pairs are searched, and the known pairs are kept
+        Assert.assertEquals(addedPairs.size(), countingPool.executed.get());
+        Assert.assertEquals(transportDistances.size() + addedPairCount, updated.size());
+        for (final Map.Entry<Integer, Set<Integer>> entry : addedPairs.entrySet()) {
+            for (final int target : entry.getValue()) {
+                Assert.assertNotEquals(TransportDistances.UNKNOWN, updated.getDistance(
+                        WorldPointUtil.unpackWorldPoint(entry.getKey()), WorldPointUtil.unpackWorldPoint(target)));
+            }
+        }
+    }
+
+    // Targets of each source of the pairs, see TransportDistances
+    private static Map<Integer, Set<Integer>> getPairs(final WorldMap worldMap, final SectionMapper sectionMapper) {
+        final Map<Integer, Set<Integer>> originsBySection = new HashMap<>();
+        for (final Transport transport : worldMap.getTransports()) {
+            final Integer section = sectionMapper.getSection(transport).getOriginSection();
+            if (section != null && !TransportDistances.isTakenByPaths(transport, sectionMapper)) {
+                originsBySection.computeIfAbsent(section, k -> new HashSet<>()).add(WorldPointUtil.packWorldPoint(transport.getOrigin()));
+            }
+        }
+
+        final Map<Integer, Set<Integer>> pairs = new HashMap<>();
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        for (int i = 0; i < sectionGraph.getTransportCount(); ++i) {
+            final Transport transport = sectionGraph.getTransport(i);
+            final Set<Integer> origins = originsBySection.get(sectionMapper.getSection(transport).getDestinationSection());
+            if (origins != null) {
+                pairs.computeIfAbsent(WorldPointUtil.packWorldPoint(transport.getDestination()), k -> new HashSet<>()).addAll(origins);
+            }
+        }
+        return pairs;
+    }
+
+    // Counts the searches update starts
+    private static class CountingPool extends ForkJoinPool {
+        private final AtomicInteger executed = new AtomicInteger();
+
+        @Override
+        public void execute(final Runnable task) {
+            executed.incrementAndGet();
+            super.execute(task);
+        }
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            transportDistances.write(out);
+        }
+        final TransportDistances read = TransportDistances.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(transportDistances.size(), read.size());
+        final SectionGraph sectionGraph = sectionMapper.getSectionGraph();
+        for (int i = 0; i < sectionGraph.getTransportCount(); ++i) {
+            final Transport transport = sectionGraph.getTransport(i);
+            for (int j = 0; j < sectionGraph.getTransportCount(); j += 97) {
+                final Transport other = sectionGraph.getTransport(j);
+                Assert.assertEquals(transportDistances.getDistance(transport.getDestination(), other.getOrigin()),
+                        read.getDistance(transport.getDestination(), other.getOrigin()));
+                final Path path = transportDistances.getPath(worldMap, transport.getDestination(), other.getOrigin());
+                final Path readPath = read.getPath(worldMap, transport.getDestination(), other.getOrigin());
+                Assert.assertEquals(getDestinations(path), getDestinations(readPath));
+            }
+        }
+    }
+
+    @Nullable
+    private static List<WorldPoint> getDestinations(@Nullable final Path path) {
+        return (path == null ? null : path.getMovements().stream().map(Movement::getDestination).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,21 @@
+package utility;
+
+import shortestpath.worldmap.CollisionMap;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts collision-map.zip into the uncompressed file read by CollisionMap.fromMappedFile. The output path can
+ * be given as the first argument.
+ */
+public class ConvertCollisionMap {
+    private static final Path COLLISION_MAP_PATH = Paths.get("src/main/resources/collision-map.zip");
+    private static final Path DEFAULT_OUTPUT_PATH = Paths.get("collision-map.bin");
+
+    public static void main(String[] args) {
+        final Path outputPath = (args.length > 0 ? Paths.get(args[0]) : DEFAULT_OUTPUT_PATH);
+        CollisionMap.toMappedFile(outputPath, CollisionMap.readCompressedRegions(COLLISION_MAP_PATH));
+        System.out.println("Successfully saved to " + outputPath.toAbsolutePath() + ".");
+    }
+}
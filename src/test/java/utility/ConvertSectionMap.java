@@ -0,0 +1,19 @@
+package utility;
+
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionMapper;
+
+import java.io.IOException;
+
+/**
+ * Rewrites a section map saved as section-map.json in the binary format, without mapping sections again.
+ */
+public class ConvertSectionMap {
+    public static void main(String[] args) throws IOException {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        final SectionMapper sectionMapper = SectionMapper.fromFile(worldMapProvider);
+        System.out.println("Loaded " + sectionMapper.getSectionCount() + " sections.\n");
+        sectionMapper.toFile();
+        System.out.println("Successfully saved to file.");
+    }
+}
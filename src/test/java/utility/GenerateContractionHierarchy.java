@@ -0,0 +1,64 @@
+package utility;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.pathfindertask.SimplePathfinderTask;
+import shortestpath.utils.WorldPointUtil;
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.hierarchy.ContractionHierarchy;
+import shortestpath.worldmap.hierarchy.ContractionHierarchyBuilder;
+
+// Regenerate whenever collision-map.zip or transports.txt change, the hierarchy is only valid for those.
+// Optionally takes the max distance from the seed to build it for, which keeps it small while trying it out.
+// It's only used with SearchAlgorithm.CONTRACTION_HIERARCHY.
+public class GenerateContractionHierarchy {
+    // Lumbridge, the hierarchy is built for the tiles reachable from it
+    private static final WorldPoint SEED = new WorldPoint(3222, 3218, 0);
+    // Queries timed against A* once the hierarchy is built, from Lumbridge to Varrock, Falador, Ardougne and Karamja
+    private static final WorldPoint[][] ROUTES = {
+            {new WorldPoint(3222, 3218, 0), new WorldPoint(3212, 3428, 0)},
+            {new WorldPoint(3222, 3218, 0), new WorldPoint(2965, 3380, 0)},
+            {new WorldPoint(3222, 3218, 0), new WorldPoint(2662, 3305, 0)},
+            {new WorldPoint(3222, 3218, 0), new WorldPoint(2918, 3176, 0)},
+    };
+    private static final int QUERY_REPETITIONS = 20;
+
+    public static void main(String[] args) {
+        final int maxDistance = (args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE);
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+
+        final long startTime = System.currentTimeMillis();
+        final ContractionHierarchy contractionHierarchy = ContractionHierarchyBuilder.build(worldMapProvider.getWorldMap(), SEED, maxDistance);
+        System.out.println("Done building hierarchy of " + contractionHierarchy.getNodeCount() + " nodes ("
+                + contractionHierarchy.getCoreNodeCount() + " in the core) and " + contractionHierarchy.getEdgeCount()
+                + " edges in " + (System.currentTimeMillis() - startTime) + "ms.\n");
+
+        for (final WorldPoint[] route : ROUTES) {
+            printQueryTimes(worldMapProvider, contractionHierarchy, route[0], route[1]);
+        }
+
+        contractionHierarchy.toFile(WorldMapProvider.DEFAULT_CONTRACTION_HIERARCHY_PATH);
+        System.out.println("Successfully saved to file.");
+    }
+
+    private static void printQueryTimes(final WorldMapProvider worldMapProvider, final ContractionHierarchy contractionHierarchy,
+                                        final WorldPoint start, final WorldPoint target) {
+        final int packedStart = WorldPointUtil.packWorldPoint(start);
+        final int packedTarget = WorldPointUtil.packWorldPoint(target);
+        int[] points = null;
+        final long queryStartTime = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; ++i) {
+            points = contractionHierarchy.findPath(packedStart, packedTarget);
+        }
+        final long queryTime = (System.nanoTime() - queryStartTime) / QUERY_REPETITIONS;
+
+        final long searchStartTime = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; ++i) {
+            new SimplePathfinderTask(worldMapProvider.getWorldMap(), start, target, new PathfinderConfig()).run();
+        }
+        final long searchTime = (System.nanoTime() - searchStartTime) / QUERY_REPETITIONS;
+
+        System.out.println(String.format("%s to %s: %s, query %.3fms, A* %.3fms", start, target,
+                (points == null ? "no path" : (points.length - 1) + " steps"), queryTime / 1e6, searchTime / 1e6));
+    }
+}
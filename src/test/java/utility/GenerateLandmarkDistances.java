@@ -0,0 +1,22 @@
+package utility;
+
+import net.runelite.api.coords.WorldPoint;
+import shortestpath.pathfinder.LandmarkDistances;
+import shortestpath.worldmap.WorldMapProvider;
+
+import java.nio.file.Paths;
+
+// Regenerate whenever collision-map.zip or transports.txt change, the distances are only valid for those
+public class GenerateLandmarkDistances {
+    private static final int LANDMARK_COUNT = 16;
+    // Lumbridge, the landmarks are chosen among the tiles reachable from it
+    private static final WorldPoint SEED = new WorldPoint(3222, 3218, 0);
+
+    public static void main(String[] args) {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        final LandmarkDistances landmarkDistances = LandmarkDistances.compute(worldMapProvider.getWorldMap(), SEED, LANDMARK_COUNT);
+        System.out.println("Done computing distances from landmarks " + landmarkDistances.getLandmarks() + ".\n");
+        landmarkDistances.toFile(Paths.get("src/main/resources/landmark-distances.zip"));
+        System.out.println("Successfully saved to file.");
+    }
+}
@@ -4,13 +4,17 @@ import shortestpath.worldmap.WorldMapProvider;
 import shortestpath.worldmap.sections.SectionMapper;
 
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 public class GenerateSectionMap {
     public static void main(String[] args) throws IOException {
         final WorldMapProvider worldMapProvider = new WorldMapProvider();
         final SectionMapper sectionMapper = new SectionMapper(worldMapProvider);
-        sectionMapper.findSections();
-        System.out.println("Done mapping sections.\n");
+
+        final long startTime = System.currentTimeMillis();
+        sectionMapper.findSections(new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+        System.out.println("Done mapping " + sectionMapper.getSectionCount() + " sections in "
+                + (System.currentTimeMillis() - startTime) + "ms.\n");
         sectionMapper.toFile();
         System.out.println("Successfully saved to file.");
     }
@@ -0,0 +1,27 @@
+package utility;
+
+import shortestpath.worldmap.WorldMapProvider;
+import shortestpath.worldmap.sections.SectionMapper;
+import shortestpath.worldmap.sections.TransportDistances;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Regenerate whenever collision-map.zip changes, new transports only need the existing file updated unless the paths
+// may take them, see TransportDistances.update
+public class GenerateTransportDistances {
+    public static void main(String[] args) {
+        final WorldMapProvider worldMapProvider = new WorldMapProvider();
+        final SectionMapper sectionMapper = SectionMapper.fromFile(worldMapProvider);
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        final long startTime = System.currentTimeMillis();
+        final TransportDistances existing = worldMapProvider.getWorldMap().getTransportDistances();
+        final TransportDistances transportDistances = (existing == null
+                ? TransportDistances.compute(worldMapProvider.getWorldMap(), sectionMapper, pool)
+                : existing.update(worldMapProvider.getWorldMap(), sectionMapper, pool));
+        System.out.println("Done computing " + transportDistances.size() + " distances in "
+                + (System.currentTimeMillis() - startTime) + "ms.\n");
+        transportDistances.toFile(WorldMapProvider.DEFAULT_TRANSPORT_DISTANCES_PATH);
+        System.out.println("Successfully saved to file.");
+    }
+}
@@ -5,6 +5,7 @@ import org.mockito.Mockito;
 import shortestpath.ClientInfoProvider;
 import shortestpath.ConfigProvider;
 import shortestpath.pathfinder.PathfinderConfig;
+import shortestpath.pathfinder.PathfinderExecutor;
 import shortestpath.pathfinder.PathfinderRequestHandler;
 import shortestpath.pathfinder.PathfinderTaskHandler;
 import shortestpath.pathfinder.pathfindertask.ComplexPathfinderTask;
@@ -22,6 +23,7 @@ public class PathfinderTest {
     private static SectionMapper sectionMapper;
 
     // Pathfinder
+    private static PathfinderExecutor pathfinderExecutor;
     private static PathfinderTaskHandler pathfinderTaskHandler;
     private static PathfinderRequestHandler pathfinderRequestHandler;
 
@@ -32,7 +34,8 @@ public class PathfinderTest {
         worldMapProvider = new WorldMapProvider();
         sectionMapper = SectionMapper.fromFile(worldMapProvider);
         // Pathfinder
-        pathfinderTaskHandler = new PathfinderTaskHandler(configProvider, worldMapProvider, sectionMapper);
+        pathfinderExecutor = new PathfinderExecutor();
+        pathfinderTaskHandler = new PathfinderTaskHandler(configProvider, worldMapProvider, sectionMapper, pathfinderExecutor);
         pathfinderRequestHandler = new PathfinderRequestHandler(clientInfoProvider, worldMapProvider, pathfinderTaskHandler);
 
         final PathfinderConfig pathfinderConfig = new PathfinderConfig();
@@ -45,7 +48,7 @@ public class PathfinderTest {
         final WorldPoint start = new WorldPoint(3161, 3482, 0);
         final WorldPoint target = new WorldPoint(3653, 3353, 0);
         for (int i = 0; i < TASKS_TO_CALCULATE; ++i) {
-            final ComplexPathfinderTask task = new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, pathfinderConfig, start, target);
+            final ComplexPathfinderTask task = new ComplexPathfinderTask(worldMapProvider.getWorldMap(), sectionMapper, pathfinderConfig, start, target, pathfinderExecutor);
             final boolean finishedInTime = PathfinderUtil.waitForTaskCompletion(task, 10);
             if (!finishedInTime) {
                 throw new RuntimeException("Path used more than 5 seconds.");